@@ -7,6 +7,8 @@ enum AnalysisPropField implements IPropertyField {
     MIN_DEVIATION(Double.class, "analysis.cond.deviation.min", null),
     MAX_DEVIATION(Double.class, "analysis.cond.deviation.max", null),
     PRECISION(Double.class, "analysis.cond.precision", null),
+    MAX_ITERATIONS(Integer.class, "analysis.cond.iterations.max", 10000),
+    WARM_START(Boolean.class, "analysis.cond.warm.start", false),
     MIN_ELEM_VAL(Double.class, "analysis.cond.element.min", null),
     MAX_ELEM_VAL(Double.class, "analysis.cond.element.max", null),
     TESTS_COUNT(Integer.class, "analysis.cond.tests.count", null),
@@ -14,6 +16,9 @@ enum AnalysisPropField implements IPropertyField {
     MAX_EQUATIONS_COUNT(Integer.class, "analysis.cond.equations.max", null),
     MIN_BLOCK_DIM(Integer.class, "analysis.cond.block.dim.min", null),
     MAX_BLOCK_DIM(Integer.class, "analysis.cond.block.dim.max", null),
+    PARALLELISM(Integer.class, "analysis.cond.parallelism", Runtime.getRuntime().availableProcessors()),
+    SEED(String.class, "analysis.cond.seed", ""),
+    OUT_FILE(String.class, "analysis.cond.out", ""),
     ;
 
     private String key;
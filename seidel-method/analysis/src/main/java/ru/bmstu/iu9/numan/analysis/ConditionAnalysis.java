@@ -0,0 +1,206 @@
+package ru.bmstu.iu9.numan.analysis;
+
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.RealVector;
+import org.apache.commons.math3.stat.descriptive.StatisticalSummary;
+import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
+import ru.bmstu.iu9.numan.ConditionEstimator;
+import ru.bmstu.iu9.numan.ConvergencePolicy;
+import ru.bmstu.iu9.numan.LinearBlockTridiagonalEquation;
+import ru.bmstu.iu9.numan.RandomEquations;
+import ru.bmstu.iu9.numan.SolverListener;
+import ru.bmstu.iu9.numan.SolverResult;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.function.Consumer;
+
+import static ru.bmstu.iu9.numan.SeidelAlgorithm.solveWithSeidelMethod;
+
+/**
+ * Condition analysis of the Seidel method: every trial solves a random diagonally dominant system and the same
+ * system with a random deviation, then compares the change of the solution with the estimate given by the
+ * condition number.
+ * <p>
+ * Trials are independent and run on the given {@link Executor}. Each trial draws from its own
+ * {@link SplittableRandom}, split from the master generator in trial order, so every trial gives the same result
+ * whatever the number of threads. Results reach the sink in completion order, but the statistics are accumulated
+ * in trial order after all trials finish, so they do not depend on the number of threads either.
+ * <p>
+ * With warm start the deviated system is solved starting from the solution of the original one. That takes fewer
+ * sweeps, but the iterations approach from the side of the original solution, so the measured deviation may come
+ * out smaller by up to the iteration error.
+ */
+final class ConditionAnalysis {
+
+    static final class TrialResult {
+        final int number;
+        final int equationsCount;
+        final int blockDim;
+        final double condition;
+        final double absoluteDeviation;
+        final double relativeDeviation;
+        final double predictedDeviation;
+
+        TrialResult(int number, int equationsCount, int blockDim, double condition,
+                    double absoluteDeviation, double relativeDeviation, double predictedDeviation) {
+            this.number = number;
+            this.equationsCount = equationsCount;
+            this.blockDim = blockDim;
+            this.condition = condition;
+            this.absoluteDeviation = absoluteDeviation;
+            this.relativeDeviation = relativeDeviation;
+            this.predictedDeviation = predictedDeviation;
+        }
+    }
+
+    private static final double DIVERGENCE_FACTOR = 1e6;
+
+    private final double minDeviation;
+    private final double maxDeviation;
+    private final ConvergencePolicy policy;
+    private final boolean warmStart;
+    private final double minElemVal;
+    private final double maxElemVal;
+    private final int minEquationsCount;
+    private final int maxEquationsCount;
+    private final int minBlockDim;
+    private final int maxBlockDim;
+
+    private final SummaryStatistics absoluteDeviation = new SummaryStatistics();
+    private final SummaryStatistics relativeDeviation = new SummaryStatistics();
+    private final SummaryStatistics predictedDeviation = new SummaryStatistics();
+
+    ConditionAnalysis(double minDeviation, double maxDeviation, double precision, int maxIterations, boolean warmStart,
+                      double minElemVal, double maxElemVal, int minEquationsCount, int maxEquationsCount, int minBlockDim,
+                      int maxBlockDim) {
+        this.warmStart = warmStart;
+        this.minDeviation = minDeviation;
+        this.maxDeviation = maxDeviation;
+        // расходящийся или слишком медленный пример не должен занимать поток навсегда
+        this.policy = ConvergencePolicy.updateNorm(precision)
+                .withMaxIterations(maxIterations)
+                .withDivergenceFactor(DIVERGENCE_FACTOR);
+        this.minElemVal = minElemVal;
+        this.maxElemVal = maxElemVal;
+        this.minEquationsCount = minEquationsCount;
+        this.maxEquationsCount = maxEquationsCount;
+        this.minBlockDim = minBlockDim;
+        this.maxBlockDim = maxBlockDim;
+    }
+
+    /**
+     * Runs {@code testsCount} trials on {@code executor} and passes every result to {@code sink} on the calling
+     * thread as soon as the trial finishes, then adds the results to the statistics in trial order. Failed trials
+     * are reported and skipped.
+     *
+     * @return number of failed trials
+     */
+    int run(int testsCount, SplittableRandom masterRnd, Executor executor, Consumer<TrialResult> sink)
+            throws InterruptedException {
+        CompletionService<TrialResult> completion = new ExecutorCompletionService<>(executor);
+        for (int i = 0; i < testsCount; i++) {
+            int number = i + 1;
+            SplittableRandom rnd = masterRnd.split();
+            completion.submit(() -> runTrial(number, rnd));
+        }
+
+        TrialResult[] results = new TrialResult[testsCount];
+        int failures = 0;
+        for (int i = 0; i < testsCount; i++) {
+            try {
+                TrialResult result = completion.take().get();
+                results[result.number - 1] = result;
+                sink.accept(result);
+            } catch (ExecutionException e) {
+                failures++;
+                System.out.printf("[error] Trial failed: %s%n", e.getCause());
+            }
+        }
+
+        // сумма с плавающей точкой зависит от порядка слагаемых, поэтому не порядок завершения, а порядок испытаний
+        for (TrialResult result : results) {
+            if (result != null) {
+                absoluteDeviation.addValue(result.absoluteDeviation);
+                relativeDeviation.addValue(result.relativeDeviation);
+                predictedDeviation.addValue(result.predictedDeviation);
+            }
+        }
+        return failures;
+    }
+
+    TrialResult runTrial(int number, SplittableRandom rnd) {
+        int equationsCount = randIntBetween(minEquationsCount, maxEquationsCount, rnd);
+        int blockDim = randIntBetween(minBlockDim, maxBlockDim, rnd);
+
+        // Let's generate random equation
+        LinearBlockTridiagonalEquation equation = new LinearBlockTridiagonalEquation(equationsCount, blockDim);
+        equation.setLhs(RandomEquations.randStrongDiagonalDominatedLhs(equationsCount, blockDim, minElemVal, maxElemVal, rnd));
+        for (int j = 0; j < equationsCount; j++) {
+            equation.setRhsVector(j, RandomEquations.randVector(blockDim, minElemVal, maxElemVal, rnd));
+        }
+
+        // Let's create random deviation system
+        LinearBlockTridiagonalEquation deviationEquation = new LinearBlockTridiagonalEquation(equationsCount, blockDim);
+        deviationEquation.setLhs(RandomEquations.randLhs(equationsCount, blockDim, minDeviation, maxDeviation, rnd));
+        for (int k = 0; k < equationsCount; k++) {
+            deviationEquation.setRhsVector(k, RandomEquations.randVector(blockDim, minDeviation, maxDeviation, rnd));
+        }
+
+        // Generate deviated equation
+        LinearBlockTridiagonalEquation deviatedEquation = equation.add(deviationEquation);
+
+        RealVector startSol = new ArrayRealVector(equationsCount * blockDim);
+        RealVector sol = solve(equation, startSol);
+        // отклонённая система близка к исходной, её решение - хорошее начальное приближение
+        RealVector deviatedSol = solve(deviatedEquation, warmStart ? sol : startSol);
+
+        // обе оценки используют норму обратной к исходной матрице, она оценивается один раз
+        double inverseNorm = new ConditionEstimator(equation).inverseNorm1();
+        double deviatedNorm = ConditionEstimator.norm1(deviatedEquation);
+        double condRhs = ConditionEstimator.norm1(equation) * inverseNorm;
+        double condLhs = deviatedNorm * inverseNorm;
+        double deltaRhs = condRhs * deviationEquation.rhsAsVector().getNorm() / equation.rhsAsVector().getNorm();
+        double deltaLhs = condLhs * ConditionEstimator.norm1(deviationEquation) / deviatedNorm;
+        double maxRelativeSolDeviation = deltaLhs + deltaRhs + deltaLhs * deltaRhs;
+        double absSolDeviation = deviatedSol.subtract(sol).getNorm();
+        double relativeSolDeviation = absSolDeviation / sol.getNorm();
+
+        return new TrialResult(number, equationsCount, blockDim, condRhs, absSolDeviation, relativeSolDeviation,
+                maxRelativeSolDeviation);
+    }
+
+    /**
+     * @throws IllegalStateException if the Seidel method stops without reaching the precision
+     */
+    private RealVector solve(LinearBlockTridiagonalEquation equation, RealVector startSol) {
+        SolverResult result = solveWithSeidelMethod(equation, startSol, policy, SolverListener.SILENT);
+        if (!result.isConverged()) {
+            throw new IllegalStateException("Seidel method stopped: " + result);
+        }
+        return result.getSolution();
+    }
+
+    StatisticalSummary getAbsoluteDeviation() {
+        return absoluteDeviation.getSummary();
+    }
+
+    StatisticalSummary getRelativeDeviation() {
+        return relativeDeviation.getSummary();
+    }
+
+    StatisticalSummary getPredictedDeviation() {
+        return predictedDeviation.getSummary();
+    }
+
+    /**
+     * Random integer in {@code [a, b)}, or {@code a} if the range is empty.
+     */
+    private static int randIntBetween(int a, int b, SplittableRandom rnd) {
+        return b > a ? rnd.nextInt(a, b) : a;
+    }
+
+}
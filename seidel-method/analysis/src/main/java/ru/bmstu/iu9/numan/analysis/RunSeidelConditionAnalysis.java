@@ -1,27 +1,28 @@
 package ru.bmstu.iu9.numan.analysis;
 
-import org.apache.commons.math3.linear.MatrixUtils;
-import org.apache.commons.math3.linear.RealMatrix;
-import org.apache.commons.math3.linear.RealVector;
-import ru.bmstu.iu9.numan.LinearBlockTridiagonalEquation;
-import ru.bmstu.iu9.numan.MatrixHelper;
-import ru.bmstu.iu9.numan.RandomEquations;
+import org.apache.commons.math3.stat.descriptive.StatisticalSummary;
 import ru.bmstu.iu9.properties.PropertiesFileParser;
 
 import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.io.PrintWriter;
 import java.lang.reflect.InvocationTargetException;
-import java.util.Random;
-import java.util.function.Function;
-
-import static java.lang.Math.abs;
-import static ru.bmstu.iu9.numan.SeidelAlgorithm.solveWithSeidelMethod;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class RunSeidelConditionAnalysis {
 
+    private static final String CSV_HEADER = "trial,equations,block_dim,condition,absolute_deviation,relative_deviation,predicted_deviation";
+
     private static double minDeviation;
     private static double maxDeviation;
     private static double precision;
+    private static int maxIterations;
+    private static boolean warmStart;
     private static double minElemVal;
     private static double maxElemVal;
     private static int testsCount;
@@ -29,6 +30,9 @@ public class RunSeidelConditionAnalysis {
     private static int maxEquationsCount;
     private static int minBlockDim;
     private static int maxBlockDim;
+    private static int parallelism;
+    private static String seed;
+    private static String outFile;
 
     public static void main(String[] args) {
         if (args.length == 0) {
@@ -47,73 +51,75 @@ public class RunSeidelConditionAnalysis {
 
         fillFieldsFromProperties();
 
-        double avgRelativeDeviation = 0;
-        double avgAbsoluteDeviation = 0;
-        double avgMaxRelativeSolDeviation = 0;
-
-        for (int i = 0; i < testsCount; i++) {
-            int equationsCount = randIntBetween(minEquationsCount, maxEquationsCount);
-            int blockDim = randIntBetween(minBlockDim, maxBlockDim);
-
-            // Let's generate random equation
-            LinearBlockTridiagonalEquation equation = new LinearBlockTridiagonalEquation(equationsCount);
-            equation.setLhs(RandomEquations.randStrongDiagonalDominatedLhs(equationsCount, blockDim, minElemVal, maxElemVal));
-            for (int j = 0; j < equationsCount; j++) {
-                equation.setRhsVector(j, RandomEquations.randVector(blockDim, minElemVal, maxElemVal));
-            }
-
-            // Let's create random deviation system
-            LinearBlockTridiagonalEquation deviationEquation = new LinearBlockTridiagonalEquation(equationsCount);
-            deviationEquation.setLhs(RandomEquations.randLhs(equationsCount, blockDim, minDeviation, maxDeviation));
-            for (int k = 0; k < equationsCount; k++) {
-                deviationEquation.setRhsVector(k, RandomEquations.randVector(blockDim, minDeviation, maxDeviation));
+        ConditionAnalysis analysis = new ConditionAnalysis(minDeviation, maxDeviation, precision, maxIterations, warmStart, minElemVal, maxElemVal,
+                minEquationsCount, maxEquationsCount, minBlockDim, maxBlockDim);
+        SplittableRandom masterRnd = seed.isEmpty() ? new SplittableRandom() : new SplittableRandom(Long.parseLong(seed));
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism), r -> {
+            Thread thread = new Thread(r, "analysis-trial-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        int failures;
+        try (PrintWriter csv = outFile.isEmpty() ? null : new PrintWriter(new FileWriter(outFile))) {
+            if (csv != null) {
+                csv.println(CSV_HEADER);
             }
+            failures = analysis.run(testsCount, masterRnd, executor, result -> printTrial(result, csv));
+        } catch (IOException e) {
+            System.out.printf("[error] Failed to write trial results to file %s: %s%n", outFile, e);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            executor.shutdownNow();
+        }
 
-            // Generate deviated equation
-            LinearBlockTridiagonalEquation deviatedEquation = equation.add(deviationEquation);
-
-            RealVector[] startSol = MatrixHelper.createVectorsOfSameSize(deviatedEquation.rhs(), 0.0);
-            RealVector sol = solveWithSeidelMethod(equation, startSol, precision);
-            RealVector deviatedSol = solveWithSeidelMethod(deviatedEquation, startSol, precision);
-
-            RealMatrix equationLhs = equation.lhsAsRealMatrix();
-            RealMatrix deviatedLhs = deviatedEquation.lhsAsRealMatrix();
-
-            double condRhs = matrixConditionNumber(equationLhs, equationLhs, RealMatrix::getNorm);
-            double condLhs = matrixConditionNumber(deviatedLhs, equationLhs, RealMatrix::getNorm);
-            double deltaRhs = condRhs * deviationEquation.rhsAsVector().getNorm() / equation.rhsAsVector().getNorm();
-            double deltaLhs = condLhs * deviationEquation.lhsAsRealMatrix().getNorm() / deviatedEquation.lhsAsRealMatrix().getNorm();
-            double maxRelativeSolDeviation = deltaLhs + deltaRhs + deltaLhs * deltaRhs;
-            double absSolDeviation = deviatedSol.subtract(sol).getNorm();
-            double relativeSolDeviation = absSolDeviation / sol.getNorm();
-
-            avgAbsoluteDeviation += absSolDeviation;
-            avgRelativeDeviation += relativeSolDeviation;
-            avgMaxRelativeSolDeviation += maxRelativeSolDeviation;
-
-            System.out.printf("%s%n%n", new String(new char[20]).replace("\0", "-"));
+        if (failures > 0) {
+            System.out.printf("[error] %d of %d trials failed%n", failures, testsCount);
+        }
 
-            System.out.printf("абсолютное отклонение от исходного решения (L2 норма): %.8f%n", absSolDeviation);
-            System.out.printf("относительное отклонение от исходного решения (L2 норма): %.8f%n", relativeSolDeviation);
-            System.out.printf("теоретическая оценка максимального относительного отклонения (столбцовая норма): %.8f%n", maxRelativeSolDeviation);
+        System.out.printf("%n%s%n%n", new String(new char[20]).replace("\0", "#"));
+        System.out.printf("среднее абсолютное отклонение: %.8f%n", analysis.getAbsoluteDeviation().getMean());
+        System.out.printf("среднее относительное отклонение: %.8f%n", analysis.getRelativeDeviation().getMean());
+        System.out.printf("среднее максимальное относительное отклонение: %.8f%n", analysis.getPredictedDeviation().getMean());
+        System.out.println();
+        printSummary("абсолютное отклонение", analysis.getAbsoluteDeviation());
+        printSummary("относительное отклонение", analysis.getRelativeDeviation());
+        printSummary("максимальное относительное отклонение", analysis.getPredictedDeviation());
+    }
 
-            System.out.printf("%s%n%n", new String(new char[20]).replace("\0", "-"));
+    private static void printTrial(ConditionAnalysis.TrialResult result, PrintWriter csv) {
+        String separator = new String(new char[20]).replace("\0", "-");
+        System.out.printf("%s%n%n" +
+                        "испытание #%d: %d блоков %dx%d%n" +
+                        "абсолютное отклонение от исходного решения (L2 норма): %.8f%n" +
+                        "относительное отклонение от исходного решения (L2 норма): %.8f%n" +
+                        "теоретическая оценка максимального относительного отклонения (столбцовая норма): %.8f%n" +
+                        "%s%n%n",
+                separator, result.number, result.equationsCount, result.blockDim, result.blockDim,
+                result.absoluteDeviation, result.relativeDeviation, result.predictedDeviation, separator);
+
+        if (csv != null) {
+            csv.printf(Locale.ROOT, "%d,%d,%d,%s,%s,%s,%s%n", result.number, result.equationsCount, result.blockDim,
+                    result.condition, result.absoluteDeviation, result.relativeDeviation, result.predictedDeviation);
+            csv.flush();
         }
+    }
 
-        avgAbsoluteDeviation /= testsCount;
-        avgRelativeDeviation /= testsCount;
-        avgMaxRelativeSolDeviation /= testsCount;
-
-        System.out.printf("%n%s%n%n", new String(new char[20]).replace("\0", "#"));
-        System.out.printf("среднее абсолютное отклонение: %.8f%n", avgAbsoluteDeviation);
-        System.out.printf("среднее относительное отклонение: %.8f%n", avgRelativeDeviation);
-        System.out.printf("среднее максимальное относительное отклонение: %.8f%n", avgMaxRelativeSolDeviation);
+    private static void printSummary(String caption, StatisticalSummary summary) {
+        System.out.printf("%s: среднее %.8f, дисперсия %.8f, мин. %.8f, макс. %.8f%n", caption,
+                summary.getMean(), summary.getVariance(), summary.getMin(), summary.getMax());
     }
 
     private static void fillFieldsFromProperties() {
         minDeviation = (double) AnalysisPropField.MIN_DEVIATION.getValue();
         maxDeviation = (double) AnalysisPropField.MAX_DEVIATION.getValue();
         precision = (double) AnalysisPropField.PRECISION.getValue();
+        maxIterations = (int) AnalysisPropField.MAX_ITERATIONS.getValue();
+        warmStart = (boolean) AnalysisPropField.WARM_START.getValue();
         minElemVal = (double) AnalysisPropField.MIN_ELEM_VAL.getValue();
         maxElemVal = (double) AnalysisPropField.MAX_ELEM_VAL.getValue();
         testsCount = (int) AnalysisPropField.TESTS_COUNT.getValue();
@@ -121,15 +127,9 @@ public class RunSeidelConditionAnalysis {
         maxEquationsCount = (int) AnalysisPropField.MAX_EQUATIONS_COUNT.getValue();
         minBlockDim = (int) AnalysisPropField.MIN_BLOCK_DIM.getValue();
         maxBlockDim = (int) AnalysisPropField.MAX_BLOCK_DIM.getValue();
-    }
-
-    private static double matrixConditionNumber(RealMatrix matrixA, RealMatrix matrixB, Function<RealMatrix, Double> matrixNorm) {
-        RealMatrix inversedB = MatrixUtils.inverse(matrixB);
-        return matrixNorm.apply(matrixA) * matrixNorm.apply(inversedB);
-    }
-
-    private static int randIntBetween(int a, int b) {
-        return a + (abs(new Random().nextInt()) % (b - a));
+        parallelism = (int) AnalysisPropField.PARALLELISM.getValue();
+        seed = ((String) AnalysisPropField.SEED.getValue()).trim();
+        outFile = ((String) AnalysisPropField.OUT_FILE.getValue()).trim();
     }
 
 }
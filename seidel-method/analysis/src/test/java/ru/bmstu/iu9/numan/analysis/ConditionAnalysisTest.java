@@ -0,0 +1,96 @@
+package ru.bmstu.iu9.numan.analysis;
+
+import org.apache.commons.math3.stat.descriptive.StatisticalSummary;
+import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.testng.Assert.assertEquals;
+
+public class ConditionAnalysisTest {
+
+    private static final int TRIALS = 12;
+
+    @Test
+    public void testResultsDoNotDependOnThreads() throws InterruptedException {
+        ConditionAnalysis sequential = newAnalysis();
+        ConditionAnalysis parallel = newAnalysis();
+        List<ConditionAnalysis.TrialResult> sequentialResults = run(sequential, 1);
+        List<ConditionAnalysis.TrialResult> parallelResults = run(parallel, 4);
+
+        assertEquals(sequentialResults.size(), TRIALS);
+        assertEquals(parallelResults.size(), TRIALS);
+        ConditionAnalysis.TrialResult[] byNumber = new ConditionAnalysis.TrialResult[TRIALS];
+        for (ConditionAnalysis.TrialResult result : parallelResults) {
+            byNumber[result.number - 1] = result;
+        }
+        for (ConditionAnalysis.TrialResult expected : sequentialResults) {
+            ConditionAnalysis.TrialResult actual = byNumber[expected.number - 1];
+            assertEquals(actual.equationsCount, expected.equationsCount);
+            assertEquals(actual.blockDim, expected.blockDim);
+            assertSameBits(actual.condition, expected.condition);
+            assertSameBits(actual.absoluteDeviation, expected.absoluteDeviation);
+            assertSameBits(actual.relativeDeviation, expected.relativeDeviation);
+            assertSameBits(actual.predictedDeviation, expected.predictedDeviation);
+        }
+
+        assertSameSummary(parallel.getAbsoluteDeviation(), sequential.getAbsoluteDeviation());
+        assertSameSummary(parallel.getRelativeDeviation(), sequential.getRelativeDeviation());
+        assertSameSummary(parallel.getPredictedDeviation(), sequential.getPredictedDeviation());
+    }
+
+    @Test
+    public void testStatisticsInTrialOrder() throws InterruptedException {
+        ConditionAnalysis analysis = newAnalysis();
+        List<ConditionAnalysis.TrialResult> results = run(analysis, 3);
+
+        // испытания по порядку номеров, как их складывает анализ
+        ConditionAnalysis.TrialResult[] byNumber = new ConditionAnalysis.TrialResult[TRIALS];
+        for (ConditionAnalysis.TrialResult result : results) {
+            byNumber[result.number - 1] = result;
+        }
+        SummaryStatistics relative = new SummaryStatistics(), predicted = new SummaryStatistics();
+        for (ConditionAnalysis.TrialResult result : byNumber) {
+            relative.addValue(result.relativeDeviation);
+            predicted.addValue(result.predictedDeviation);
+        }
+
+        assertSameSummary(analysis.getRelativeDeviation(), relative.getSummary());
+        assertSameSummary(analysis.getPredictedDeviation(), predicted.getSummary());
+    }
+
+    private static ConditionAnalysis newAnalysis() {
+        return new ConditionAnalysis(-0.01, 0.01, 1e-10, 10000, false, -10.0, 10.0, 3, 7, 2, 5);
+    }
+
+    private static List<ConditionAnalysis.TrialResult> run(ConditionAnalysis analysis, int threads)
+            throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<ConditionAnalysis.TrialResult> results = new ArrayList<>();
+            int failures = analysis.run(TRIALS, new SplittableRandom(42), executor, results::add);
+            assertEquals(failures, 0);
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void assertSameBits(double actual, double expected) {
+        assertEquals(Double.doubleToLongBits(actual), Double.doubleToLongBits(expected), actual + " != " + expected);
+    }
+
+    private static void assertSameSummary(StatisticalSummary actual, StatisticalSummary expected) {
+        assertEquals(actual.getN(), expected.getN());
+        assertSameBits(actual.getMean(), expected.getMean());
+        assertSameBits(actual.getVariance(), expected.getVariance());
+        assertSameBits(actual.getMin(), expected.getMin());
+        assertSameBits(actual.getMax(), expected.getMax());
+    }
+
+}
@@ -1,8 +0,0 @@
-package ru.bmstu.iu9.numan.autogen;
-
-enum MatrixType {
-    DIAGONAL_DOMINANT,
-    TRIDAGONAL_DIAGONAL_BLOCKS,
-    SELF_ADJOINT_MATRIX,
-    DEFAULT
-}
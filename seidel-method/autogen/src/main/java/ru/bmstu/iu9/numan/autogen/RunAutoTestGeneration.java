@@ -1,7 +1,9 @@
 package ru.bmstu.iu9.numan.autogen;
 
 import org.apache.commons.math3.linear.RealMatrix;
+import ru.bmstu.iu9.numan.EquationFileFormat;
 import ru.bmstu.iu9.numan.LinearBlockTridiagonalEquation;
+import ru.bmstu.iu9.numan.MatrixType;
 import ru.bmstu.iu9.numan.RandomEquations;
 import ru.bmstu.iu9.properties.PropertiesFileParser;
 
@@ -10,6 +12,9 @@ import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
 
 public class RunAutoTestGeneration {
 
@@ -22,8 +27,12 @@ public class RunAutoTestGeneration {
     private static boolean overwriteTestFiles;
     private static String outDir;
     private static MatrixType matrixType;
+    private static EquationFileFormat fileFormat;
+    private static int parallelism;
+    private static String seed;
 
-    public static void main(String[] args) throws IOException, NoSuchMethodException, IllegalAccessException, InvocationTargetException {
+    public static void main(String[] args) throws IOException, NoSuchMethodException, IllegalAccessException, InvocationTargetException,
+            InterruptedException {
         if (args.length == 0) {
             System.out.println("[warn] No .properties file provided. Using default configuration");
         } else {
@@ -49,26 +58,40 @@ public class RunAutoTestGeneration {
             return;
         }
 
-        String fileName;
+        // генераторы для тестов отщепляются по порядку, поэтому при заданном seed файлы не зависят от числа потоков
+        SplittableRandom masterRnd = seed.isEmpty() ? new SplittableRandom() : new SplittableRandom(Long.parseLong(seed));
+        List<TestGenerationPipeline.TestCase> tests = new ArrayList<>();
         for (int i = 0; i < noOfTests; i++) {
-            fileName = String.format("%s/test-%d.txt", outDir, startWithTest + i);
-            File outFile = new File(fileName);
-            if (outFile.exists()) {
-                if(!overwriteTestFiles) {
-                    Files.copy(outFile.toPath(), new File(fileName + ".bac").toPath(), StandardCopyOption.REPLACE_EXISTING);
-                }
-            } else {
-                if (!outFile.createNewFile()) {
-                    System.out.printf("[error] Failed to create new file: %s%n", outFile);
-                }
-            }
+            String fileName = String.format("%s/test-%d%s", outDir, startWithTest + i, fileFormat.getExtension());
+            tests.add(new TestGenerationPipeline.TestCase(startWithTest + i, new File(fileName), masterRnd.split()));
+        }
+
+        int writers = Math.max(1, parallelism / 4);
+        int failures = new TestGenerationPipeline(parallelism, writers, RunAutoTestGeneration::randomEquation,
+                RunAutoTestGeneration::writeTestFile).run(tests);
+
+        if (failures > 0) {
+            System.out.printf("[error] %d of %d tests were not generated%n", failures, noOfTests);
+        }
+    }
 
-            if (outFile.exists()) {
-                writeRandomEquationToFile(outFile);
-                System.out.printf("[info] Test #%d saved to file: %s%n", startWithTest + i, fileName);
-            } else {
-                System.out.printf("[warn] File not found: %s. Skipping it.%n", fileName);
+    private static void writeTestFile(TestGenerationPipeline.TestCase test, LinearBlockTridiagonalEquation equation) throws IOException {
+        File outFile = test.file;
+        if (outFile.exists()) {
+            if (!overwriteTestFiles) {
+                Files.copy(outFile.toPath(), new File(outFile.getPath() + ".bac").toPath(), StandardCopyOption.REPLACE_EXISTING);
             }
+        } else {
+            if (!outFile.createNewFile()) {
+                System.out.printf("[error] Failed to create new file: %s%n", outFile);
+            }
+        }
+
+        if (outFile.exists()) {
+            fileFormat.save(equation, outFile);
+            System.out.printf("[info] Test #%d saved to file: %s%n", test.number, outFile);
+        } else {
+            System.out.printf("[warn] File not found: %s. Skipping it.%n", outFile);
         }
     }
 
@@ -82,31 +105,34 @@ public class RunAutoTestGeneration {
         overwriteTestFiles = (boolean) TestParamField.SHOULD_OVERWRITE.getValue();
         matrixType = (MatrixType) TestParamField.MATRIX_TYPE.getValue();
         outDir = (String) TestParamField.OUT_DIR.getValue();
+        fileFormat = (EquationFileFormat) TestParamField.FILE_FORMAT.getValue();
+        parallelism = (int) TestParamField.PARALLELISM.getValue();
+        seed = ((String) TestParamField.SEED.getValue()).trim();
     }
 
-    private static void writeRandomEquationToFile(File outFile) throws IOException {
+    private static LinearBlockTridiagonalEquation randomEquation(SplittableRandom rnd) {
         RealMatrix[][] lhs;
 
         if(matrixType == MatrixType.DIAGONAL_DOMINANT) {
-            lhs = RandomEquations.randStrongDiagonalDominatedLhs(noOfEquations, blockDim, minElemVal, maxElemVal);
+            lhs = RandomEquations.randStrongDiagonalDominatedLhs(noOfEquations, blockDim, minElemVal, maxElemVal, rnd);
         } else if(matrixType == MatrixType.TRIDAGONAL_DIAGONAL_BLOCKS) {
-            lhs = RandomEquations.randLhsWithTridiagonalDiagonalBlocks(noOfEquations, blockDim, minElemVal, maxElemVal);
+            lhs = RandomEquations.randLhsWithTridiagonalDiagonalBlocks(noOfEquations, blockDim, minElemVal, maxElemVal, rnd);
         } else if(matrixType == MatrixType.SELF_ADJOINT_MATRIX) {
-            lhs = RandomEquations.randSelfAdjointLhs(noOfEquations, blockDim, minElemVal, maxElemVal);
+            lhs = RandomEquations.randSelfAdjointLhs(noOfEquations, blockDim, minElemVal, maxElemVal, rnd);
         } else if(matrixType == MatrixType.DEFAULT) {
-            lhs = RandomEquations.randDefaultLhs(noOfEquations, blockDim, maxElemVal);
+            lhs = RandomEquations.randDefaultLhs(noOfEquations, blockDim, maxElemVal, rnd);
         } else {
             throw new RuntimeException("Unsupported matrix type: " + matrixType.name());
         }
 
-        LinearBlockTridiagonalEquation equation = new LinearBlockTridiagonalEquation(lhs.length);
+        LinearBlockTridiagonalEquation equation = new LinearBlockTridiagonalEquation(lhs.length, blockDim);
         equation.setLhs(lhs);
 
         for (int i = 0; i < lhs.length; i++) {
-            equation.setRhsVector(i, RandomEquations.randVector(blockDim, minElemVal, maxElemVal));
+            equation.setRhsVector(i, RandomEquations.randVector(blockDim, minElemVal, maxElemVal, rnd));
         }
 
-        equation.save(outFile);
+        return equation;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,156 @@
+package ru.bmstu.iu9.numan.autogen;
+
+import ru.bmstu.iu9.numan.LinearBlockTridiagonalEquation;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Generates test equations on a pool of workers and hands them to writer threads through a bounded queue.
+ * <p>
+ * Every test gets its own {@link SplittableRandom} split from one master generator in test order, so the
+ * generated files do not depend on thread scheduling. The queue holds at most {@code parallelism} equations, which
+ * bounds memory when writers are slower than generators.
+ */
+final class TestGenerationPipeline {
+
+    interface Sink {
+        void write(TestCase test, LinearBlockTridiagonalEquation equation) throws IOException;
+    }
+
+    static final class TestCase {
+        final int number;
+        final File file;
+        final SplittableRandom rnd;
+
+        TestCase(int number, File file, SplittableRandom rnd) {
+            this.number = number;
+            this.file = file;
+            this.rnd = rnd;
+        }
+    }
+
+    private static final TestCase END_OF_TESTS = new TestCase(-1, null, null);
+
+    private final int parallelism;
+    private final int writers;
+    private final Function<SplittableRandom, LinearBlockTridiagonalEquation> generator;
+    private final Sink sink;
+
+    TestGenerationPipeline(int parallelism, int writers,
+                           Function<SplittableRandom, LinearBlockTridiagonalEquation> generator, Sink sink) {
+        this.parallelism = Math.max(1, parallelism);
+        this.writers = Math.max(1, writers);
+        this.generator = generator;
+        this.sink = sink;
+    }
+
+    /**
+     * Generates and writes all {@code tests}. Returns after every test has been written or has failed.
+     *
+     * @return number of tests that failed
+     */
+    int run(List<TestCase> tests) throws InterruptedException {
+        BlockingQueue<Item> queue = new ArrayBlockingQueue<>(parallelism);
+        ExecutorService generatorPool = Executors.newFixedThreadPool(parallelism, namedThreads("autogen-generator"));
+        ExecutorService writerPool = Executors.newFixedThreadPool(writers, namedThreads("autogen-writer"));
+        AtomicInteger failures = new AtomicInteger();
+
+        try {
+            List<Future<?>> writerTasks = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                writerTasks.add(writerPool.submit(() -> drain(queue, failures)));
+            }
+
+            List<Future<?>> generatorTasks = new ArrayList<>();
+            for (TestCase test : tests) {
+                generatorTasks.add(generatorPool.submit(() -> {
+                    LinearBlockTridiagonalEquation equation;
+                    try {
+                        equation = generator.apply(test.rnd);
+                    } catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                        System.out.printf("[error] Failed to generate test #%d: %s%n", test.number, e);
+                        return null;
+                    }
+                    queue.put(new Item(test, equation));
+                    return null;
+                }));
+            }
+
+            awaitAll(generatorTasks);
+            for (int i = 0; i < writers; i++) {
+                queue.put(new Item(END_OF_TESTS, null));
+            }
+            awaitAll(writerTasks);
+        } finally {
+            generatorPool.shutdownNow();
+            writerPool.shutdownNow();
+        }
+
+        return failures.get();
+    }
+
+    /**
+     * Writer loop. Failed writes are reported and counted, but the writer keeps taking items, so generators never
+     * block on a full queue. That holds for {@link Error}s too: a writer that died on one would leave the generators
+     * waiting for queue space forever.
+     */
+    private Void drain(BlockingQueue<Item> queue, AtomicInteger failures) throws InterruptedException {
+        while (true) {
+            Item item = queue.take();
+            if (item.test == END_OF_TESTS) {
+                return null;
+            }
+
+            try {
+                sink.write(item.test, item.equation);
+            } catch (Throwable e) {
+                failures.incrementAndGet();
+                System.out.printf("[error] Failed to write test #%d to file %s: %s%n", item.test.number, item.test.file, e);
+            }
+        }
+    }
+
+    private static void awaitAll(List<Future<?>> futures) throws InterruptedException {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Item {
+        final TestCase test;
+        final LinearBlockTridiagonalEquation equation;
+
+        Item(TestCase test, LinearBlockTridiagonalEquation equation) {
+            this.test = test;
+            this.equation = equation;
+        }
+    }
+
+}
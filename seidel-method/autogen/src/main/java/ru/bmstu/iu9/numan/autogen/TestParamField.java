@@ -1,5 +1,7 @@
 package ru.bmstu.iu9.numan.autogen;
 
+import ru.bmstu.iu9.numan.EquationFileFormat;
+import ru.bmstu.iu9.numan.MatrixType;
 import ru.bmstu.iu9.properties.IPropertyField;
 
 enum TestParamField implements IPropertyField {
@@ -12,7 +14,10 @@ enum TestParamField implements IPropertyField {
     EQUATIONS(Integer.class, "tests.equations.count", 5),
     MIN_VAL(Double.class, "tests.element.minvalue", -3.0),
     MAX_VAL(Double.class, "tests.element.maxvalue", 3.0),
-    OUT_DIR(String.class, "tests.outdir", "./tests")
+    OUT_DIR(String.class, "tests.outdir", "./tests"),
+    FILE_FORMAT(EquationFileFormat.class, "tests.format", EquationFileFormat.TEXT),
+    PARALLELISM(Integer.class, "tests.parallelism", Runtime.getRuntime().availableProcessors()),
+    SEED(String.class, "tests.seed", "")
     ;
 
     private String key;
@@ -0,0 +1,87 @@
+package ru.bmstu.iu9.numan.autogen;
+
+import org.testng.annotations.Test;
+import ru.bmstu.iu9.numan.LinearBlockTridiagonalEquation;
+import ru.bmstu.iu9.numan.RandomEquations;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.testng.Assert.assertEquals;
+
+public class TestGenerationPipelineTest {
+
+    private static final int TESTS = 20;
+
+    @Test
+    public void testOutputDoesNotDependOnParallelism() throws InterruptedException {
+        Map<Integer, LinearBlockTridiagonalEquation> sequential = new ConcurrentHashMap<>();
+        Map<Integer, LinearBlockTridiagonalEquation> parallel = new ConcurrentHashMap<>();
+
+        int sequentialFailures = new TestGenerationPipeline(1, 1, TestGenerationPipelineTest::randomEquation,
+                (test, equation) -> sequential.put(test.number, equation)).run(tests());
+        int parallelFailures = new TestGenerationPipeline(4, 2, TestGenerationPipelineTest::randomEquation,
+                (test, equation) -> parallel.put(test.number, equation)).run(tests());
+
+        assertEquals(sequentialFailures, 0);
+        assertEquals(parallelFailures, 0);
+        assertEquals(sequential.size(), TESTS);
+        assertEquals(parallel.size(), TESTS);
+        for (int number = 1; number <= TESTS; number++) {
+            LinearBlockTridiagonalEquation expected = sequential.get(number), actual = parallel.get(number);
+            assertEquals(actual.lhsAsRealMatrix(), expected.lhsAsRealMatrix());
+            assertEquals(actual.rhsAsVector(), expected.rhsAsVector());
+        }
+    }
+
+    @Test(timeOut = 60_000)
+    public void testFailuresAreCounted() throws InterruptedException {
+        Map<Integer, LinearBlockTridiagonalEquation> written = new ConcurrentHashMap<>();
+        // один писатель: после Error он должен продолжить, иначе генераторы ждут места в очереди вечно
+        TestGenerationPipeline pipeline = new TestGenerationPipeline(2, 1, rnd -> {
+            if (rnd == null)
+                throw new IllegalArgumentException("no generator");
+            return randomEquation(rnd);
+        }, (test, equation) -> {
+            if (test.number == 3)
+                throw new IOException("disk full");
+            if (test.number == 5)
+                throw new OutOfMemoryError("writer");
+            written.put(test.number, equation);
+        });
+
+        List<TestGenerationPipeline.TestCase> tests = tests();
+        // тест #8 без генератора не создаётся
+        tests.set(7, new TestGenerationPipeline.TestCase(8, new File("test-8.txt"), null));
+
+        assertEquals(pipeline.run(tests), 3);
+        assertEquals(written.size(), TESTS - 3);
+        for (int number = 1; number <= TESTS; number++) {
+            assertEquals(written.containsKey(number), number != 3 && number != 5 && number != 8, "test #" + number);
+        }
+    }
+
+    private static List<TestGenerationPipeline.TestCase> tests() {
+        SplittableRandom masterRnd = new SplittableRandom(7);
+        List<TestGenerationPipeline.TestCase> tests = new ArrayList<>();
+        for (int i = 1; i <= TESTS; i++) {
+            tests.add(new TestGenerationPipeline.TestCase(i, new File("test-" + i + ".txt"), masterRnd.split()));
+        }
+        return tests;
+    }
+
+    private static LinearBlockTridiagonalEquation randomEquation(SplittableRandom rnd) {
+        LinearBlockTridiagonalEquation equation = new LinearBlockTridiagonalEquation(4, 3);
+        equation.setLhs(RandomEquations.randStrongDiagonalDominatedLhs(4, 3, -5, 5, rnd));
+        for (int k = 0; k < 4; k++) {
+            equation.setRhsVector(k, RandomEquations.randVector(3, -5, 5, rnd));
+        }
+        return equation;
+    }
+
+}
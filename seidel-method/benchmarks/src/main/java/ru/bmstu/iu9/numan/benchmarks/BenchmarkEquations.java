@@ -0,0 +1,23 @@
+package ru.bmstu.iu9.numan.benchmarks;
+
+import ru.bmstu.iu9.numan.LinearBlockTridiagonalEquation;
+import ru.bmstu.iu9.numan.RandomEquations;
+
+final class BenchmarkEquations {
+
+    static final double MIN_ELEM_VAL = -3.0;
+    static final double MAX_ELEM_VAL = 3.0;
+
+    private BenchmarkEquations() {
+    }
+
+    static LinearBlockTridiagonalEquation randomEquation(int equationsCount, int blockDim) {
+        LinearBlockTridiagonalEquation equation = new LinearBlockTridiagonalEquation(equationsCount, blockDim);
+        equation.setLhs(RandomEquations.randStrongDiagonalDominatedLhs(equationsCount, blockDim, MIN_ELEM_VAL, MAX_ELEM_VAL));
+        for (int k = 0; k < equationsCount; k++) {
+            equation.setRhsVector(k, RandomEquations.randVector(blockDim, MIN_ELEM_VAL, MAX_ELEM_VAL));
+        }
+        return equation;
+    }
+
+}
@@ -0,0 +1,52 @@
+package ru.bmstu.iu9.numan.benchmarks;
+
+import org.apache.commons.math3.linear.RealMatrix;
+import org.openjdk.jmh.annotations.*;
+import ru.bmstu.iu9.numan.LinearBlockTridiagonalEquation;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EquationBenchmark {
+
+    @Param({"4", "16"})
+    public int blockDim;
+
+    @Param({"100", "1000"})
+    public int equationsCount;
+
+    private LinearBlockTridiagonalEquation equation;
+    private File file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        equation = BenchmarkEquations.randomEquation(equationsCount, blockDim);
+        file = File.createTempFile("seidel-bench-", ".txt");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (!file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    @Benchmark
+    public RealMatrix lhsAsRealMatrix() {
+        return equation.lhsAsRealMatrix();
+    }
+
+    @Benchmark
+    public long save() throws IOException {
+        equation.save(file);
+        return file.length();
+    }
+
+}
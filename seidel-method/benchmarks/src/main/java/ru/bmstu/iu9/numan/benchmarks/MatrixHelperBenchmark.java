@@ -0,0 +1,35 @@
+package ru.bmstu.iu9.numan.benchmarks;
+
+import org.apache.commons.math3.linear.RealMatrix;
+import org.openjdk.jmh.annotations.*;
+import ru.bmstu.iu9.numan.MatrixHelper;
+import ru.bmstu.iu9.numan.RandomEquations;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatrixHelperBenchmark {
+
+    @Param({"4", "16", "64"})
+    public int blockDim;
+
+    private RealMatrix tridiagonal;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        RealMatrix[][] lhs = RandomEquations.randLhsWithTridiagonalDiagonalBlocks(1, blockDim,
+                BenchmarkEquations.MIN_ELEM_VAL, BenchmarkEquations.MAX_ELEM_VAL);
+        tridiagonal = MatrixHelper.toTridiagonal(lhs[0][1]);
+    }
+
+    @Benchmark
+    public RealMatrix inverseOfTridiagonal() {
+        return MatrixHelper.inverseOfTridiagonal(tridiagonal);
+    }
+
+}
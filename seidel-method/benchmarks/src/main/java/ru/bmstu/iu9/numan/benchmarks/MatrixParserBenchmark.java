@@ -0,0 +1,45 @@
+package ru.bmstu.iu9.numan.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.bmstu.iu9.numan.LinearBlockTridiagonalEquation;
+import ru.bmstu.iu9.numan.MatrixParser;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MatrixParserBenchmark {
+
+    @Param({"4", "16"})
+    public int blockDim;
+
+    @Param({"100", "1000"})
+    public int equationsCount;
+
+    private File file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = File.createTempFile("seidel-bench-", ".txt");
+        BenchmarkEquations.randomEquation(equationsCount, blockDim).save(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (!file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    @Benchmark
+    public LinearBlockTridiagonalEquation parse() throws IOException {
+        return new MatrixParser().parse(file);
+    }
+
+}
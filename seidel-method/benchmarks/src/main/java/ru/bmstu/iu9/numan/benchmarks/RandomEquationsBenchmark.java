@@ -0,0 +1,46 @@
+package ru.bmstu.iu9.numan.benchmarks;
+
+import org.apache.commons.math3.linear.RealMatrix;
+import org.openjdk.jmh.annotations.*;
+import ru.bmstu.iu9.numan.RandomEquations;
+
+import java.util.concurrent.TimeUnit;
+
+import static ru.bmstu.iu9.numan.benchmarks.BenchmarkEquations.MAX_ELEM_VAL;
+import static ru.bmstu.iu9.numan.benchmarks.BenchmarkEquations.MIN_ELEM_VAL;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RandomEquationsBenchmark {
+
+    @Param({"4", "16"})
+    public int blockDim;
+
+    @Param({"100", "1000"})
+    public int equationsCount;
+
+    @Benchmark
+    public RealMatrix[][] randStrongDiagonalDominatedLhs() {
+        return RandomEquations.randStrongDiagonalDominatedLhs(equationsCount, blockDim, MIN_ELEM_VAL, MAX_ELEM_VAL);
+    }
+
+    @Benchmark
+    public RealMatrix[][] randLhsWithTridiagonalDiagonalBlocks() {
+        return RandomEquations.randLhsWithTridiagonalDiagonalBlocks(equationsCount, blockDim, MIN_ELEM_VAL, MAX_ELEM_VAL);
+    }
+
+    @Benchmark
+    public RealMatrix[][] randSelfAdjointLhs() {
+        return RandomEquations.randSelfAdjointLhs(equationsCount, blockDim, MIN_ELEM_VAL, MAX_ELEM_VAL);
+    }
+
+    @Benchmark
+    public RealMatrix[][] randDefaultLhs() {
+        return RandomEquations.randDefaultLhs(equationsCount, blockDim, MAX_ELEM_VAL);
+    }
+
+}
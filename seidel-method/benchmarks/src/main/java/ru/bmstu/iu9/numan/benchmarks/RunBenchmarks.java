@@ -0,0 +1,27 @@
+package ru.bmstu.iu9.numan.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks of this module with the GC profiler attached, so every result also reports the
+ * allocation rate. Accepts the usual JMH command line, e.g. {@code -p blockDim=8,32 -p equationsCount=10000 Seidel}.
+ * On Java 17+ add {@code -jvmArgsAppend --add-modules=jdk.incubator.vector} to measure the SIMD kernels.
+ */
+public class RunBenchmarks {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,46 @@
+package ru.bmstu.iu9.numan.benchmarks;
+
+import org.apache.commons.math3.linear.RealVector;
+import org.openjdk.jmh.annotations.*;
+import ru.bmstu.iu9.numan.LinearBlockTridiagonalEquation;
+import ru.bmstu.iu9.numan.MatrixHelper;
+import ru.bmstu.iu9.numan.SeidelAlgorithm;
+import ru.bmstu.iu9.numan.SeidelFactorization;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SeidelSolverBenchmark {
+
+    @Param({"4", "16"})
+    public int blockDim;
+
+    @Param({"100", "1000"})
+    public int equationsCount;
+
+    @Param({"0.001"})
+    public double precision;
+
+    @Param({"DENSE", "IMPLICIT"})
+    public SeidelFactorization.Mode mode;
+
+    private LinearBlockTridiagonalEquation equation;
+    private RealVector[] startSol;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        equation = BenchmarkEquations.randomEquation(equationsCount, blockDim);
+        startSol = MatrixHelper.createVectorsOfSameSize(equation.rhs(), 0.0);
+    }
+
+    @Benchmark
+    public RealVector solveWithSeidelMethod() {
+        return SeidelAlgorithm.solveWithSeidelMethod(new SeidelFactorization(equation, mode), equation.rhs(), startSol, precision);
+    }
+
+}
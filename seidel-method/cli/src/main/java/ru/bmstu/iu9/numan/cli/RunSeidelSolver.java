@@ -1,11 +1,16 @@
 package ru.bmstu.iu9.numan.cli;
 
+import org.apache.commons.math3.linear.ArrayRealVector;
 import org.apache.commons.math3.linear.LUDecomposition;
-import org.apache.commons.math3.linear.RealMatrix;
 import org.apache.commons.math3.linear.RealVector;
+import ru.bmstu.iu9.numan.BlockThomasSolver;
+import ru.bmstu.iu9.numan.ConsoleSolverListener;
+import ru.bmstu.iu9.numan.EquationFileFormat;
 import ru.bmstu.iu9.numan.LinearBlockTridiagonalEquation;
-import ru.bmstu.iu9.numan.MatrixParser;
+import ru.bmstu.iu9.numan.MappedEquation;
+import ru.bmstu.iu9.numan.Relaxation;
 import ru.bmstu.iu9.numan.SeidelAlgorithm;
+import ru.bmstu.iu9.numan.SeidelFactorization;
 
 import java.io.File;
 import java.io.IOException;
@@ -18,29 +23,106 @@ public class RunSeidelSolver {
 
     public static void main(String[] args) throws IOException {
         String filename = args[0];
+        String outFileName = null;
+        boolean denseLu = false;
+        boolean outOfCore = false;
+        boolean pipelined = false;
+        Relaxation relaxation = Relaxation.NONE;
+
+        // -o <file>: сохранить уравнение (формат выбирается по расширению, .bin - двоичный)
+        // --dense-lu: дополнительно решить плотным LU-разложением всей матрицы (O((l*m)^3), только для малых систем)
+        // --sor <omega|auto>, --ssor <omega|auto>: релаксация, auto - параметр оценивается по первым итерациям
+        // --out-of-core: не загружать двоичный файл, а отобразить его в память (для систем больше ОЗУ)
+        // --pipelined: произведения C(k) * x для прямого хода считает второй поток (нужно свободное ядро)
+        for (int i = 1; i < args.length; i++) {
+            if ("-o".equals(args[i]) && i + 1 < args.length) {
+                outFileName = args[++i];
+            } else if ("--dense-lu".equals(args[i])) {
+                denseLu = true;
+            } else if ("--out-of-core".equals(args[i])) {
+                outOfCore = true;
+            } else if ("--pipelined".equals(args[i])) {
+                pipelined = true;
+            } else if (("--sor".equals(args[i]) || "--ssor".equals(args[i])) && i + 1 < args.length) {
+                relaxation = parseRelaxation("--ssor".equals(args[i]), args[++i]);
+            } else {
+                System.out.printf("[warn] Unknown argument: %s%n", args[i]);
+            }
+        }
 
         File inputFile = new File(filename);
-        MatrixParser parser = new MatrixParser();
-        LinearBlockTridiagonalEquation equation = parser.parse(inputFile);
+        if (outOfCore) {
+            if (outFileName != null || denseLu || pipelined || relaxation != Relaxation.NONE) {
+                System.out.println("[warn] -o, --dense-lu, --pipelined, --sor and --ssor are ignored with --out-of-core");
+            }
+            solveOutOfCore(inputFile);
+            return;
+        }
+
+        LinearBlockTridiagonalEquation equation = EquationFileFormat.loadEquation(inputFile);
 
-        RealMatrix realMatrix = equation.lhsAsRealMatrix();
+        if (outFileName != null) {
+            File outFile = new File(outFileName);
+            EquationFileFormat.forFileName(outFileName).save(equation, outFile);
+            System.out.printf("[info] Equation saved to file: %s%n", outFile);
+        }
 
         RealVector[] startSol = createVectorsOfSameSize(equation.rhs(), 0.0);
         long startTime = System.currentTimeMillis(), endTime;
-        RealVector mySol = SeidelAlgorithm.solveWithSeidelMethod(
-                equation,
-                startSol,
-                PRECISION
-        );
+        RealVector mySol;
+        if (pipelined) {
+            ConsoleSolverListener listener = new ConsoleSolverListener();
+            mySol = new SeidelFactorization(equation, listener).pipelined()
+                    .solve(equation.rhs(), startSol, PRECISION, relaxation, listener);
+        } else {
+            mySol = SeidelAlgorithm.solveWithSeidelMethod(
+                    equation,
+                    startSol,
+                    PRECISION,
+                    relaxation,
+                    new ConsoleSolverListener()
+            );
+        }
         endTime = System.currentTimeMillis();
         System.out.printf("Время поиска решения методом Зейделя: %dms%n", endTime - startTime);
         printVector(mySol, "%nРешение, полученное с помощью метода Зейделя:");
 
         startTime = System.currentTimeMillis();
-        RealVector libSol = new LUDecomposition(realMatrix).getSolver().solve(equation.rhsAsVector());
+        RealVector refSol = new BlockThomasSolver().solve(equation);
         endTime = System.currentTimeMillis();
 
-        System.out.printf("Время поиска решения библиотечными средствами: %dms%n", endTime - startTime);
-        printVector(libSol, "%nРешение, полученное средствами библиотеки Apache Commons Math (x = M^(-1) * f):");
+        System.out.printf("Время поиска решения блочной прогонкой: %dms%n", endTime - startTime);
+        printVector(refSol, "%nРешение, полученное блочной прогонкой (точное):");
+        System.out.printf("Отклонение решения методом Зейделя от точного (max-норма): %e%n", mySol.getLInfDistance(refSol));
+
+        if (denseLu) {
+            startTime = System.currentTimeMillis();
+            RealVector libSol = new LUDecomposition(equation.lhsAsRealMatrix()).getSolver().solve(equation.rhsAsVector());
+            endTime = System.currentTimeMillis();
+
+            System.out.printf("Время поиска решения библиотечными средствами: %dms%n", endTime - startTime);
+            printVector(libSol, "%nРешение, полученное средствами библиотеки Apache Commons Math (x = M^(-1) * f):");
+        }
+    }
+
+    private static void solveOutOfCore(File inputFile) throws IOException {
+        try (MappedEquation equation = MappedEquation.open(inputFile)) {
+            RealVector startSol = new ArrayRealVector(equation.getEquationsCount() * equation.getBlockDim());
+            long startTime = System.currentTimeMillis();
+            RealVector mySol = SeidelAlgorithm.solveWithSeidelMethod(equation, startSol, PRECISION, new ConsoleSolverListener());
+            long endTime = System.currentTimeMillis();
+
+            System.out.printf("Время поиска решения методом Зейделя: %dms%n", endTime - startTime);
+            printVector(mySol, "%nРешение, полученное с помощью метода Зейделя:");
+            // блочной прогонке нужны l*m^2 чисел в памяти, поэтому эталонное решение не ищем
+        }
+    }
+
+    private static Relaxation parseRelaxation(boolean symmetric, String omega) {
+        if ("auto".equals(omega)) {
+            return symmetric ? Relaxation.adaptiveSsor() : Relaxation.adaptiveSor();
+        }
+        double value = Double.parseDouble(omega);
+        return symmetric ? Relaxation.ssor(value) : Relaxation.sor(value);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,41 @@
+package ru.bmstu.iu9.numan;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Bytes allocated by the current thread, where the JVM supports it.
+ */
+final class AllocationCounter {
+
+    private static final com.sun.management.ThreadMXBean BEAN = supportedBean();
+
+    private AllocationCounter() {
+    }
+
+    /**
+     * @return bytes allocated by the current thread so far, or {@code -1} if not supported
+     */
+    static long currentThreadAllocatedBytes() {
+        return BEAN != null ? BEAN.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+
+    static long since(long start) {
+        return start < 0 ? -1 : currentThreadAllocatedBytes() - start;
+    }
+
+    private static com.sun.management.ThreadMXBean supportedBean() {
+        try {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+                if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled())
+                    return sunBean;
+            }
+        } catch (LinkageError | SecurityException ignored) {
+            // нет com.sun.management - считаем, что измерение недоступно
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,139 @@
+package ru.bmstu.iu9.numan;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Binary equation file. Layout, little-endian:
+ * <pre>
+ *   offset  size  field
+ *   0       4     magic "BTDE"
+ *   4       4     format version
+ *   8       4     flags, must be zero in version 1
+ *   12      4     equations count l
+ *   16      4     block rows m
+ *   20      4     block columns, equal to m
+ *   24      8     reserved
+ *   32      ...   l * 3 * m * m doubles: A(k), B(k), C(k) for every k, each block row-major
+ *   ...     ...   l * m doubles: f(k) for every k
+ * </pre>
+ * The data section has the same layout as the packed storage of {@link LinearBlockTridiagonalEquation}, so it is
+ * copied to and from a memory-mapped file in bulk.
+ */
+final class BinaryEquationFormat {
+
+    static final int MAGIC = 0x45445442; // "BTDE"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+
+    // отображаем файл кусками, т.к. MappedByteBuffer адресует не больше 2 ГБ
+    static final long MAX_CHUNK_BYTES = 1L << 30;
+
+    private BinaryEquationFormat() {
+    }
+
+    static boolean isBinary(File file) throws IOException {
+        if (file.length() < HEADER_SIZE)
+            return false;
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            return Integer.reverseBytes(raf.readInt()) == MAGIC;
+        }
+    }
+
+    static void write(LinearBlockTridiagonalEquation eq, File file) throws IOException {
+        int l = eq.getEquationsCount(), m = eq.getBlockDim();
+        double[] lhs = eq.lhsData(), rhs = eq.rhsData();
+        long size = HEADER_SIZE + 8L * (lhs.length + rhs.length);
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+            raf.setLength(size);
+
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(0, MAGIC);
+            header.putInt(4, VERSION);
+            header.putInt(8, 0);
+            header.putInt(12, l);
+            header.putInt(16, m);
+            header.putInt(20, m);
+            header.putLong(24, 0L);
+
+            long pos = transfer(channel, FileChannel.MapMode.READ_WRITE, HEADER_SIZE, lhs);
+            transfer(channel, FileChannel.MapMode.READ_WRITE, pos, rhs);
+        }
+    }
+
+    static LinearBlockTridiagonalEquation read(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            int[] dims = readHeader(channel, file);
+            int l = dims[0], m = dims[1];
+            if ((long) l * LinearBlockTridiagonalEquation.LINE_BLOCKS_COUNT * m * m > Integer.MAX_VALUE)
+                throw new IOException("Equation is too large to be loaded into memory: " + file);
+
+            LinearBlockTridiagonalEquation eq = new LinearBlockTridiagonalEquation(l, m);
+            long pos = transfer(channel, FileChannel.MapMode.READ_ONLY, HEADER_SIZE, eq.lhsData());
+            transfer(channel, FileChannel.MapMode.READ_ONLY, pos, eq.rhsData());
+
+            return eq;
+        }
+    }
+
+    /**
+     * Checks the header and the file size.
+     *
+     * @return {@code {l, m}}
+     */
+    static int[] readHeader(FileChannel channel, File file) throws IOException {
+        if (channel.size() < HEADER_SIZE)
+            throw new IOException("Binary equation file is truncated: " + file);
+
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        if (header.getInt(0) != MAGIC)
+            throw new IOException("Not a binary equation file: " + file);
+        if (header.getInt(4) != VERSION)
+            throw new IOException(String.format("Unsupported binary equation format version %d: %s", header.getInt(4), file));
+        if (header.getInt(8) != 0)
+            throw new IOException(String.format("Unsupported binary equation flags 0x%x: %s", header.getInt(8), file));
+
+        int l = header.getInt(12), m = header.getInt(16), cols = header.getInt(20);
+        if (l <= 0 || m <= 0 || cols != m)
+            throw new IOException(String.format("Invalid equation dimensions %d x (%d x %d): %s", l, m, cols, file));
+
+        long lhsLength = (long) l * LinearBlockTridiagonalEquation.LINE_BLOCKS_COUNT * m * m, rhsLength = (long) l * m;
+        if (channel.size() != HEADER_SIZE + 8 * (lhsLength + rhsLength))
+            throw new IOException("Binary equation file size does not match its header: " + file);
+
+        return new int[]{l, m};
+    }
+
+    /**
+     * Copies {@code data} to ({@code READ_WRITE}) or from ({@code READ_ONLY}) the file region starting at
+     * {@code pos}.
+     *
+     * @return position right after the region
+     */
+    private static long transfer(FileChannel channel, FileChannel.MapMode mode, long pos, double[] data) throws IOException {
+        int maxChunk = (int) (MAX_CHUNK_BYTES / 8);
+
+        for (int off = 0; off < data.length; off += maxChunk) {
+            int len = Math.min(maxChunk, data.length - off);
+            MappedByteBuffer buffer = channel.map(mode, pos, 8L * len);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (mode == FileChannel.MapMode.READ_ONLY) {
+                buffer.asDoubleBuffer().get(data, off, len);
+            } else {
+                buffer.asDoubleBuffer().put(data, off, len);
+                buffer.force();
+            }
+            pos += 8L * len;
+        }
+
+        return pos;
+    }
+
+}
@@ -0,0 +1,170 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.RealVector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static ru.bmstu.iu9.numan.BlockKernels.*;
+
+/**
+ * Direct solver based on block cyclic reduction.
+ * <p>
+ * Every level eliminates the odd block rows of the current system, which halves it, so the solve takes
+ * {@code O(log l)} levels. The rows of a level are independent and are processed in parallel on a
+ * {@link ForkJoinPool}. The result is the exact solution up to rounding, so it can be compared with
+ * {@link SeidelAlgorithm} or a dense LU solve.
+ */
+public class BlockCyclicReductionSolver {
+
+    private final ForkJoinPool pool;
+
+    public BlockCyclicReductionSolver() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public BlockCyclicReductionSolver(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public RealVector solve(LinearBlockTridiagonalEquation eq) {
+        int m = eq.getBlockDim();
+        List<Level> levels = new ArrayList<>();
+        Level level = Level.of(eq);
+        levels.add(level);
+
+        while (level.n > 1) {
+            level = reduce(level, m);
+            levels.add(level);
+        }
+
+        // последний уровень состоит из одной блочной строки: B x = f
+        double[] x = new double[m];
+        int[] pivot = new int[m];
+        luDecompose(level.b, 0, m, pivot, 0);
+        luSolve(level.b, 0, pivot, 0, m, level.f, 0, 1, 1, x, 0);
+
+        for (int i = levels.size() - 2; i >= 0; i--) {
+            x = backSubstitute(levels.get(i), x, m);
+        }
+
+        return new ArrayRealVector(x, false);
+    }
+
+    /**
+     * Eliminates the odd rows of {@code level}. The odd rows' {@code B^-1 A}, {@code B^-1 C} and {@code B^-1 f}
+     * stay in {@code level} for the back substitution.
+     */
+    private Level reduce(final Level level, final int m) {
+        final int blockSize = m * m, odd = level.n / 2, even = level.n - odd;
+        final Level next = new Level(even, m);
+        level.ainv = new double[odd * blockSize];
+        level.cinv = new double[odd * blockSize];
+        level.finv = new double[odd * m];
+
+        ParallelRange.run(pool, 0, odd, ParallelRange.grain(pool, odd), (from, to) -> {
+            double[] lu = new double[blockSize];
+            int[] pivot = new int[m];
+            for (int q = from; q < to; q++) {
+                int j = 2 * q + 1;
+                System.arraycopy(level.b, j * blockSize, lu, 0, blockSize);
+                luDecompose(lu, 0, m, pivot, 0);
+                luSolve(lu, 0, pivot, 0, m, level.a, j * blockSize, m, m, level.ainv, q * blockSize);
+                luSolve(lu, 0, pivot, 0, m, level.c, j * blockSize, m, m, level.cinv, q * blockSize);
+                luSolve(lu, 0, pivot, 0, m, level.f, j * m, 1, 1, level.finv, q * m);
+            }
+        });
+
+        ParallelRange.run(pool, 0, even, ParallelRange.grain(pool, even), (from, to) -> {
+            for (int p = from; p < to; p++) {
+                int i = 2 * p;
+                System.arraycopy(level.b, i * blockSize, next.b, p * blockSize, blockSize);
+                System.arraycopy(level.f, i * m, next.f, p * m, m);
+
+                if (i - 1 >= 0) {
+                    int q = p - 1;
+                    matMulSub(level.a, i * blockSize, level.cinv, q * blockSize, m, next.b, p * blockSize);
+                    matMulSub(level.a, i * blockSize, level.ainv, q * blockSize, m, next.a, p * blockSize);
+                    matVecSub(level.a, i * blockSize, m, level.finv, q * m, next.f, p * m);
+                }
+                if (i + 1 < level.n) {
+                    int q = p;
+                    matMulSub(level.c, i * blockSize, level.ainv, q * blockSize, m, next.b, p * blockSize);
+                    matMulSub(level.c, i * blockSize, level.cinv, q * blockSize, m, next.c, p * blockSize);
+                    matVecSub(level.c, i * blockSize, m, level.finv, q * m, next.f, p * m);
+                }
+            }
+        });
+
+        return next;
+    }
+
+    /**
+     * Expands the solution {@code reduced} of the next level to all rows of {@code level}.
+     */
+    private double[] backSubstitute(final Level level, final double[] reduced, final int m) {
+        final int blockSize = m * m, odd = level.n / 2;
+        final double[] x = new double[level.n * m];
+
+        for (int p = 0; p < level.n - odd; p++) {
+            System.arraycopy(reduced, p * m, x, 2 * p * m, m);
+        }
+
+        ParallelRange.run(pool, 0, odd, ParallelRange.grain(pool, odd), (from, to) -> {
+            for (int q = from; q < to; q++) {
+                int j = 2 * q + 1;
+                System.arraycopy(level.finv, q * m, x, j * m, m);
+                matVecSub(level.ainv, q * blockSize, m, x, (j - 1) * m, x, j * m);
+                if (j + 1 < level.n)
+                    matVecSub(level.cinv, q * blockSize, m, x, (j + 1) * m, x, j * m);
+            }
+        });
+
+        return x;
+    }
+
+    /**
+     * Block rows {@code a(k) x(k-1) + b(k) x(k) + c(k) x(k+1) = f(k)} of one reduction level, i.e. with the signs
+     * of the off-diagonal blocks already applied. {@code a(0)} and {@code c(n-1)} are always zero.
+     */
+    private static final class Level {
+
+        final int n;
+        final double[] a;
+        final double[] b;
+        final double[] c;
+        final double[] f;
+        double[] ainv;
+        double[] cinv;
+        double[] finv;
+
+        Level(int n, int m) {
+            this.n = n;
+            this.a = new double[n * m * m];
+            this.b = new double[n * m * m];
+            this.c = new double[n * m * m];
+            this.f = new double[n * m];
+        }
+
+        static Level of(LinearBlockTridiagonalEquation eq) {
+            int n = eq.getEquationsCount(), m = eq.getBlockDim(), blockSize = m * m;
+            double[] lhs = eq.lhsData();
+            Level level = new Level(n, m);
+
+            for (int k = 0; k < n; k++) {
+                int aOff = eq.blockOffset(k, 0), bOff = eq.blockOffset(k, 1), cOff = eq.blockOffset(k, 2);
+                for (int i = 0; i < blockSize; i++) {
+                    level.a[k * blockSize + i] = k > 0 ? -lhs[aOff + i] : 0.0;
+                    level.b[k * blockSize + i] = lhs[bOff + i];
+                    level.c[k * blockSize + i] = k < n - 1 ? -lhs[cOff + i] : 0.0;
+                }
+            }
+            System.arraycopy(eq.rhsData(), 0, level.f, 0, n * m);
+
+            return level;
+        }
+    }
+
+}
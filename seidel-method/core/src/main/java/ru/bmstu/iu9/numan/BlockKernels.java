@@ -0,0 +1,484 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.linear.SingularMatrixException;
+
+import static java.lang.Math.abs;
+
+/**
+ * Primitive kernels over packed row-major {@code m x m} blocks and length-{@code m} vectors.
+ * <p>
+ * Dot products are accumulated left to right starting from zero, the same order commons-math uses in
+ * {@code Array2DRowRealMatrix.operate}, so results match the {@code RealMatrix} code path bit for bit.
+ * <p>
+ * When {@link SimdKernels} are available, axpy and the max-abs reductions over at least {@link #SIMD_MIN_LENGTH}
+ * entries run on them instead, with the same results. Dot products stay scalar: lane-wise partial sums would change
+ * the order of summation, and a block matvec would then differ in the last bits from the same product computed
+ * column by column with {@link #panelMul}, which the batch sweeps rely on.
+ */
+final class BlockKernels {
+
+    static final int SIMD_MIN_LENGTH = 8;
+
+    private static final SimdKernels SIMD = SimdKernels.load();
+
+    private BlockKernels() {
+    }
+
+    static boolean isSimdEnabled() {
+        return SIMD != null;
+    }
+
+    static void matVec(double[] a, int aOff, int m, double[] x, int xOff, double[] y, int yOff) {
+        for (int i = 0, rowOff = aOff; i < m; i++, rowOff += m) {
+            y[yOff + i] = dot(a, rowOff, x, xOff, m);
+        }
+    }
+
+    static void matVecAdd(double[] a, int aOff, int m, double[] x, int xOff, double[] y, int yOff) {
+        for (int i = 0, rowOff = aOff; i < m; i++, rowOff += m) {
+            y[yOff + i] += dot(a, rowOff, x, xOff, m);
+        }
+    }
+
+    static void matVecSub(double[] a, int aOff, int m, double[] x, int xOff, double[] y, int yOff) {
+        for (int i = 0, rowOff = aOff; i < m; i++, rowOff += m) {
+            y[yOff + i] -= dot(a, rowOff, x, xOff, m);
+        }
+    }
+
+    /**
+     * {@link #matVec} over a single precision block, summed in double.
+     */
+    static void matVec(float[] a, int aOff, int m, double[] x, int xOff, double[] y, int yOff) {
+        for (int i = 0, rowOff = aOff; i < m; i++, rowOff += m) {
+            y[yOff + i] = dot(a, rowOff, x, xOff, m);
+        }
+    }
+
+    static void matVecAdd(float[] a, int aOff, int m, double[] x, int xOff, double[] y, int yOff) {
+        for (int i = 0, rowOff = aOff; i < m; i++, rowOff += m) {
+            y[yOff + i] += dot(a, rowOff, x, xOff, m);
+        }
+    }
+
+    static void matVecSub(float[] a, int aOff, int m, double[] x, int xOff, double[] y, int yOff) {
+        for (int i = 0, rowOff = aOff; i < m; i++, rowOff += m) {
+            y[yOff + i] -= dot(a, rowOff, x, xOff, m);
+        }
+    }
+
+    /**
+     * {@code y += a^T * x}. {@code y} must not overlap {@code x}.
+     */
+    static void matTransVecAdd(double[] a, int aOff, int m, double[] x, int xOff, double[] y, int yOff) {
+        for (int p = 0, rowOff = aOff; p < m; p++, rowOff += m) {
+            double xp = x[xOff + p];
+            if (xp != 0.0)
+                axpy(xp, a, rowOff, y, yOff, m);
+        }
+    }
+
+    /**
+     * {@code y -= a^T * x}. {@code y} must not overlap {@code x}.
+     */
+    static void matTransVecSub(double[] a, int aOff, int m, double[] x, int xOff, double[] y, int yOff) {
+        for (int p = 0, rowOff = aOff; p < m; p++, rowOff += m) {
+            double xp = x[xOff + p];
+            if (xp != 0.0)
+                axpy(-xp, a, rowOff, y, yOff, m);
+        }
+    }
+
+    static double dot(double[] a, int aOff, double[] x, int xOff, int m) {
+        double sum = 0;
+        for (int j = 0; j < m; j++) {
+            sum += a[aOff + j] * x[xOff + j];
+        }
+        return sum;
+    }
+
+    static double dot(float[] a, int aOff, double[] x, int xOff, int m) {
+        double sum = 0;
+        for (int j = 0; j < m; j++) {
+            sum += a[aOff + j] * x[xOff + j];
+        }
+        return sum;
+    }
+
+    /**
+     * {@code out = a * b} for the first {@code cols} columns of the row-major {@code m x stride} panels {@code b}
+     * and {@code out}. Each entry is summed in the same order as {@link #dot}.
+     */
+    static void panelMul(double[] a, int aOff, int m, double[] b, int bOff, int stride, int cols, double[] out, int outOff) {
+        for (int i = 0; i < m; i++) {
+            int outRow = outOff + i * stride;
+            for (int c = 0; c < cols; c++) {
+                out[outRow + c] = 0;
+            }
+            for (int p = 0; p < m; p++) {
+                axpy(a[aOff + i * m + p], b, bOff + p * stride, out, outRow, cols);
+            }
+        }
+    }
+
+    static void panelAdd(double[] src, int srcOff, int m, int stride, int cols, double[] dest, int destOff) {
+        for (int i = 0; i < m; i++) {
+            for (int c = 0; c < cols; c++) {
+                dest[destOff + i * stride + c] += src[srcOff + i * stride + c];
+            }
+        }
+    }
+
+    static void panelSub(double[] src, int srcOff, int m, int stride, int cols, double[] dest, int destOff) {
+        for (int i = 0; i < m; i++) {
+            for (int c = 0; c < cols; c++) {
+                dest[destOff + i * stride + c] -= src[srcOff + i * stride + c];
+            }
+        }
+    }
+
+    /**
+     * {@code out = a * b} for dense {@code m x m} blocks. {@code out} must not overlap {@code a} or {@code b}.
+     */
+    static void matMul(double[] a, int aOff, double[] b, int bOff, int m, double[] out, int outOff) {
+        panelMul(a, aOff, m, b, bOff, m, m, out, outOff);
+    }
+
+    /**
+     * {@code out -= a * b} for dense {@code m x m} blocks. {@code out} must not overlap {@code a} or {@code b}.
+     */
+    static void matMulSub(double[] a, int aOff, double[] b, int bOff, int m, double[] out, int outOff) {
+        for (int i = 0; i < m; i++) {
+            for (int p = 0; p < m; p++) {
+                double aip = a[aOff + i * m + p];
+                if (aip != 0.0)
+                    axpy(-aip, b, bOff + p * m, out, outOff + i * m, m);
+            }
+        }
+    }
+
+    /**
+     * In-place LU decomposition with partial pivoting of the {@code m x m} block {@code a}. Row {@code i} of
+     * {@code L \ U} holds the original row {@code pivot[pivOff + i]}.
+     *
+     * @throws SingularMatrixException if a pivot is exactly zero
+     */
+    static void luDecompose(double[] a, int aOff, int m, int[] pivot, int pivOff) {
+        for (int i = 0; i < m; i++) {
+            pivot[pivOff + i] = i;
+        }
+
+        for (int col = 0; col < m; col++) {
+            int best = col;
+            double bestAbs = abs(a[aOff + col * m + col]);
+            for (int row = col + 1; row < m; row++) {
+                double val = abs(a[aOff + row * m + col]);
+                if (val > bestAbs) {
+                    bestAbs = val;
+                    best = row;
+                }
+            }
+            if (bestAbs == 0.0) {
+                throw new SingularMatrixException();
+            }
+
+            if (best != col) {
+                for (int j = 0; j < m; j++) {
+                    double tmp = a[aOff + best * m + j];
+                    a[aOff + best * m + j] = a[aOff + col * m + j];
+                    a[aOff + col * m + j] = tmp;
+                }
+                int tmp = pivot[pivOff + best];
+                pivot[pivOff + best] = pivot[pivOff + col];
+                pivot[pivOff + col] = tmp;
+            }
+
+            double diag = a[aOff + col * m + col];
+            for (int row = col + 1; row < m; row++) {
+                double factor = a[aOff + row * m + col] / diag;
+                a[aOff + row * m + col] = factor;
+                if (factor == 0.0)
+                    continue;
+                for (int j = col + 1; j < m; j++) {
+                    a[aOff + row * m + j] -= factor * a[aOff + col * m + j];
+                }
+            }
+        }
+    }
+
+    /**
+     * Solves {@code lu * out = b} for the first {@code cols} columns of the row-major {@code m x stride} panel
+     * {@code b}, where {@code lu} and {@code pivot} come from {@link #luDecompose}. {@code out} must not overlap
+     * {@code b}.
+     */
+    static void luSolve(double[] lu, int luOff, int[] pivot, int pivOff, int m,
+                        double[] b, int bOff, int stride, int cols, double[] out, int outOff) {
+        for (int i = 0; i < m; i++) {
+            System.arraycopy(b, bOff + pivot[pivOff + i] * stride, out, outOff + i * stride, cols);
+        }
+
+        for (int i = 0; i < m; i++) {
+            int outRow = outOff + i * stride;
+            for (int p = 0; p < i; p++) {
+                double lip = lu[luOff + i * m + p];
+                if (lip == 0.0)
+                    continue;
+                int pRow = outOff + p * stride;
+                for (int c = 0; c < cols; c++) {
+                    out[outRow + c] -= lip * out[pRow + c];
+                }
+            }
+        }
+
+        for (int i = m - 1; i >= 0; i--) {
+            int outRow = outOff + i * stride;
+            for (int p = i + 1; p < m; p++) {
+                double uip = lu[luOff + i * m + p];
+                if (uip == 0.0)
+                    continue;
+                int pRow = outOff + p * stride;
+                for (int c = 0; c < cols; c++) {
+                    out[outRow + c] -= uip * out[pRow + c];
+                }
+            }
+            double diag = lu[luOff + i * m + i];
+            for (int c = 0; c < cols; c++) {
+                out[outRow + c] /= diag;
+            }
+        }
+    }
+
+    /**
+     * Solves {@code S^T * out = b} for the vector {@code b}, where {@code lu} and {@code pivot} are the
+     * {@link #luDecompose} of {@code S}. {@code work} is a scratch vector of length {@code m}, {@code out} may be
+     * {@code b}.
+     */
+    static void luSolveTransposed(double[] lu, int luOff, int[] pivot, int pivOff, int m,
+                                  double[] b, int bOff, double[] work, double[] out, int outOff) {
+        // U^T w = b
+        for (int i = 0; i < m; i++) {
+            double sum = b[bOff + i];
+            for (int p = 0; p < i; p++) {
+                sum -= lu[luOff + p * m + i] * work[p];
+            }
+            work[i] = sum / lu[luOff + i * m + i];
+        }
+
+        // L^T v = w, диагональ L единичная
+        for (int i = m - 1; i >= 0; i--) {
+            double sum = work[i];
+            for (int p = i + 1; p < m; p++) {
+                sum -= lu[luOff + p * m + i] * work[p];
+            }
+            work[i] = sum;
+        }
+
+        for (int i = 0; i < m; i++) {
+            out[outOff + pivot[pivOff + i]] = work[i];
+        }
+    }
+
+    /**
+     * {@code y += alpha * x} over {@code n} entries. {@code y} must not overlap {@code x}.
+     */
+    static void axpy(double alpha, double[] x, int xOff, double[] y, int yOff, int n) {
+        if (SIMD != null && n >= SIMD_MIN_LENGTH) {
+            SIMD.axpy(alpha, x, xOff, y, yOff, n);
+            return;
+        }
+
+        for (int j = 0; j < n; j++) {
+            y[yOff + j] += alpha * x[xOff + j];
+        }
+    }
+
+    static double maxAbsDiff(double[] x, double[] y, int from, int to) {
+        if (SIMD != null && to - from >= SIMD_MIN_LENGTH)
+            return SIMD.maxAbsDiff(x, y, from, to);
+
+        // Math.max, в отличие от сравнения, не теряет NaN: расходимость должна быть видна в норме
+        double normInf = 0;
+        for (int i = from; i < to; i++) {
+            normInf = Math.max(normInf, abs(x[i] - y[i]));
+        }
+        return normInf;
+    }
+
+    static void toFloat(double[] src, float[] dest, int destOff) {
+        for (int i = 0; i < src.length; i++) {
+            dest[destOff + i] = (float) src[i];
+        }
+    }
+
+    static double maxAbs(double[] x, int from, int to) {
+        if (SIMD != null && to - from >= SIMD_MIN_LENGTH)
+            return SIMD.maxAbs(x, from, to);
+
+        double normInf = 0;
+        for (int i = from; i < to; i++) {
+            normInf = Math.max(normInf, abs(x[i]));
+        }
+        return normInf;
+    }
+
+    /**
+     * {@code x = prev + omega * (x - prev)} over {@code m} entries.
+     */
+    static void relax(double[] x, int xOff, double[] prev, int prevOff, int m, double omega) {
+        for (int i = 0; i < m; i++) {
+            double p = prev[prevOff + i];
+            x[xOff + i] = p + omega * (x[xOff + i] - p);
+        }
+    }
+
+    /**
+     * {@code out = T * c}, where {@code T} is the tridiagonal part of the block {@code t} and {@code c} is dense.
+     */
+    static void tridiagonalTimesDense(double[] t, int tOff, double[] c, int cOff, int m, double[] out, int outOff) {
+        for (int i = 0; i < m; i++) {
+            int from = Math.max(i - 1, 0), to = Math.min(i + 1, m - 1);
+            for (int j = 0; j < m; j++) {
+                double sum = 0;
+                for (int p = from; p <= to; p++) {
+                    sum += t[tOff + i * m + p] * c[cOff + p * m + j];
+                }
+                out[outOff + i * m + j] = sum;
+            }
+        }
+    }
+
+    /**
+     * {@code out = a * T}, where {@code a} is dense and {@code T} is the tridiagonal part of the block {@code t}.
+     */
+    static void denseTimesTridiagonal(double[] a, int aOff, double[] t, int tOff, int m, double[] out, int outOff) {
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < m; j++) {
+                int from = Math.max(j - 1, 0), to = Math.min(j + 1, m - 1);
+                double sum = 0;
+                for (int p = from; p <= to; p++) {
+                    sum += a[aOff + i * m + p] * t[tOff + p * m + j];
+                }
+                out[outOff + i * m + j] = sum;
+            }
+        }
+    }
+
+    /**
+     * Dense inverse of the tridiagonal matrix with sub-, main and super-diagonals {@code lower}, {@code diag}
+     * and {@code upper} ({@code lower[0]} and {@code upper[m - 1]} are ignored). Same recurrences as
+     * {@link MatrixHelper#inverseOfTridiagonal(org.apache.commons.math3.linear.RealMatrix)}.
+     */
+    static void inverseOfTridiagonal(double[] lower, double[] diag, double[] upper, int m,
+                                     double[] alpha, double[] beta, double[] out, int outOff) {
+        thomasCoefficients(lower, diag, upper, m, alpha, beta);
+
+        for (int l = 0; l < m; l++) {
+            double alphaPrev = l > 0 ? alpha[l - 1] : 0.0;
+            double betaNext = l < m - 1 ? beta[l + 1] : 0.0;
+            double a = l > 0 ? lower[l] : 0.0, c = l < m - 1 ? upper[l] : 0.0;
+
+            out[outOff + l * m + l] = 1.0 / (diag[l] + alphaPrev * a + c * betaNext);
+
+            for (int k = l - 1; k >= 0; k--) {
+                out[outOff + k * m + l] = alpha[k] * out[outOff + (k + 1) * m + l];
+            }
+
+            for (int k = l + 1; k < m; k++) {
+                out[outOff + k * m + l] = beta[k] * out[outOff + (k - 1) * m + l];
+            }
+        }
+    }
+
+    /**
+     * Tridiagonal part of the inverse built by {@link #inverseOfTridiagonal}: {@code outDiag[off + i]} is entry
+     * {@code (i, i)}, {@code outLower[off + i]} is {@code (i, i - 1)} and {@code outUpper[off + i]} is
+     * {@code (i, i + 1)}. {@code alpha} and {@code beta} must come from {@link #thomasCoefficients}.
+     */
+    static void inverseBandOfTridiagonal(double[] lower, double[] diag, double[] upper, int m, double[] alpha, double[] beta,
+                                         double[] outLower, double[] outDiag, double[] outUpper, int off) {
+        for (int l = 0; l < m; l++) {
+            double alphaPrev = l > 0 ? alpha[l - 1] : 0.0;
+            double betaNext = l < m - 1 ? beta[l + 1] : 0.0;
+            double a = l > 0 ? lower[l] : 0.0, c = l < m - 1 ? upper[l] : 0.0;
+
+            double d = 1.0 / (diag[l] + alphaPrev * a + c * betaNext);
+            outDiag[off + l] = d;
+            if (l > 0)
+                outUpper[off + l - 1] = alpha[l - 1] * d;
+            if (l < m - 1)
+                outLower[off + l + 1] = beta[l + 1] * d;
+        }
+        outLower[off] = 0.0;
+        outUpper[off + m - 1] = 0.0;
+    }
+
+    /**
+     * Solves {@code T * out = b} for the first {@code cols} columns of the row-major {@code m x stride} panel
+     * {@code b} by forward and back substitution. {@code T} is given by its sub-diagonal {@code lower}, the
+     * coefficients {@code alpha} from {@link #thomasCoefficients} and the pivots
+     * {@code den[i] = diag[i] + lower[i] * alpha[i - 1]}, all starting at {@code off}. {@code out} may be {@code b}.
+     */
+    static void thomasSolve(double[] lower, double[] alpha, double[] den, int off, int m,
+                            double[] b, int bOff, int stride, int cols, double[] out, int outOff) {
+        for (int c = 0; c < cols; c++) {
+            out[outOff + c] = b[bOff + c] / den[off];
+        }
+        for (int i = 1; i < m; i++) {
+            double li = lower[off + i], di = den[off + i];
+            int row = outOff + i * stride, prevRow = row - stride, bRow = bOff + i * stride;
+            for (int c = 0; c < cols; c++) {
+                out[row + c] = (b[bRow + c] - li * out[prevRow + c]) / di;
+            }
+        }
+        for (int i = m - 2; i >= 0; i--) {
+            double ai = alpha[off + i];
+            int row = outOff + i * stride, nextRow = row + stride;
+            for (int c = 0; c < cols; c++) {
+                out[row + c] += ai * out[nextRow + c];
+            }
+        }
+    }
+
+    /**
+     * {@code dest += T * src} (or {@code dest -= T * src} if {@code subtract} is set) for the first {@code cols}
+     * columns of row-major {@code m x stride} panels, where {@code T} is given by its diagonals as in
+     * {@link #inverseBandOfTridiagonal}.
+     */
+    static void tridiagonalPanelMulAdd(double[] lower, double[] diag, double[] upper, int off, int m,
+                                       double[] src, int srcOff, int stride, int cols, boolean subtract,
+                                       double[] dest, int destOff) {
+        for (int i = 0; i < m; i++) {
+            double li = lower[off + i], di = diag[off + i], ui = upper[off + i];
+            int row = srcOff + i * stride, destRow = destOff + i * stride;
+            for (int c = 0; c < cols; c++) {
+                double sum = 0;
+                if (i > 0)
+                    sum += li * src[row - stride + c];
+                sum += di * src[row + c];
+                if (i < m - 1)
+                    sum += ui * src[row + stride + c];
+                if (subtract)
+                    dest[destRow + c] -= sum;
+                else
+                    dest[destRow + c] += sum;
+            }
+        }
+    }
+
+    static void thomasCoefficients(double[] lower, double[] diag, double[] upper, int m, double[] alpha, double[] beta) {
+        double c0 = m > 1 ? upper[0] : 0.0, aLast = m > 1 ? lower[m - 1] : 0.0;
+        alpha[0] = -c0 / diag[0];
+        beta[m - 1] = -aLast / diag[m - 1];
+
+        for (int i = 1; i < m; i++) {
+            double c = i < m - 1 ? upper[i] : 0.0;
+            alpha[i] = -c / (diag[i] + lower[i] * alpha[i - 1]);
+        }
+
+        for (int i = m - 2; i >= 0; i--) {
+            double a = i > 0 ? lower[i] : 0.0;
+            beta[i] = -a / (diag[i] + upper[i] * beta[i + 1]);
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+package ru.bmstu.iu9.numan;
+
+import static ru.bmstu.iu9.numan.BlockKernels.*;
+
+/**
+ * Block LU factorization {@code M = L U} of the matrix of a block tridiagonal system. {@code L} is lower block
+ * bidiagonal with {@code S[k]} on the diagonal and {@code -A(k)} below it, {@code U} is unit upper block bidiagonal
+ * with {@code -E[k]} above the diagonal, where
+ * <pre>
+ * S[k] = B(k) - A(k) * E[k-1],   E[k] = S[k]^-1 * C(k).
+ * </pre>
+ * The factorization takes {@code O(l m^3)} time and {@code 3 l m^2} doubles, after that a solve with {@code M} or
+ * {@code M^T} takes {@code O(l m^2)}. Instances are immutable, every solve works in its own buffers.
+ */
+final class BlockLUFactorization {
+
+    private final int noOfEquations;
+    private final int blockDim;
+    private final double[] A;
+    // LU-разложения S[k] с перестановками строк
+    private final double[] lu;
+    private final int[] pivot;
+    private final double[] E;
+
+    /**
+     * @throws org.apache.commons.math3.linear.SingularMatrixException if some {@code S[k]} is singular
+     */
+    BlockLUFactorization(BlockTridiagonalSystem eq) {
+        int l = eq.getEquationsCount(), m = eq.getBlockDim(), blockSize = m * m;
+        this.noOfEquations = l;
+        this.blockDim = m;
+        this.A = new double[l * blockSize];
+        this.lu = new double[l * blockSize];
+        this.pivot = new int[l * m];
+        this.E = new double[l * blockSize];
+
+        double[] c = new double[blockSize];
+        for (int k = 0; k < l; k++) {
+            int off = k * blockSize;
+            eq.copyBlock(k, 0, A, off);
+            eq.copyBlock(k, 1, lu, off);
+            if (k > 0) {
+                matMulSub(A, off, E, off - blockSize, m, lu, off);
+            }
+            luDecompose(lu, off, m, pivot, k * m);
+
+            if (k < l - 1) {
+                eq.copyBlock(k, 2, c, 0);
+                luSolve(lu, off, pivot, k * m, m, c, 0, m, m, E, off);
+            }
+        }
+    }
+
+    int getEquationsCount() {
+        return noOfEquations;
+    }
+
+    int getBlockDim() {
+        return blockDim;
+    }
+
+    /**
+     * Solves {@code M x = b}, overwriting the packed vector {@code b} with {@code x}.
+     */
+    void solve(double[] b) {
+        int l = noOfEquations, m = blockDim, blockSize = m * m;
+        double[] t = new double[m];
+
+        // L y = b
+        for (int k = 0; k < l; k++) {
+            if (k > 0) {
+                matVecAdd(A, k * blockSize, m, b, (k - 1) * m, b, k * m);
+            }
+            luSolve(lu, k * blockSize, pivot, k * m, m, b, k * m, 1, 1, t, 0);
+            System.arraycopy(t, 0, b, k * m, m);
+        }
+
+        // U x = y
+        for (int k = l - 2; k >= 0; k--) {
+            matVecAdd(E, k * blockSize, m, b, (k + 1) * m, b, k * m);
+        }
+    }
+
+    /**
+     * Solves {@code M^T x = b}, overwriting the packed vector {@code b} with {@code x}.
+     */
+    void solveTransposed(double[] b) {
+        int l = noOfEquations, m = blockDim, blockSize = m * m;
+        double[] work = new double[m];
+
+        // U^T z = b
+        for (int k = 1; k < l; k++) {
+            matTransVecAdd(E, (k - 1) * blockSize, m, b, (k - 1) * m, b, k * m);
+        }
+
+        // L^T x = z
+        for (int k = l - 1; k >= 0; k--) {
+            if (k < l - 1) {
+                matTransVecAdd(A, (k + 1) * blockSize, m, b, (k + 1) * m, b, k * m);
+            }
+            luSolveTransposed(lu, k * blockSize, pivot, k * m, m, b, k * m, work, b, k * m);
+        }
+    }
+
+}
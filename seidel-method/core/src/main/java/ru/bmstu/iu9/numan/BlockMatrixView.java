@@ -0,0 +1,186 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.OutOfRangeException;
+import org.apache.commons.math3.linear.AbstractRealMatrix;
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.MatrixDimensionMismatchException;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.RealVector;
+
+/**
+ * Square matrix view over a row-major block of a packed {@code double[]} array.
+ * Writes go straight into the backing array.
+ */
+class BlockMatrixView extends AbstractRealMatrix {
+
+    private final double[] data;
+    private final int offset;
+    private final int dim;
+
+    BlockMatrixView(double[] data, int offset, int dim) {
+        this.data = data;
+        this.offset = offset;
+        this.dim = dim;
+    }
+
+    double[] getDataRef() {
+        return data;
+    }
+
+    int getOffset() {
+        return offset;
+    }
+
+    @Override
+    public int getRowDimension() {
+        return dim;
+    }
+
+    @Override
+    public int getColumnDimension() {
+        return dim;
+    }
+
+    @Override
+    public RealMatrix createMatrix(int rowDimension, int columnDimension) {
+        return new Array2DRowRealMatrix(rowDimension, columnDimension);
+    }
+
+    @Override
+    public RealMatrix copy() {
+        return new Array2DRowRealMatrix(getData(), false);
+    }
+
+    @Override
+    public double getEntry(int row, int column) {
+        checkIndex(row, column);
+        return data[offset + row * dim + column];
+    }
+
+    @Override
+    public void setEntry(int row, int column, double value) {
+        checkIndex(row, column);
+        data[offset + row * dim + column] = value;
+    }
+
+    @Override
+    public void addToEntry(int row, int column, double increment) {
+        checkIndex(row, column);
+        data[offset + row * dim + column] += increment;
+    }
+
+    @Override
+    public double[][] getData() {
+        double[][] out = new double[dim][dim];
+        for (int i = 0; i < dim; i++) {
+            System.arraycopy(data, offset + i * dim, out[i], 0, dim);
+        }
+        return out;
+    }
+
+    @Override
+    public double[] operate(double[] v) {
+        if (v.length != dim) {
+            throw new DimensionMismatchException(v.length, dim);
+        }
+
+        double[] out = new double[dim];
+        for (int i = 0, rowOff = offset; i < dim; i++, rowOff += dim) {
+            double sum = 0;
+            for (int j = 0; j < dim; j++) {
+                sum += data[rowOff + j] * v[j];
+            }
+            out[i] = sum;
+        }
+
+        return out;
+    }
+
+    @Override
+    public RealVector operate(RealVector v) {
+        if (v.getDimension() != dim) {
+            throw new DimensionMismatchException(v.getDimension(), dim);
+        }
+
+        double[] out = new double[dim];
+        if (v instanceof BlockVectorView) {
+            BlockVectorView view = (BlockVectorView) v;
+            double[] vData = view.getDataRef();
+            int vOff = view.getOffset();
+            for (int i = 0, rowOff = offset; i < dim; i++, rowOff += dim) {
+                double sum = 0;
+                for (int j = 0; j < dim; j++) {
+                    sum += data[rowOff + j] * vData[vOff + j];
+                }
+                out[i] = sum;
+            }
+        } else if (v instanceof ArrayRealVector) {
+            out = operate(((ArrayRealVector) v).getDataRef());
+        } else {
+            for (int i = 0, rowOff = offset; i < dim; i++, rowOff += dim) {
+                double sum = 0;
+                for (int j = 0; j < dim; j++) {
+                    sum += data[rowOff + j] * v.getEntry(j);
+                }
+                out[i] = sum;
+            }
+        }
+
+        return new ArrayRealVector(out, false);
+    }
+
+    @Override
+    public RealMatrix multiply(RealMatrix m) {
+        if (m.getRowDimension() != dim) {
+            throw new DimensionMismatchException(m.getRowDimension(), dim);
+        }
+
+        int nCols = m.getColumnDimension();
+        double[][] out = new double[dim][nCols];
+        double[] mCol = new double[dim];
+
+        for (int col = 0; col < nCols; col++) {
+            for (int k = 0; k < dim; k++) {
+                mCol[k] = m.getEntry(k, col);
+            }
+            for (int i = 0, rowOff = offset; i < dim; i++, rowOff += dim) {
+                double sum = 0;
+                for (int k = 0; k < dim; k++) {
+                    sum += data[rowOff + k] * mCol[k];
+                }
+                out[i][col] = sum;
+            }
+        }
+
+        return new Array2DRowRealMatrix(out, false);
+    }
+
+    void setFrom(RealMatrix m) {
+        if (m.getRowDimension() != dim || m.getColumnDimension() != dim) {
+            throw new MatrixDimensionMismatchException(m.getRowDimension(), m.getColumnDimension(), dim, dim);
+        }
+
+        if (m instanceof BlockMatrixView) {
+            BlockMatrixView view = (BlockMatrixView) m;
+            System.arraycopy(view.data, view.offset, data, offset, dim * dim);
+        } else {
+            for (int i = 0; i < dim; i++) {
+                for (int j = 0; j < dim; j++) {
+                    data[offset + i * dim + j] = m.getEntry(i, j);
+                }
+            }
+        }
+    }
+
+    private void checkIndex(int row, int column) {
+        if (row < 0 || row >= dim) {
+            throw new OutOfRangeException(row, 0, dim - 1);
+        }
+        if (column < 0 || column >= dim) {
+            throw new OutOfRangeException(column, 0, dim - 1);
+        }
+    }
+
+}
@@ -0,0 +1,37 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.RealVector;
+
+/**
+ * Direct solver based on block Gaussian elimination (block Thomas algorithm):
+ * <pre>
+ * S[k] = B(k) - A(k) * E[k-1],   E[k] = S[k]^-1 * C(k),   y[k] = S[k]^-1 * (f(k) + A(k) * y[k-1]),
+ * x[l-1] = y[l-1],   x[k] = y[k] + E[k] * x[k+1].
+ * </pre>
+ * The elimination is the {@link BlockLUFactorization} of the system followed by one solve with it: {@code O(l m^3)}
+ * time and {@code 3 l m^2} doubles, the system is read one block row at a time. The result is the exact solution up
+ * to rounding, so it can serve as the reference for {@link SeidelAlgorithm} without building the full matrix.
+ */
+public class BlockThomasSolver {
+
+    public RealVector solve(BlockTridiagonalSystem eq) {
+        return solve(eq, eq.rhsAsVector());
+    }
+
+    /**
+     * @throws org.apache.commons.math3.linear.SingularMatrixException if some {@code S[k]} is singular
+     */
+    public RealVector solve(BlockTridiagonalSystem eq, RealVector rhs) {
+        int n = eq.getEquationsCount() * eq.getBlockDim();
+        if (rhs.getDimension() != n) {
+            throw new DimensionMismatchException(rhs.getDimension(), n);
+        }
+
+        double[] x = rhs.toArray();
+        new BlockLUFactorization(eq).solve(x);
+        return new ArrayRealVector(x, false);
+    }
+
+}
@@ -0,0 +1,225 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.MathUnsupportedOperationException;
+import org.apache.commons.math3.exception.OutOfRangeException;
+import org.apache.commons.math3.linear.AbstractRealMatrix;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.OpenMapRealMatrix;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.RealVector;
+
+import static ru.bmstu.iu9.numan.BlockKernels.*;
+
+/**
+ * The {@code (l m) x (l m)} matrix of a {@link LinearBlockTridiagonalEquation}, i.e. {@code -A(k)}, {@code B(k)}
+ * and {@code -C(k)} on the block diagonals, as a view over the packed block array of the equation. Nothing is
+ * copied, writes go straight into the equation.
+ * <p>
+ * {@link #operate}, {@link #preMultiply}, {@link #operateTranspose}, {@link #getNorm()} and
+ * {@link #getFrobeniusNorm()} work block by block in {@code O(l m^2)}, so the matrix can be passed to commons-math
+ * iterative solvers such as {@link org.apache.commons.math3.linear.ConjugateGradient} and
+ * {@link org.apache.commons.math3.linear.SymmLQ}. Other {@link RealMatrix} operations fall back to the generic
+ * entry-by-entry implementations. Entries outside the three block diagonals are zero and cannot be set.
+ */
+public class BlockTridiagonalMatrix extends AbstractRealMatrix {
+
+    private final LinearBlockTridiagonalEquation eq;
+    private final double[] lhs;
+    private final int noOfEquations;
+    private final int blockDim;
+    private final int dim;
+
+    public BlockTridiagonalMatrix(LinearBlockTridiagonalEquation eq) {
+        this.eq = eq;
+        this.lhs = eq.lhsData();
+        this.noOfEquations = eq.getEquationsCount();
+        this.blockDim = eq.getBlockDim();
+        this.dim = noOfEquations * blockDim;
+    }
+
+    public LinearBlockTridiagonalEquation getEquation() {
+        return eq;
+    }
+
+    @Override
+    public int getRowDimension() {
+        return dim;
+    }
+
+    @Override
+    public int getColumnDimension() {
+        return dim;
+    }
+
+    @Override
+    public RealMatrix createMatrix(int rowDimension, int columnDimension) {
+        return new OpenMapRealMatrix(rowDimension, columnDimension);
+    }
+
+    @Override
+    public RealMatrix copy() {
+        LinearBlockTridiagonalEquation copy = new LinearBlockTridiagonalEquation(noOfEquations, blockDim);
+        System.arraycopy(lhs, 0, copy.lhsData(), 0, lhs.length);
+        return new BlockTridiagonalMatrix(copy);
+    }
+
+    @Override
+    public double getEntry(int row, int column) {
+        checkIndex(row, column);
+        int offset = entryOffset(row, column);
+        if (offset < 0) {
+            return 0.0;
+        }
+        return sameBlockRow(row, column) ? lhs[offset] : -lhs[offset];
+    }
+
+    @Override
+    public void setEntry(int row, int column, double value) {
+        checkIndex(row, column);
+        int offset = checkedEntryOffset(row, column, value);
+        if (offset >= 0) {
+            lhs[offset] = sameBlockRow(row, column) ? value : -value;
+        }
+    }
+
+    @Override
+    public void addToEntry(int row, int column, double increment) {
+        checkIndex(row, column);
+        int offset = checkedEntryOffset(row, column, increment);
+        if (offset >= 0) {
+            lhs[offset] += sameBlockRow(row, column) ? increment : -increment;
+        }
+    }
+
+    @Override
+    public double[] operate(double[] v) {
+        if (v.length != dim) {
+            throw new DimensionMismatchException(v.length, dim);
+        }
+
+        int l = noOfEquations, m = blockDim;
+        double[] out = new double[dim];
+        for (int k = 0; k < l; k++) {
+            matVec(lhs, eq.blockOffset(k, 1), m, v, k * m, out, k * m);
+            if (k > 0)
+                matVecSub(lhs, eq.blockOffset(k, 0), m, v, (k - 1) * m, out, k * m);
+            if (k < l - 1)
+                matVecSub(lhs, eq.blockOffset(k, 2), m, v, (k + 1) * m, out, k * m);
+        }
+        return out;
+    }
+
+    @Override
+    public RealVector operate(RealVector v) {
+        return new ArrayRealVector(operate(data(v)), false);
+    }
+
+    /**
+     * {@code v^T * M}, i.e. {@code M^T * v}: column block {@code k} is
+     * {@code B(k)^T v(k) - C(k-1)^T v(k-1) - A(k+1)^T v(k+1)}.
+     */
+    @Override
+    public double[] preMultiply(double[] v) {
+        if (v.length != dim) {
+            throw new DimensionMismatchException(v.length, dim);
+        }
+
+        int l = noOfEquations, m = blockDim;
+        double[] out = new double[dim];
+        for (int k = 0; k < l; k++) {
+            matTransVecAdd(lhs, eq.blockOffset(k, 1), m, v, k * m, out, k * m);
+            if (k > 0)
+                matTransVecSub(lhs, eq.blockOffset(k - 1, 2), m, v, (k - 1) * m, out, k * m);
+            if (k < l - 1)
+                matTransVecSub(lhs, eq.blockOffset(k + 1, 0), m, v, (k + 1) * m, out, k * m);
+        }
+        return out;
+    }
+
+    @Override
+    public RealVector preMultiply(RealVector v) {
+        return new ArrayRealVector(preMultiply(data(v)), false);
+    }
+
+    @Override
+    public RealVector operateTranspose(RealVector v) {
+        return preMultiply(v);
+    }
+
+    @Override
+    public boolean isTransposable() {
+        return true;
+    }
+
+    /**
+     * Maximum absolute column sum, same value as {@link LinearBlockTridiagonalEquation#lhsAsRealMatrix()}
+     * {@code .getNorm()}.
+     */
+    @Override
+    public double getNorm() {
+        return ConditionEstimator.norm1(eq);
+    }
+
+    @Override
+    public double getFrobeniusNorm() {
+        int l = noOfEquations, blockSize = blockDim * blockDim;
+        double sum = 0;
+        for (int k = 0; k < l; k++) {
+            sum += squaresSum(eq.blockOffset(k, 1), blockSize);
+            if (k > 0)
+                sum += squaresSum(eq.blockOffset(k, 0), blockSize);
+            if (k < l - 1)
+                sum += squaresSum(eq.blockOffset(k, 2), blockSize);
+        }
+        return Math.sqrt(sum);
+    }
+
+    private double squaresSum(int offset, int length) {
+        double sum = 0;
+        for (int i = offset; i < offset + length; i++) {
+            sum += lhs[i] * lhs[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Offset of entry {@code (row, column)} in the packed array, or {@code -1} if it lies outside the three block
+     * diagonals.
+     */
+    private int entryOffset(int row, int column) {
+        int m = blockDim, k = row / m, kc = column / m;
+        int i = row - k * m, j = column - kc * m;
+        int l = kc - k + 1;
+        if (l < 0 || l > 2) {
+            return -1;
+        }
+        return eq.blockOffset(k, l) + i * m + j;
+    }
+
+    private int checkedEntryOffset(int row, int column, double value) {
+        int offset = entryOffset(row, column);
+        if (offset < 0 && value != 0.0) {
+            throw new MathUnsupportedOperationException();
+        }
+        return offset;
+    }
+
+    private boolean sameBlockRow(int row, int column) {
+        return row / blockDim == column / blockDim;
+    }
+
+    private double[] data(RealVector v) {
+        return v instanceof ArrayRealVector ? ((ArrayRealVector) v).getDataRef() : v.toArray();
+    }
+
+    private void checkIndex(int row, int column) {
+        if (row < 0 || row >= dim) {
+            throw new OutOfRangeException(row, 0, dim - 1);
+        }
+        if (column < 0 || column >= dim) {
+            throw new OutOfRangeException(column, 0, dim - 1);
+        }
+    }
+
+}
@@ -0,0 +1,36 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.RealVector;
+
+/**
+ * Read access to a block tridiagonal system {@code -A(k) x(k-1) + B(k) x(k) - C(k) x(k+1) = f(k)} that does not
+ * depend on how the blocks are stored. Block {@code (k, l)} is {@code A(k)} for {@code l = 0}, {@code B(k)} for
+ * {@code l = 1} and {@code C(k)} for {@code l = 2}.
+ */
+public interface BlockTridiagonalSystem {
+
+    int getEquationsCount();
+
+    int getBlockDim();
+
+    /**
+     * Copies block {@code (k, l)} row-major into {@code dest} starting at {@code off}.
+     */
+    void copyBlock(int k, int l, double[] dest, int off);
+
+    /**
+     * Copies {@code f(k)} into {@code dest} starting at {@code off}.
+     */
+    void copyRhs(int k, double[] dest, int off);
+
+    default RealVector rhsAsVector() {
+        int m = getBlockDim();
+        double[] rhs = new double[getEquationsCount() * m];
+        for (int k = 0; k < getEquationsCount(); k++) {
+            copyRhs(k, rhs, k * m);
+        }
+        return new ArrayRealVector(rhs, false);
+    }
+
+}
@@ -0,0 +1,166 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.NotPositiveException;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.RealVector;
+
+import java.util.Arrays;
+
+/**
+ * Vector view over a slice of a packed {@code double[]} array.
+ * Writes go straight into the backing array.
+ */
+class BlockVectorView extends RealVector {
+
+    private final double[] data;
+    private final int offset;
+    private final int dim;
+
+    BlockVectorView(double[] data, int offset, int dim) {
+        this.data = data;
+        this.offset = offset;
+        this.dim = dim;
+    }
+
+    double[] getDataRef() {
+        return data;
+    }
+
+    int getOffset() {
+        return offset;
+    }
+
+    @Override
+    public int getDimension() {
+        return dim;
+    }
+
+    @Override
+    public double getEntry(int index) {
+        checkIndex(index);
+        return data[offset + index];
+    }
+
+    @Override
+    public void setEntry(int index, double value) {
+        checkIndex(index);
+        data[offset + index] = value;
+    }
+
+    @Override
+    public double[] toArray() {
+        return Arrays.copyOfRange(data, offset, offset + dim);
+    }
+
+    @Override
+    public RealVector append(RealVector v) {
+        return copy().append(v);
+    }
+
+    @Override
+    public RealVector append(double d) {
+        return copy().append(d);
+    }
+
+    @Override
+    public RealVector getSubVector(int index, int n) {
+        if (n < 0) {
+            throw new NotPositiveException(n);
+        }
+        checkIndex(index);
+        checkIndex(index + n - 1);
+        return new ArrayRealVector(data, offset + index, n);
+    }
+
+    @Override
+    public void setSubVector(int index, RealVector v) {
+        checkIndex(index);
+        checkIndex(index + v.getDimension() - 1);
+        for (int i = 0; i < v.getDimension(); i++) {
+            data[offset + index + i] = v.getEntry(i);
+        }
+    }
+
+    @Override
+    public boolean isNaN() {
+        for (int i = 0; i < dim; i++) {
+            if (Double.isNaN(data[offset + i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isInfinite() {
+        if (isNaN()) {
+            return false;
+        }
+        for (int i = 0; i < dim; i++) {
+            if (Double.isInfinite(data[offset + i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public ArrayRealVector copy() {
+        return new ArrayRealVector(data, offset, dim);
+    }
+
+    @Override
+    public RealVector ebeDivide(RealVector v) {
+        return copy().ebeDivide(v);
+    }
+
+    @Override
+    public RealVector ebeMultiply(RealVector v) {
+        return copy().ebeMultiply(v);
+    }
+
+    void setFrom(RealVector v) {
+        if (v.getDimension() != dim) {
+            throw new DimensionMismatchException(v.getDimension(), dim);
+        }
+
+        if (v instanceof BlockVectorView) {
+            BlockVectorView view = (BlockVectorView) v;
+            System.arraycopy(view.data, view.offset, data, offset, dim);
+        } else {
+            for (int i = 0; i < dim; i++) {
+                data[offset + i] = v.getEntry(i);
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (!(other instanceof RealVector)) return false;
+
+        RealVector that = (RealVector) other;
+        if (that.getDimension() != dim) return false;
+        if (that.isNaN()) return isNaN();
+
+        for (int i = 0; i < dim; i++) {
+            if (data[offset + i] != that.getEntry(i)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        if (isNaN()) {
+            return 9;
+        }
+        int result = 1;
+        for (int i = 0; i < dim; i++) {
+            long bits = Double.doubleToLongBits(data[offset + i]);
+            result = 31 * result + (int) (bits ^ (bits >>> 32));
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,299 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.exception.NotStrictlyPositiveException;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static java.lang.Math.abs;
+
+/**
+ * Condition number {@code ||M||_1 * ||M^-1||_1} of the matrix {@code M} of a block tridiagonal system, the
+ * column-sum norm {@link org.apache.commons.math3.linear.RealMatrix#getNorm()} computes, without forming {@code M}
+ * or its inverse.
+ * <p>
+ * {@code ||M||_1} is computed exactly from the blocks. {@code ||M^-1||_1} is estimated by the block version of
+ * Hager's method due to Higham and Tisseur (MATLAB {@code normest1}): a few solves with {@code M} and {@code M^T}
+ * through a {@link BlockLUFactorization}, each {@code O(l m^2)}. The estimate never exceeds the true norm and in
+ * practice is exact or within a factor of 3. Like {@code normest1}, a matrix of order at most {@code 4} is inverted
+ * column by column and its norm is exact.
+ */
+public final class ConditionEstimator {
+
+    private static final int MAX_ITERATIONS = 5;
+    private static final int DEFAULT_BLOCK_COLUMNS = 4;
+    private static final int MAX_EXACT_ORDER = 4;
+    private static final int MAX_RESAMPLES = 100;
+    private static final long SEED = 0x5EEDL;
+
+    private final BlockLUFactorization factorization;
+    private final int blockColumns;
+    private double inverseNorm = -1;
+
+    public ConditionEstimator(BlockTridiagonalSystem eq) {
+        this(eq, DEFAULT_BLOCK_COLUMNS);
+    }
+
+    /**
+     * @param blockColumns number of vectors iterated at once: more columns cost more solves per iteration and
+     *                     give the exact norm more often
+     * @throws org.apache.commons.math3.linear.SingularMatrixException if the block LU factorization breaks down
+     */
+    public ConditionEstimator(BlockTridiagonalSystem eq, int blockColumns) {
+        if (blockColumns <= 0) {
+            throw new NotStrictlyPositiveException(blockColumns);
+        }
+        this.factorization = new BlockLUFactorization(eq);
+        this.blockColumns = blockColumns;
+    }
+
+    /**
+     * Estimate of {@code ||M^-1||_1}.
+     */
+    public synchronized double inverseNorm1() {
+        if (inverseNorm < 0) {
+            inverseNorm = estimateInverseNorm();
+        }
+        return inverseNorm;
+    }
+
+    /**
+     * Estimate of {@code ||M||_1 * ||M^-1||_1}.
+     */
+    public static double condition1(BlockTridiagonalSystem eq) {
+        return norm1(eq) * new ConditionEstimator(eq).inverseNorm1();
+    }
+
+    /**
+     * Maximum absolute column sum of {@code M}. Entries are added in row order, so the result equals
+     * {@code lhsAsRealMatrix().getNorm()}.
+     */
+    public static double norm1(BlockTridiagonalSystem eq) {
+        int l = eq.getEquationsCount(), m = eq.getBlockDim(), blockSize = m * m;
+        // блоки столбца k: C(k-1), B(k), A(k+1)
+        double[] above = new double[blockSize], diag = new double[blockSize], below = new double[blockSize];
+        double norm = 0;
+
+        for (int k = 0; k < l; k++) {
+            if (k > 0)
+                eq.copyBlock(k - 1, 2, above, 0);
+            eq.copyBlock(k, 1, diag, 0);
+            if (k < l - 1)
+                eq.copyBlock(k + 1, 0, below, 0);
+
+            for (int j = 0; j < m; j++) {
+                double sum = 0;
+                if (k > 0)
+                    sum = columnAbsSum(above, j, m, sum);
+                sum = columnAbsSum(diag, j, m, sum);
+                if (k < l - 1)
+                    sum = columnAbsSum(below, j, m, sum);
+                norm = Math.max(norm, sum);
+            }
+        }
+        return norm;
+    }
+
+    /**
+     * Block algorithm of Higham and Tisseur with {@code blockColumns} columns: several vectors are iterated at
+     * once, which makes stopping at a local maximum much less likely than with the single-vector method. Random
+     * columns come from a generator with a fixed seed, so the estimate is reproducible.
+     */
+    private double estimateInverseNorm() {
+        int n = factorization.getEquationsCount() * factorization.getBlockDim();
+        if (n <= MAX_EXACT_ORDER) {
+            return exactInverseNorm(n);
+        }
+        int t = Math.min(blockColumns, n);
+        SplittableRandom rnd = new SplittableRandom(SEED);
+        double[][] x = new double[t][n], sign = new double[t][n], signOld = new double[t][n];
+        double[] h = new double[n];
+        int[] ind = new int[t];
+        boolean[] used = new boolean[n];
+
+        Arrays.fill(x[0], 1.0);
+        for (int c = 1; c < t; c++) {
+            randomSigns(x[c], rnd);
+            // не нашёлся - столбец повторится, это лишь лишнее решение
+            resample(x[c], x, c, null, 0, rnd);
+        }
+        for (int c = 0; c < t; c++) {
+            for (int i = 0; i < n; i++) {
+                x[c][i] /= n;
+            }
+        }
+
+        double est, estOld = 0;
+        int indBest = -1;
+        for (int iter = 1; ; iter++) {
+            est = -1;
+            int best = 0;
+            for (int c = 0; c < t; c++) {
+                factorization.solve(x[c]);
+                double norm = absSum(x[c]);
+                if (norm > est) {
+                    est = norm;
+                    best = c;
+                }
+            }
+            if (iter >= 2 && (est > estOld || iter == 2)) {
+                indBest = ind[best];
+            }
+            if (iter >= 2 && est <= estOld) {
+                est = estOld;
+                break;
+            }
+            estOld = est;
+            if (iter > MAX_ITERATIONS) {
+                break;
+            }
+
+            double[][] tmp = signOld;
+            signOld = sign;
+            sign = tmp;
+            boolean repeated = iter >= 2;
+            for (int c = 0; c < t; c++) {
+                signs(x[c], sign[c]);
+                repeated &= parallelToAny(sign[c], signOld, t);
+            }
+            if (repeated) {
+                break;
+            }
+            // столбцы, параллельные другим или уже использованным, заменяются случайными; если подходящих
+            // векторов знаков не осталось, новых направлений нет и оценка окончательная
+            boolean exhausted = false;
+            for (int c = 1; c < t && !exhausted; c++) {
+                exhausted = !resample(sign[c], sign, c, signOld, iter >= 2 ? t : 0, rnd);
+            }
+            if (exhausted) {
+                break;
+            }
+
+            Arrays.fill(h, 0.0);
+            for (int c = 0; c < t; c++) {
+                System.arraycopy(sign[c], 0, x[c], 0, n);
+                factorization.solveTransposed(x[c]);
+                for (int i = 0; i < n; i++) {
+                    h[i] = Math.max(h[i], abs(x[c][i]));
+                }
+            }
+            int hMax = maxAbsIndex(h);
+            if (iter >= 2 && h[hMax] == h[indBest]) {
+                break;
+            }
+
+            // следующие столбцы - e_j для наибольших h_j, которые ещё не использовались
+            int next = 0;
+            for (int c = 0; c < t; c++) {
+                int j = -1;
+                for (int i = 0; i < n; i++) {
+                    if (!used[i] && (j < 0 || h[i] > h[j]))
+                        j = i;
+                }
+                if (j < 0)
+                    break;
+                used[j] = true;
+                ind[next++] = j;
+            }
+            if (next == 0) {
+                break;
+            }
+            t = next;
+            for (int c = 0; c < t; c++) {
+                Arrays.fill(x[c], 0.0);
+                x[c][ind[c]] = 1.0;
+            }
+        }
+
+        // знакопеременный вектор Хайэма страхует от неудачных случаев метода
+        double[] alt = x[0];
+        for (int i = 0; i < n; i++) {
+            alt[i] = (i % 2 == 0 ? 1 : -1) * (1.0 + (n > 1 ? (double) i / (n - 1) : 0.0));
+        }
+        factorization.solve(alt);
+        return Math.max(est, 2 * absSum(alt) / (3.0 * n));
+    }
+
+    /**
+     * Maximum absolute column sum of {@code M^-1}, its columns solved one by one.
+     */
+    private double exactInverseNorm(int n) {
+        double[] column = new double[n];
+        double norm = 0;
+        for (int j = 0; j < n; j++) {
+            Arrays.fill(column, 0.0);
+            column[j] = 1.0;
+            factorization.solve(column);
+            norm = Math.max(norm, absSum(column));
+        }
+        return norm;
+    }
+
+    /**
+     * Draws random signs into {@code v} while it is parallel to one of the first {@code count} columns or the first
+     * {@code oldCount} old columns, at most {@link #MAX_RESAMPLES} times.
+     *
+     * @return whether {@code v} is parallel to none of them
+     */
+    private static boolean resample(double[] v, double[][] columns, int count, double[][] old, int oldCount,
+                                    SplittableRandom rnd) {
+        for (int tries = 0; parallelToAny(v, columns, count) || parallelToAny(v, old, oldCount); tries++) {
+            if (tries == MAX_RESAMPLES)
+                return false;
+            randomSigns(v, rnd);
+        }
+        return true;
+    }
+
+    private static double columnAbsSum(double[] block, int col, int m, double sum) {
+        for (int i = 0; i < m; i++) {
+            sum += abs(block[i * m + col]);
+        }
+        return sum;
+    }
+
+    private static double absSum(double[] x) {
+        double sum = 0;
+        for (double v : x) {
+            sum += abs(v);
+        }
+        return sum;
+    }
+
+    private static void signs(double[] x, double[] sign) {
+        for (int i = 0; i < x.length; i++) {
+            sign[i] = x[i] >= 0 ? 1.0 : -1.0;
+        }
+    }
+
+    private static void randomSigns(double[] x, SplittableRandom rnd) {
+        for (int i = 0; i < x.length; i++) {
+            x[i] = rnd.nextBoolean() ? 1.0 : -1.0;
+        }
+    }
+
+    /**
+     * Whether the {@code ±1} vector {@code v} equals {@code ±columns[c]} for some {@code c < count}.
+     */
+    private static boolean parallelToAny(double[] v, double[][] columns, int count) {
+        for (int c = 0; c < count; c++) {
+            double dot = 0;
+            for (int i = 0; i < v.length; i++) {
+                dot += v[i] * columns[c][i];
+            }
+            if (abs(dot) == v.length)
+                return true;
+        }
+        return false;
+    }
+
+    private static int maxAbsIndex(double[] x) {
+        int best = 0;
+        for (int i = 1; i < x.length; i++) {
+            if (abs(x[i]) > abs(x[best]))
+                best = i;
+        }
+        return best;
+    }
+
+}
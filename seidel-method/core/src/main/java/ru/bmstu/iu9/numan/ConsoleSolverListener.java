@@ -0,0 +1,78 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.linear.RealVector;
+
+import java.io.PrintStream;
+
+/**
+ * Prints the solver report: precision, start vector, iteration count and solution. In verbose mode it also
+ * prints the factorization time and the convergence of every sweep.
+ */
+public class ConsoleSolverListener implements SolverListener {
+
+    private static final String SEPARATOR = new String(new char[20]).replace("\0", "-");
+
+    private final PrintStream out;
+    private final boolean verbose;
+    private RealVector startSol;
+    private double precision;
+
+    public ConsoleSolverListener() {
+        this(System.out, false);
+    }
+
+    public ConsoleSolverListener(PrintStream out, boolean verbose) {
+        this.out = out;
+        this.verbose = verbose;
+    }
+
+    @Override
+    public void factorizationFinished(int equationsCount, int blockDim, long nanos, long allocatedBytes) {
+        if (verbose) {
+            out.printf("[info] factorization of %d x (%d x %d) blocks: %.3f ms, %d bytes allocated%n",
+                    equationsCount, blockDim, blockDim, nanos / 1e6, allocatedBytes);
+        }
+    }
+
+    @Override
+    public void solveStarted(RealVector startSol, double precision) {
+        this.startSol = startSol;
+        this.precision = precision;
+    }
+
+    @Override
+    public void sweepFinished(int iteration, double diffNorm, long nanos) {
+        if (verbose) {
+            out.printf("[info] sweep #%d: |x - x_prev| = %e, %.3f ms%n", iteration, diffNorm, nanos / 1e6);
+        }
+    }
+
+    @Override
+    public void relaxationChosen(int iteration, double lambda, double omega) {
+        if (verbose) {
+            out.printf("[info] after %d sweeps: lambda = %f, omega = %f%n", iteration, lambda, omega);
+        }
+    }
+
+    @Override
+    public void solveFinished(RealVector solution, int iterations, long nanos, long allocatedBytes) {
+        out.printf("%n%s%n Решение СЛАУ методом Зейделя:%n", SEPARATOR);
+        out.printf("\tточность: %f%n", precision);
+        printVector(startSol, "\tначальное приближение:");
+        out.printf("\tчисло итераций: %d%n", iterations);
+        printVector(solution, "\tрешение:");
+        if (verbose) {
+            out.printf("\tвремя: %.3f ms, выделено памяти: %d байт%n", nanos / 1e6, allocatedBytes);
+        }
+        out.printf("%s%n", SEPARATOR);
+    }
+
+    private void printVector(RealVector vector, String caption) {
+        out.println(caption);
+        for (int i = 0; i < vector.getDimension(); i++) {
+            out.printf("%.6f ", vector.getEntry(i));
+        }
+        out.println();
+    }
+
+}
@@ -0,0 +1,184 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.exception.NotStrictlyPositiveException;
+import org.apache.commons.math3.exception.NumberIsTooSmallException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * When to stop the Seidel iterations. A policy measures the error of every approximation by one of the {@link Norm}s
+ * and stops with {@link SolverResult.Status#CONVERGED} once it is within the tolerance. Optional limits stop the
+ * iterations earlier:
+ * <ul>
+ * <li>{@link #withMaxIterations(int)} and {@link #withTimeLimit(long, TimeUnit)} bound the work;</li>
+ * <li>{@link #withDivergenceFactor(double)} stops when the error grows that many times above the smallest error
+ * seen; a non-finite error always stops with {@link SolverResult.Status#DIVERGED};</li>
+ * <li>{@link #withStagnationWindow(int)} stops when the smallest error has not decreased for that many sweeps.</li>
+ * </ul>
+ * Policies are immutable and can be shared between concurrent solves.
+ */
+public final class ConvergencePolicy {
+
+    public enum Norm {
+        /**
+         * Inf-norm of the difference between successive approximations.
+         */
+        UPDATE,
+        /**
+         * {@link #UPDATE} divided by the inf-norm of the approximation.
+         */
+        RELATIVE_UPDATE,
+        /**
+         * Inf-norm of the residual {@code f - M x} of the given system.
+         */
+        RESIDUAL
+    }
+
+    static final double DEFAULT_DIVERGENCE_FACTOR = 1e6;
+
+    private final Norm norm;
+    private final double tolerance;
+    private final BlockTridiagonalSystem system;
+    private final int maxIterations;
+    private final long maxNanos;
+    private final double divergenceFactor;
+    private final int stagnationWindow;
+
+    private ConvergencePolicy(Norm norm, double tolerance, BlockTridiagonalSystem system, int maxIterations,
+                              long maxNanos, double divergenceFactor, int stagnationWindow) {
+        this.norm = norm;
+        this.tolerance = tolerance;
+        this.system = system;
+        this.maxIterations = maxIterations;
+        this.maxNanos = maxNanos;
+        this.divergenceFactor = divergenceFactor;
+        this.stagnationWindow = stagnationWindow;
+    }
+
+    /**
+     * The stopping rule of {@code solve(..., precision)}: the update is at most {@code tolerance}, no other limits.
+     */
+    public static ConvergencePolicy updateNorm(double tolerance) {
+        return new ConvergencePolicy(Norm.UPDATE, tolerance, null, Integer.MAX_VALUE, Long.MAX_VALUE,
+                Double.POSITIVE_INFINITY, 0);
+    }
+
+    /**
+     * The stopping rule of {@code solve(..., precision)} of the solvers that may diverge on a system they accept:
+     * {@link #updateNorm(double)} within {@code maxIterations} sweeps and a divergence factor of
+     * {@value #DEFAULT_DIVERGENCE_FACTOR}.
+     */
+    static ConvergencePolicy boundedUpdateNorm(double tolerance, int maxIterations) {
+        return updateNorm(tolerance).withMaxIterations(maxIterations).withDivergenceFactor(DEFAULT_DIVERGENCE_FACTOR);
+    }
+
+    public static ConvergencePolicy relativeUpdateNorm(double tolerance) {
+        return new ConvergencePolicy(Norm.RELATIVE_UPDATE, tolerance, null, Integer.MAX_VALUE, Long.MAX_VALUE,
+                Double.POSITIVE_INFINITY, 0);
+    }
+
+    /**
+     * Residual of {@code system}, which must be the system being solved. Its blocks are read once per sweep. Note that
+     * the Seidel method approximates the Schur blocks by their tridiagonal part, so the residual usually levels off
+     * above zero; combine with {@link #withStagnationWindow(int)}.
+     */
+    public static ConvergencePolicy residualNorm(BlockTridiagonalSystem system, double tolerance) {
+        return new ConvergencePolicy(Norm.RESIDUAL, tolerance, system, Integer.MAX_VALUE, Long.MAX_VALUE,
+                Double.POSITIVE_INFINITY, 0);
+    }
+
+    public ConvergencePolicy withMaxIterations(int maxIterations) {
+        if (maxIterations <= 0) {
+            throw new NotStrictlyPositiveException(maxIterations);
+        }
+        return new ConvergencePolicy(norm, tolerance, system, maxIterations, maxNanos, divergenceFactor, stagnationWindow);
+    }
+
+    public ConvergencePolicy withTimeLimit(long time, TimeUnit unit) {
+        if (time <= 0) {
+            throw new NotStrictlyPositiveException(time);
+        }
+        return new ConvergencePolicy(norm, tolerance, system, maxIterations, unit.toNanos(time), divergenceFactor,
+                stagnationWindow);
+    }
+
+    public ConvergencePolicy withDivergenceFactor(double divergenceFactor) {
+        if (!(divergenceFactor > 1.0)) {
+            throw new NumberIsTooSmallException(divergenceFactor, 1.0, false);
+        }
+        return new ConvergencePolicy(norm, tolerance, system, maxIterations, maxNanos, divergenceFactor, stagnationWindow);
+    }
+
+    public ConvergencePolicy withStagnationWindow(int sweeps) {
+        if (sweeps <= 0) {
+            throw new NotStrictlyPositiveException(sweeps);
+        }
+        return new ConvergencePolicy(norm, tolerance, system, maxIterations, maxNanos, divergenceFactor, sweeps);
+    }
+
+    public Norm getNorm() {
+        return norm;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * System of the {@link Norm#RESIDUAL} norm, {@code null} for the other norms.
+     */
+    public BlockTridiagonalSystem getSystem() {
+        return system;
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    Monitor start() {
+        return new Monitor(System.nanoTime());
+    }
+
+    /**
+     * State of the policy for one solve.
+     */
+    final class Monitor {
+        private final long startTime;
+        private double bestError = Double.POSITIVE_INFINITY;
+        private int bestIteration;
+
+        private Monitor(long startTime) {
+            this.startTime = startTime;
+        }
+
+        /**
+         * @param iteration number of sweeps made, {@code 0} for the start vector
+         * @return why to stop, or {@code null} to go on
+         */
+        SolverResult.Status check(int iteration, double error) {
+            if (Double.isNaN(error) || Double.isInfinite(error)) {
+                return SolverResult.Status.DIVERGED;
+            }
+            if (error <= tolerance) {
+                return SolverResult.Status.CONVERGED;
+            }
+            if (error > divergenceFactor * bestError) {
+                return SolverResult.Status.DIVERGED;
+            }
+            if (error < bestError) {
+                bestError = error;
+                bestIteration = iteration;
+            } else if (stagnationWindow > 0 && iteration - bestIteration >= stagnationWindow) {
+                return SolverResult.Status.STAGNATED;
+            }
+            if (iteration >= maxIterations) {
+                return SolverResult.Status.MAX_ITERATIONS;
+            }
+            if (maxNanos != Long.MAX_VALUE && System.nanoTime() - startTime >= maxNanos) {
+                return SolverResult.Status.TIME_LIMIT;
+            }
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.linear.RealVector;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Writes solver events as CSV rows:
+ * <pre>
+ * event,iteration,diff_norm,nanos,allocated_bytes
+ * factorization,,,1843200,524312
+ * sweep,1,2.718,95100,
+ * solve,12,,1201000,0
+ * </pre>
+ * Empty cells mean the value does not apply, {@code -1} in {@code allocated_bytes} means it could not be measured.
+ */
+public class CsvSolverListener implements SolverListener, Flushable {
+
+    public static final String HEADER = "event,iteration,diff_norm,nanos,allocated_bytes";
+
+    private final PrintWriter out;
+
+    public CsvSolverListener(Writer writer) {
+        this.out = writer instanceof PrintWriter ? (PrintWriter) writer : new PrintWriter(writer);
+        out.println(HEADER);
+    }
+
+    @Override
+    public void factorizationFinished(int equationsCount, int blockDim, long nanos, long allocatedBytes) {
+        out.append("factorization,,,").append(Long.toString(nanos)).append(',').println(allocatedBytes);
+    }
+
+    @Override
+    public void sweepFinished(int iteration, double diffNorm, long nanos) {
+        out.append("sweep,").append(Integer.toString(iteration)).append(',').append(Double.toString(diffNorm))
+                .append(',').append(Long.toString(nanos)).println(',');
+    }
+
+    @Override
+    public void solveFinished(RealVector solution, int iterations, long nanos, long allocatedBytes) {
+        out.append("solve,").append(Integer.toString(iterations)).append(",,").append(Long.toString(nanos))
+                .append(',').println(allocatedBytes);
+        flush();
+    }
+
+    @Override
+    public void flush() {
+        out.flush();
+        if (out.checkError()) {
+            throw new UncheckedIOException(new IOException("Failed to write solver metrics"));
+        }
+    }
+
+}
@@ -0,0 +1,61 @@
+package ru.bmstu.iu9.numan;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+/**
+ * Explicit release of direct and mapped buffers, which otherwise keep their memory until they are garbage
+ * collected. Uses {@code sun.misc.Unsafe.invokeCleaner} on Java 9+ and the buffer's {@code cleaner()} on Java 8,
+ * both through reflection; if neither is accessible the buffer is left to the garbage collector.
+ */
+final class DirectBuffers {
+
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafe = theUnsafe.get(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Java 8: invokeCleaner нет
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private DirectBuffers() {
+    }
+
+    /**
+     * Releases the memory of {@code buffer}. It must be the buffer returned by {@code allocateDirect} or
+     * {@code map}, not a view, and neither it nor any of its views may be accessed afterwards.
+     */
+    static void free(ByteBuffer buffer) {
+        if (!buffer.isDirect())
+            return;
+
+        try {
+            if (INVOKE_CLEANER != null) {
+                INVOKE_CLEANER.invoke(UNSAFE, buffer);
+            } else {
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // освободит сборщик мусора
+        }
+    }
+
+}
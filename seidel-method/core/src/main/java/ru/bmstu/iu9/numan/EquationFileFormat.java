@@ -0,0 +1,75 @@
+package ru.bmstu.iu9.numan;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Supported equation file formats.
+ */
+public enum EquationFileFormat {
+
+    /**
+     * Human-readable format written by {@link LinearBlockTridiagonalEquation#save(File)} and read by
+     * {@link MatrixParser}. Elements are rounded to three decimal places.
+     */
+    TEXT(".txt") {
+        @Override
+        public LinearBlockTridiagonalEquation load(File file) throws IOException {
+            return new MatrixParser().parse(file);
+        }
+
+        @Override
+        public void save(LinearBlockTridiagonalEquation eq, File file) throws IOException {
+            eq.save(file);
+        }
+    },
+
+    /**
+     * Versioned binary format with raw little-endian doubles, read and written through memory-mapped files.
+     * Lossless.
+     */
+    BINARY(".bin") {
+        @Override
+        public LinearBlockTridiagonalEquation load(File file) throws IOException {
+            return BinaryEquationFormat.read(file);
+        }
+
+        @Override
+        public void save(LinearBlockTridiagonalEquation eq, File file) throws IOException {
+            BinaryEquationFormat.write(eq, file);
+        }
+    };
+
+    private final String extension;
+
+    EquationFileFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public abstract LinearBlockTridiagonalEquation load(File file) throws IOException;
+
+    public abstract void save(LinearBlockTridiagonalEquation eq, File file) throws IOException;
+
+    /**
+     * Format of an existing file, detected by its content.
+     */
+    public static EquationFileFormat detect(File file) throws IOException {
+        return BinaryEquationFormat.isBinary(file) ? BINARY : TEXT;
+    }
+
+    /**
+     * Format of a file to be written, chosen by its extension.
+     */
+    public static EquationFileFormat forFileName(String fileName) {
+        return fileName.endsWith(BINARY.extension) ? BINARY : TEXT;
+    }
+
+    public static LinearBlockTridiagonalEquation loadEquation(File file) throws IOException {
+        return detect(file).load(file);
+    }
+
+}
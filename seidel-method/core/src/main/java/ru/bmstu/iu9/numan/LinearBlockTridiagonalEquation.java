@@ -1,5 +1,7 @@
 package ru.bmstu.iu9.numan;
 
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.OutOfRangeException;
 import org.apache.commons.math3.linear.MatrixUtils;
 import org.apache.commons.math3.linear.OpenMapRealMatrix;
 import org.apache.commons.math3.linear.RealMatrix;
@@ -11,154 +13,214 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.Arrays;
 
-public class LinearBlockTridiagonalEquation {
+/**
+ * Block tridiagonal system {@code -A(k) x(k-1) + B(k) x(k) - C(k) x(k+1) = f(k)}.
+ * <p>
+ * All blocks are square and of the same dimension {@code m}. They are packed row by row into a single
+ * {@code double[]}: block {@code (k, l)} starts at {@code (3 * k + l) * m * m} and is stored row-major.
+ * Right-hand side vectors are packed the same way with stride {@code m}. {@link #A(int)}, {@link #B(int)},
+ * {@link #C(int)} and {@link #f(int)} return views that read and write the packed arrays directly.
+ */
+public class LinearBlockTridiagonalEquation implements BlockTridiagonalSystem {
 
-    private RealMatrix[][] lhs;
+    static final int LINE_BLOCKS_COUNT = 3;
 
-    public void setRhs(RealVector[] rhs) {
-        this.rhs = rhs;
-    }
-
-    private RealVector[] rhs;
+    private final int noOfEquations;
+    private int blockDim;
+    private double[] lhsData;
+    private double[] rhsData;
 
     public LinearBlockTridiagonalEquation(int noOfEquations) {
-        this.lhs = new RealMatrix[noOfEquations][3];
-        this.rhs = new RealVector[noOfEquations];
+        this.noOfEquations = noOfEquations;
+    }
+
+    public LinearBlockTridiagonalEquation(int noOfEquations, int blockDim) {
+        this(noOfEquations);
+        allocate(blockDim);
     }
 
     public RealMatrix[][] lhs() {
+        RealMatrix[][] lhs = new RealMatrix[noOfEquations][LINE_BLOCKS_COUNT];
+        if (lhsData != null) {
+            for (int k = 0; k < noOfEquations; k++) {
+                for (int l = 0; l < LINE_BLOCKS_COUNT; l++) {
+                    lhs[k][l] = block(k, l);
+                }
+            }
+        }
         return lhs;
     }
 
     public RealVector[] rhs() {
+        RealVector[] rhs = new RealVector[noOfEquations];
+        if (rhsData != null) {
+            for (int k = 0; k < noOfEquations; k++) {
+                rhs[k] = f(k);
+            }
+        }
         return rhs;
     }
 
     public void setLhs(RealMatrix[][] lhs) {
-        this.lhs = lhs;
+        if (lhs.length != noOfEquations) {
+            throw new DimensionMismatchException(lhs.length, noOfEquations);
+        }
+
+        for (int k = 0; k < noOfEquations; k++) {
+            for (int l = 0; l < LINE_BLOCKS_COUNT; l++) {
+                setLhsMatrix(k, l, lhs[k][l]);
+            }
+        }
+    }
+
+    public void setRhs(RealVector[] rhs) {
+        if (rhs.length != noOfEquations) {
+            throw new DimensionMismatchException(rhs.length, noOfEquations);
+        }
+
+        for (int k = 0; k < noOfEquations; k++) {
+            setRhsVector(k, rhs[k]);
+        }
     }
 
     public void setLhsMatrix(int k, int l, RealMatrix matrix) {
-        lhs[k][l] = matrix;
+        allocate(matrix.getRowDimension());
+        block(k, l).setFrom(matrix);
     }
 
     public void setLhsMatrix(int k, int l, int noOfRows, int noOfCols, double repeatedElement) {
-        double[][] matrixData = new double[noOfRows][noOfCols];
-        for (int i = 0; i < noOfRows; i++) {
-            for (int j = 0; j < noOfCols; j++) {
-                matrixData[i][j] = repeatedElement;
-            }
+        if (noOfRows != noOfCols) {
+            throw new DimensionMismatchException(noOfCols, noOfRows);
         }
-        lhs[k][l] = MatrixUtils.createRealMatrix(matrixData);
+
+        allocate(noOfRows);
+        int offset = blockOffset(k, l);
+        Arrays.fill(lhsData, offset, offset + blockDim * blockDim, repeatedElement);
     }
 
     public void setRhsVector(int k, RealVector vector) {
-        rhs[k] = vector;
+        allocate(vector.getDimension());
+        rhsView(k).setFrom(vector);
     }
 
     public void setRhsVector(int k, int size, double repeatedElement) {
-        double[] vecData = new double[size];
-        Arrays.fill(vecData, repeatedElement);
-        rhs[k] = MatrixUtils.createRealVector(vecData);
+        allocate(size);
+        int offset = rhsOffset(k);
+        Arrays.fill(rhsData, offset, offset + blockDim, repeatedElement);
     }
 
     public RealMatrix A(int k) {
-        return lhs[k][0];
+        return block(k, 0);
     }
 
-
     public RealMatrix B(int k) {
-        return lhs[k][1];
+        return block(k, 1);
     }
 
     public RealMatrix C(int k) {
-        return lhs[k][2];
+        return block(k, 2);
     }
 
     public RealVector f(int k) {
-        return rhs[k];
+        return rhsView(k);
     }
 
+    @Override
     public int getEquationsCount() {
-        return lhs.length;
+        return noOfEquations;
     }
 
+    @Override
     public int getBlockDim() {
-        return rhs[0].getDimension();
+        return blockDim;
     }
 
-    public LinearBlockTridiagonalEquation add(LinearBlockTridiagonalEquation eq) {
-        LinearBlockTridiagonalEquation res = new LinearBlockTridiagonalEquation(getEquationsCount());
+    @Override
+    public void copyBlock(int k, int l, double[] dest, int off) {
+        System.arraycopy(lhsData(), blockOffset(k, l), dest, off, blockDim * blockDim);
+    }
 
-        for (int k = 0; k < getEquationsCount(); k++) {
-            for (int i = 0; i < 3; i++) {
-                res.setLhsMatrix(k, i, this.lhs()[k][i].add(eq.lhs()[k][i]));
-            }
-            res.setRhsVector(k, this.rhs()[k].add(eq.rhs()[k]));
-        }
+    @Override
+    public void copyRhs(int k, double[] dest, int off) {
+        System.arraycopy(rhsData(), rhsOffset(k), dest, off, blockDim);
+    }
 
-        return res;
+    double[] lhsData() {
+        checkAllocated();
+        return lhsData;
     }
 
-    public RealVector rhsAsVector() {
-        int dim = 0, vecsCount = getEquationsCount();
-        for (int i = 0; i < vecsCount; i++) {
-            dim += rhs()[i].getDimension();
+    double[] rhsData() {
+        checkAllocated();
+        return rhsData;
+    }
+
+    int blockOffset(int k, int l) {
+        return (k * LINE_BLOCKS_COUNT + l) * blockDim * blockDim;
+    }
+
+    int rhsOffset(int k) {
+        return k * blockDim;
+    }
+
+    public LinearBlockTridiagonalEquation add(LinearBlockTridiagonalEquation eq) {
+        if (eq.getEquationsCount() != getEquationsCount()) {
+            throw new DimensionMismatchException(eq.getEquationsCount(), getEquationsCount());
+        }
+        if (eq.getBlockDim() != getBlockDim()) {
+            throw new DimensionMismatchException(eq.getBlockDim(), getBlockDim());
         }
 
-        double[] vecData = new double[dim];
+        LinearBlockTridiagonalEquation res = new LinearBlockTridiagonalEquation(getEquationsCount(), getBlockDim());
+        double[] lhsA = lhsData(), lhsB = eq.lhsData(), lhsRes = res.lhsData;
+        double[] rhsA = rhsData(), rhsB = eq.rhsData(), rhsRes = res.rhsData;
 
-        for (int i = 0; i < vecsCount; i++) {
-            dim = rhs()[i].getDimension();
-            for (int j = 0; j < dim; j++) {
-                vecData[i * dim + j] = rhs()[i].getEntry(j);
-            }
+        for (int i = 0; i < lhsRes.length; i++) {
+            lhsRes[i] = lhsA[i] + lhsB[i];
+        }
+        for (int i = 0; i < rhsRes.length; i++) {
+            rhsRes[i] = rhsA[i] + rhsB[i];
         }
 
-        return MatrixUtils.createRealVector(vecData);
+        return res;
     }
 
-    public RealMatrix lhsAsRealMatrix() {
-        RealMatrix[][] lhs = lhs();
-        int rowsCount = getEquationsCount();
-        int blockMatrixColDim = 0, blockMatrixRowDim = 0;
-        int[] maxRowRowDims = new int[rowsCount], maxRowColDims = new int[rowsCount];
-
-        for (int l = 0; l < rowsCount; l++) {
-            maxRowRowDims[l] = 0;
-            maxRowColDims[l] = 0;
-
-            for (int k = 0; k < 3; k++) {
-                if (lhs[l][k].getRowDimension() > maxRowRowDims[l])
-                    maxRowRowDims[l] = lhs[l][k].getRowDimension();
-                if (lhs[l][k].getColumnDimension() > maxRowColDims[l])
-                    maxRowColDims[l] = lhs[l][k].getRowDimension();
-            }
-
-            blockMatrixRowDim += maxRowRowDims[l];
-            blockMatrixColDim += maxRowColDims[l];
-        }
+    @Override
+    public RealVector rhsAsVector() {
+        return MatrixUtils.createRealVector(rhsData().clone());
+    }
 
-        int i = 0;
-        RealMatrix realMatrix = new OpenMapRealMatrix(blockMatrixRowDim, blockMatrixColDim);
-        for (int l = 0; l < rowsCount; l++) {
-            if(l > 0)
-                realMatrix.setSubMatrix(lhs[l][0].scalarMultiply(-1).getData(), i, i - maxRowColDims[0]);
+    public RealMatrix lhsAsRealMatrix() {
+        double[] lhs = lhsData();
+        int m = blockDim, n = noOfEquations * m;
+        RealMatrix realMatrix = new OpenMapRealMatrix(n, n);
 
-            realMatrix.setSubMatrix(lhs[l][1].getData(), i, i + maxRowColDims[0] - maxRowColDims[1]);
+        for (int k = 0; k < noOfEquations; k++) {
+            int row = k * m;
+            if (k > 0)
+                copyBlockInto(realMatrix, lhs, blockOffset(k, 0), row, row - m, -1.0);
 
-            if(l < rowsCount - 1)
-                realMatrix.setSubMatrix(lhs[l][2].scalarMultiply(-1).getData(), i, i + maxRowColDims[0] + maxRowColDims[1] - maxRowColDims[1]);
+            copyBlockInto(realMatrix, lhs, blockOffset(k, 1), row, row, 1.0);
 
-            i += maxRowRowDims[l];
+            if (k < noOfEquations - 1)
+                copyBlockInto(realMatrix, lhs, blockOffset(k, 2), row, row + m, -1.0);
         }
 
         return realMatrix;
     }
 
+    /**
+     * Same matrix as {@link #lhsAsRealMatrix()}, but backed by the blocks of this equation instead of a copy.
+     */
+    public BlockTridiagonalMatrix lhsAsMatrixView() {
+        return new BlockTridiagonalMatrix(this);
+    }
+
     public void save(File file) throws IOException {
         FileOutputStream fos = new FileOutputStream(file);
         PrintWriter writer = new PrintWriter(fos);
+        double[] lhs = lhsData(), rhs = rhsData();
+        int m = blockDim;
 
         String[] symbols;
 
@@ -180,7 +242,7 @@ public class LinearBlockTridiagonalEquation {
             if(i == 0) {
                 symbols = new String[]{"B", "C"};
                 offset = 1;
-            } else if(i == getEquationsCount()) {
+            } else if(i == getEquationsCount() - 1) {
                 symbols = new String[]{"A", "B"};
                 offset = 0;
             } else {
@@ -190,10 +252,11 @@ public class LinearBlockTridiagonalEquation {
 
             for (int k = 0; k < symbols.length; k++) {
                 String symbol = symbols[k];
+                int blockOffset = blockOffset(i, k + offset);
                 writer.printf("%s%d:%n", symbol, i + 1);
-                for (int j = 0; j < lhs()[i][k].getColumnDimension(); j++) {
-                    for (int l = 0; l < lhs()[i][k].getRowDimension(); l++) {
-                        writer.printf("%.3f ", lhs()[i][k + offset].getEntry(j, l));
+                for (int j = 0; j < m; j++) {
+                    for (int l = 0; l < m; l++) {
+                        writer.printf("%.3f ", lhs[blockOffset + j * m + l]);
                     }
                     writer.println();
                 }
@@ -201,8 +264,8 @@ public class LinearBlockTridiagonalEquation {
             }
 
             writer.printf("f%d:%n", i + 1);
-            for (int j = 0; j < rhs()[i].getDimension(); j++) {
-                writer.printf("%.3f ", rhs()[i].getEntry(j));
+            for (int j = 0; j < m; j++) {
+                writer.printf("%.3f ", rhs[rhsOffset(i) + j]);
             }
             writer.println("\n");
         }
@@ -211,6 +274,54 @@ public class LinearBlockTridiagonalEquation {
         fos.close();
     }
 
+    private BlockMatrixView block(int k, int l) {
+        checkAllocated();
+        return new BlockMatrixView(lhsData, blockOffset(k, l), blockDim);
+    }
+
+    private BlockVectorView rhsView(int k) {
+        checkAllocated();
+        return new BlockVectorView(rhsData, rhsOffset(k), blockDim);
+    }
+
+    private void allocate(int dim) {
+        if (lhsData == null) {
+            blockDim = dim;
+            lhsData = new double[noOfEquations * LINE_BLOCKS_COUNT * dim * dim];
+            rhsData = new double[noOfEquations * dim];
+        } else if (dim != blockDim) {
+            throw new DimensionMismatchException(dim, blockDim);
+        }
+    }
+
+    /**
+     * @throws OutOfRangeException unless {@code (k, l)} is a block of a system of {@code noOfEquations} block rows
+     */
+    static void checkBlockIndex(int noOfEquations, int k, int l) {
+        if (k < 0 || k >= noOfEquations) {
+            throw new OutOfRangeException(k, 0, noOfEquations - 1);
+        }
+        if (l < 0 || l >= LINE_BLOCKS_COUNT) {
+            throw new OutOfRangeException(l, 0, LINE_BLOCKS_COUNT - 1);
+        }
+    }
+
+    private void checkAllocated() {
+        if (lhsData == null) {
+            throw new IllegalStateException("Block dimension is unknown - no block was set yet");
+        }
+    }
+
+    private void copyBlockInto(RealMatrix dest, double[] src, int offset, int row, int col, double factor) {
+        for (int i = 0; i < blockDim; i++) {
+            for (int j = 0; j < blockDim; j++) {
+                double val = src[offset + i * blockDim + j];
+                if (val != 0.0)
+                    dest.setEntry(row + i, col + j, factor * val);
+            }
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -218,15 +329,18 @@ public class LinearBlockTridiagonalEquation {
 
         LinearBlockTridiagonalEquation that = (LinearBlockTridiagonalEquation) o;
 
-        if (!Arrays.deepEquals(lhs, that.lhs)) return false;
-        // Probably incorrect - comparing Object[] arrays with Arrays.equals
-        return Arrays.equals(rhs, that.rhs);
+        if (noOfEquations != that.noOfEquations) return false;
+        if (blockDim != that.blockDim) return false;
+        if (!Arrays.equals(lhsData, that.lhsData)) return false;
+        return Arrays.equals(rhsData, that.rhsData);
     }
 
     @Override
     public int hashCode() {
-        int result = Arrays.deepHashCode(lhs);
-        result = 31 * result + Arrays.hashCode(rhs);
+        int result = noOfEquations;
+        result = 31 * result + blockDim;
+        result = 31 * result + Arrays.hashCode(lhsData);
+        result = 31 * result + Arrays.hashCode(rhsData);
         return result;
     }
 
@@ -0,0 +1,112 @@
+package ru.bmstu.iu9.numan;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read-only view of a binary equation file ({@link EquationFileFormat#BINARY}) mapped into memory instead of loaded,
+ * for systems larger than RAM.
+ * <p>
+ * {@link SeidelAlgorithm#solveWithSeidelMethod(BlockTridiagonalSystem, org.apache.commons.math3.linear.RealVector,
+ * double, SolverListener)} solves it out of core: the {@link SeidelFactorization.Mode#IMPLICIT} factorization takes
+ * {@code 6 l m} doubles of the heap, and every sweep reads {@code A(k)} and {@code C(k)} from the file one block row
+ * after another, forward and then backward, so the page cache only needs a window of rows and the operating
+ * system's read-ahead follows the sweeps.
+ * <p>
+ * The file is mapped in pieces of at most 1 GB made of whole block rows. {@link #close} unmaps it once the accesses
+ * in flight have finished, after which every access throws {@link IllegalStateException}. The file must not change
+ * while it is mapped.
+ */
+public final class MappedEquation implements BlockTridiagonalSystem, AutoCloseable {
+
+    private final File file;
+    private final int noOfEquations;
+    private final int blockDim;
+    private final RowChunks lhs;
+    private final RowChunks rhs;
+
+    private MappedEquation(File file, long maxChunkBytes) throws IOException {
+        this.file = file;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            int[] dims = BinaryEquationFormat.readHeader(channel, file);
+            this.noOfEquations = dims[0];
+            this.blockDim = dims[1];
+
+            long lhsRowLength = (long) LinearBlockTridiagonalEquation.LINE_BLOCKS_COUNT * blockDim * blockDim;
+            if (8 * lhsRowLength > Integer.MAX_VALUE)
+                throw new IOException("Block row is too large to be mapped: " + file);
+
+            String name = "Mapped equation " + file;
+            long rhsStart = BinaryEquationFormat.HEADER_SIZE + 8 * lhsRowLength * noOfEquations;
+            this.lhs = new RowChunks(name, noOfEquations, (int) lhsRowLength, maxChunkBytes,
+                    (position, size) -> map(channel, BinaryEquationFormat.HEADER_SIZE + position, size));
+            try {
+                this.rhs = new RowChunks(name, noOfEquations, blockDim, maxChunkBytes,
+                        (position, size) -> map(channel, rhsStart + position, size));
+            } catch (IOException | RuntimeException | Error e) {
+                lhs.close();
+                throw e;
+            }
+        }
+    }
+
+    public static MappedEquation open(File file) throws IOException {
+        return open(file, BinaryEquationFormat.MAX_CHUNK_BYTES);
+    }
+
+    static MappedEquation open(File file, long maxChunkBytes) throws IOException {
+        return new MappedEquation(file, maxChunkBytes);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public int getEquationsCount() {
+        return noOfEquations;
+    }
+
+    @Override
+    public int getBlockDim() {
+        return blockDim;
+    }
+
+    @Override
+    public void copyBlock(int k, int l, double[] dest, int off) {
+        checkBlock(k, l);
+        lhs.get(k, l * blockDim * blockDim, dest, off, blockDim * blockDim);
+    }
+
+    @Override
+    public void copyRhs(int k, double[] dest, int off) {
+        checkBlock(k, 0);
+        rhs.get(k, 0, dest, off, blockDim);
+    }
+
+    public boolean isClosed() {
+        return lhs.isClosed();
+    }
+
+    /**
+     * Unmaps the file once the accesses in flight have finished. Closing a closed equation does nothing.
+     */
+    @Override
+    public void close() {
+        lhs.close();
+        rhs.close();
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, int size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private void checkBlock(int k, int l) {
+        LinearBlockTridiagonalEquation.checkBlockIndex(noOfEquations, k, l);
+    }
+
+}
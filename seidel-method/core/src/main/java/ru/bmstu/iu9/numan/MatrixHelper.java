@@ -7,7 +7,6 @@ import org.apache.commons.math3.linear.RealVector;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static java.lang.Math.abs;
@@ -40,25 +39,7 @@ public class MatrixHelper {
         return vecs;
     }
 
-    static RealVector joinVectors(RealVector[] vectors) {
-        int dim = 0, vecsCount = vectors.length;
-        for (RealVector vector : vectors) {
-            dim += vector.getDimension();
-        }
-
-        RealVector vec = new ArrayRealVector(dim);
-
-        for (int i = 0; i < vecsCount; i++) {
-            dim = vectors[i].getDimension();
-            for (int j = 0; j < dim; j++) {
-                vec.setEntry(i * dim + j, vectors[i].getEntry(j));
-            }
-        }
-
-        return vec;
-    }
-
-    static RealMatrix toTridiagonal(RealMatrix matrix) {
+    public static RealMatrix toTridiagonal(RealMatrix matrix) {
         RealMatrix newMatrix = MatrixUtils.createRealMatrix(matrix.getRowDimension(), matrix.getColumnDimension());
         int n = matrix.getRowDimension();
 
@@ -96,48 +77,24 @@ public class MatrixHelper {
         System.out.println();
     }
 
-    static RealMatrix inverseOfTridiagonal(final RealMatrix matrix) {
-        final int n = matrix.getRowDimension(), m = matrix.getColumnDimension();
-        Function<Integer, Double> a = (k) -> k > 0 ? matrix.getEntry(k, k - 1) : 0.0;
-        Function<Integer, Double> b = (k) -> matrix.getEntry(k, k);
-        Function<Integer, Double> c = (k) -> k < n - 1 ? matrix.getEntry(k, k + 1) : 0.0;
-
-
-        RealVector alphaVec = MatrixUtils.createRealVector(new double[n]);
-        RealVector betaVec = MatrixUtils.createRealVector(new double[n]);
-        RealMatrix retMatrix = MatrixUtils.createRealMatrix(n, m);
+    public static RealMatrix inverseOfTridiagonal(final RealMatrix matrix) {
+        final int n = matrix.getRowDimension();
+        double[] lower = new double[n], diag = new double[n], upper = new double[n];
+        double[] alpha = new double[n], beta = new double[n], inverse = new double[n * n];
 
-        alphaVec.setEntry(0, -c.apply(0) / b.apply(0));
-        betaVec.setEntry(n - 1, -a.apply(n - 1) / b.apply(n - 1));
-
-        for (int i = 1; i < n; i++) {
-            alphaVec.setEntry(i, -c.apply(i) / (b.apply(i) + a.apply(i) * alphaVec.getEntry(i - 1)));
-        }
-
-        for (int i = n - 2; i >= 0; i--) {
-            betaVec.setEntry(i, -a.apply(i) / (b.apply(i) + c.apply(i) * betaVec.getEntry(i + 1)));
+        for (int i = 0; i < n; i++) {
+            diag[i] = matrix.getEntry(i, i);
+            lower[i] = i > 0 ? matrix.getEntry(i, i - 1) : 0.0;
+            upper[i] = i < n - 1 ? matrix.getEntry(i, i + 1) : 0.0;
         }
 
-        for (int l = 0; l < m; l++) {
-            double alphaPrev = l > 0 ? alphaVec.getEntry(l - 1) : 0.0;
-            double betaNext = l < m - 1 ? betaVec.getEntry(l + 1) : 0.0;
-
-            retMatrix.setEntry(
-                    l,
-                    l,
-                    (1.0 / (b.apply(l) + alphaPrev * a.apply(l) + c.apply(l) * betaNext))
-            );
+        BlockKernels.inverseOfTridiagonal(lower, diag, upper, n, alpha, beta, inverse, 0);
 
-            for (int k = l - 1; k >= 0; k--) {
-                retMatrix.setEntry(k, l, alphaVec.getEntry(k) * retMatrix.getEntry(k + 1, l));
-            }
-
-            for (int k = l + 1; k < n; k++) {
-                retMatrix.setEntry(k, l, betaVec.getEntry(k) * retMatrix.getEntry(k - 1, l));
-            }
+        double[][] data = new double[n][];
+        for (int i = 0; i < n; i++) {
+            data[i] = Arrays.copyOfRange(inverse, i * n, (i + 1) * n);
         }
-
-        return retMatrix;
+        return MatrixUtils.createRealMatrix(data);
     }
 
 }
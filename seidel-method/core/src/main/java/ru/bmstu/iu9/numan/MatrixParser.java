@@ -1,15 +1,10 @@
 package ru.bmstu.iu9.numan;
 
-import org.apache.commons.math3.linear.ArrayRealVector;
-import org.apache.commons.math3.linear.MatrixUtils;
-import org.apache.commons.math3.linear.RealMatrix;
-import org.apache.commons.math3.linear.RealVector;
-
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class MatrixParser {
 
@@ -17,204 +12,213 @@ public class MatrixParser {
     private Map<ElemPos, Double> repeatedElementsPositions = new LinkedHashMap<>();
     private int noOfEquations = 0;
 
+    private LinearBlockTridiagonalEquation equation;
+    private double[] rowBuf = new double[16];
+    private double[] blockBuf = new double[0];
 
-    public LinearBlockTridiagonalEquation parse(File file) throws FileNotFoundException {
-        Scanner fileScanner = new Scanner(file);
-
-        // read block blockMatrix
-        readEquations(fileScanner);
-        LinearBlockTridiagonalEquation equation = new LinearBlockTridiagonalEquation(noOfEquations);
 
-        while(fileScanner.hasNextLine()) {
-            boolean elemWillBeSkipped = false;
-            Optional<String> markOpt = readMark(fileScanner);
-            if(!markOpt.isPresent()) {
-                if(!fileScanner.hasNextLine())
-                    break;
-                else {
-                    System.out.printf("[error] unknown token - mark expected%n");
-                    fileScanner.nextLine();
-                    continue;
-                }
-            }
+    public LinearBlockTridiagonalEquation parse(File file) throws IOException {
+        return parse(new FileInputStream(file));
+    }
 
-            String mark = markOpt.get();
-            if(!blockPosMap.containsKey(mark)) {
-                elemWillBeSkipped = true;
-                System.out.printf("[warn] element with name '%s' never used. skipping it %n", markOpt.get());
-            }
+    public LinearBlockTridiagonalEquation parse(InputStream in) throws IOException {
+        blockPosMap.clear();
+        repeatedElementsPositions.clear();
+        equation = null;
 
-            ElemPos pos = blockPosMap.get(mark);
+        try (MatrixTokenizer tokenizer = new MatrixTokenizer(in)) {
+            // read block matrix
+            readEquations(tokenizer);
 
-            if(mark.matches("[A-Z][a-z0-9_^$]*")) {
-                Optional<RealMatrix> matrixOpt = readMatrix(fileScanner);
-                if(!matrixOpt.isPresent()) {
-                    System.out.printf("[error] failed to parse matrix '%s' - skipping it.%n", mark);
-                    if(fileScanner.hasNextLine())
-                        fileScanner.nextLine();
+            while (tokenizer.skipBlankLines()) {
+                String mark = readMark(tokenizer);
+                if (mark == null) {
+                    System.out.printf("[error] unknown token - mark expected%n");
+                    tokenizer.nextLine();
                     continue;
                 }
-                if(!elemWillBeSkipped) {
-                    equation.setLhsMatrix(pos.row, pos.col, matrixOpt.get());
+
+                ElemPos pos = blockPosMap.get(mark);
+                if (pos == null) {
+                    System.out.printf("[warn] element with name '%s' never used. skipping it %n", mark);
                 }
-            } else {
-                Optional<RealVector> rhsVecOpt = readVector(fileScanner);
-                if(!rhsVecOpt.isPresent()) {
+
+                if (isMatrixLabel(mark)) {
+                    if (!readMatrix(tokenizer, pos)) {
+                        System.out.printf("[error] failed to parse matrix '%s' - skipping it.%n", mark);
+                    }
+                } else if (!readVector(tokenizer, pos)) {
                     System.out.printf("[error] failed to parse rhs vector '%s' - skipping it.%n", mark);
-                    if(fileScanner.hasNextLine())
-                        fileScanner.nextLine();
-                    continue;
-                }
-                if(!elemWillBeSkipped) {
-                    equation.setRhsVector(pos.row, rhsVecOpt.get());
                 }
             }
         }
 
-        fillSingleElementBlocks(equation);
-        fillEmptyElements(equation);
+        if (equation == null) {
+            throw new RuntimeException("Parse error - no blocks provided");
+        }
+
+        fillSingleElementBlocks();
 
         return equation;
     }
 
-    private void fillSingleElementBlocks(LinearBlockTridiagonalEquation equation) {
-        for(Map.Entry<ElemPos, Double> entry : repeatedElementsPositions.entrySet()) {
+    private void fillSingleElementBlocks() {
+        for (Map.Entry<ElemPos, Double> entry : repeatedElementsPositions.entrySet()) {
             ElemPos pos = entry.getKey();
             double val = entry.getValue();
 
-            RealMatrix matrix = pos.col == 0 ? equation.lhs()[pos.row][pos.col + 1] : equation.lhs()[pos.row][pos.col - 1];
-            if(matrix == null)
-                continue;
-
-            int rowsDim = matrix.getRowDimension();
-            if(pos.col < 3) {
-                int colsDim = (pos.row == 0 ? equation.lhs()[pos.row + 1][pos.col] : equation.lhs()[pos.row - 1][pos.col]).getColumnDimension();
-                equation.setLhsMatrix(pos.row, pos.col, rowsDim, colsDim, val);
+            int m = equation.getBlockDim();
+            if (pos.col < LinearBlockTridiagonalEquation.LINE_BLOCKS_COUNT) {
+                equation.setLhsMatrix(pos.row, pos.col, m, m, val);
             } else {
-                equation.setRhsVector(pos.row, rowsDim, val);
+                equation.setRhsVector(pos.row, m, val);
             }
         }
     }
 
-    private void fillEmptyElements(LinearBlockTridiagonalEquation equation) {
-        for (int i = 0; i < equation.getEquationsCount(); i++) {
-            for (int j = 0; j < 3; j++) {
-                if(equation.lhs()[i][j] == null) {
-                    ElemPos pos = new ElemPos(i, j);
-                    int rowsDim = (pos.col == 0 ? equation.lhs()[pos.row][pos.col + 1] : equation.lhs()[pos.row][pos.col - 1]).getRowDimension();
-                    int colsDim = (pos.row == 0 ? equation.lhs()[pos.row + 1][pos.col] : equation.lhs()[pos.row - 1][pos.col]).getColumnDimension();
-                    equation.setLhsMatrix(pos.row, pos.col, rowsDim, colsDim, 0);
-                }
-            }
+    /**
+     * Reads the single row of a right-hand side vector into the equation, or drops it if {@code pos} is
+     * {@code null}.
+     */
+    private boolean readVector(MatrixTokenizer tokenizer, ElemPos pos) throws IOException {
+        if (!tokenizer.skipBlankLines())
+            return false;
+
+        int size = readRow(tokenizer);
+        tokenizer.nextLine();
+        if (!ensureAllocated(size))
+            return false;
+
+        if (pos != null) {
+            System.arraycopy(rowBuf, 0, equation.rhsData(), equation.rhsOffset(pos.row), size);
         }
+        return true;
     }
 
-    private Optional<RealVector> readVector(Scanner fileScanner) {
-        Optional<String> lineOpt = skipEmptyLines(fileScanner);
-        if(!lineOpt.isPresent())
-            return Optional.empty();
-
-        String[] strElements = lineOpt.get().split("\\s+");
-        RealVector vector = new ArrayRealVector(strElements.length);
+    /**
+     * Reads the rows of a square block up to the next blank line. The first row defines the block dimension.
+     */
+    private boolean readMatrix(MatrixTokenizer tokenizer, ElemPos pos) throws IOException {
+        if (!tokenizer.skipBlankLines())
+            return false;
+
+        int colDim = readRow(tokenizer), row = 0;
+        boolean valid = ensureAllocated(colDim);
+        if (blockBuf.length < colDim * colDim)
+            blockBuf = new double[colDim * colDim];
+        Arrays.fill(blockBuf, 0, colDim * colDim, 0.0);
+
+        do {
+            int size = row == 0 ? colDim : readRow(tokenizer);
+            if (row >= colDim) {
+                valid = false;
+            } else {
+                System.arraycopy(rowBuf, 0, blockBuf, row * colDim, Math.min(size, colDim));
+            }
+            row++;
+        } while (tokenizer.nextLine() && tokenizer.skipSpaces());
 
-        for (int i = 0; i < strElements.length; i++) {
-            vector.setEntry(i, Double.valueOf(strElements[i]));
+        if (valid && pos != null) {
+            System.arraycopy(blockBuf, 0, equation.lhsData(), equation.blockOffset(pos.row, pos.col), colDim * colDim);
         }
-
-        return Optional.of(vector);
+        return valid;
     }
 
-    private Optional<RealMatrix> readMatrix(Scanner fileScanner) {
-        Optional<String> lineOpt = skipEmptyLines(fileScanner);
-
-        if(!lineOpt.isPresent())
-            return Optional.empty();
-
-        String line = lineOpt.get();
-        String[] rowElements = line.split("\\s+");
-        int colDim = rowElements.length;
-        int row = 0;
-        RealMatrix matrix = MatrixUtils.createRealMatrix(colDim, colDim);
-
-        while(fileScanner.hasNextLine() && !line.isEmpty()) {
-
-            for (int col = 0; col < colDim; col++) {
-                String elem = rowElements[col];
-                if(!elem.matches("[-+]?[0-9]*\\.?[0-9]+")) {
-                    continue;
+    /**
+     * Parses the numbers of the current line into {@link #rowBuf}. Elements that are not numbers are read as zeros.
+     *
+     * @return number of elements in the row
+     */
+    private int readRow(MatrixTokenizer tokenizer) throws IOException {
+        int count = 0;
+
+        while (tokenizer.skipSpaces()) {
+            tokenizer.nextToken();
+            if (count == rowBuf.length)
+                rowBuf = Arrays.copyOf(rowBuf, 2 * count);
+
+            double val = 0.0;
+            if (tokenizer.tokenIsNumber()) {
+                try {
+                    val = tokenizer.tokenAsDouble();
+                } catch (NumberFormatException e) {
+                    System.out.printf("[warn] %s%n", e.getMessage());
                 }
-
-                double val = Double.valueOf(elem);
-                if(val != 0.0)
-                    matrix.setEntry(row, col, val);
             }
-
-            line = fileScanner.nextLine().trim();
-            rowElements = line.split("\\s+");
-            row++;
+            rowBuf[count++] = val;
         }
 
-        return Optional.of(matrix);
+        return count;
     }
 
-
-    private Optional<String> readMark(Scanner fileScanner) {
-        Optional<String> lineOpt = skipEmptyLines(fileScanner);
-
-        if(!lineOpt.isPresent()) {
-            return Optional.empty();
+    private boolean ensureAllocated(int blockDim) {
+        if (equation == null) {
+            equation = new LinearBlockTridiagonalEquation(noOfEquations, blockDim);
         }
+        return equation.getBlockDim() == blockDim;
+    }
 
-        Pattern labelPattern = Pattern.compile("([a-zA-Z0-9_^$]+):$");
-        String line = lineOpt.get();
-        Matcher matcher;
+    /**
+     * Reads a {@code Label:} line.
+     *
+     * @return the label, or {@code null} if the current line is not a mark
+     */
+    private String readMark(MatrixTokenizer tokenizer) throws IOException {
+        tokenizer.nextToken();
+        int length = tokenizer.tokenLength() - 1;
 
-        matcher =  labelPattern.matcher(line);
-        if(matcher.matches()) {
-            return Optional.of(matcher.group(1));
-        }
+        if (length < 1 || tokenizer.tokenByte(length) != ':' || !tokenizer.tokenIsWord(length))
+            return null;
+
+        String mark = tokenizer.tokenAsString(length);
+        if (tokenizer.skipSpaces())
+            return null;
 
-        return Optional.empty();
+        tokenizer.nextLine();
+        return mark;
     }
 
-    private void readEquations(Scanner fileScanner) {
-        Optional<String> lineOpt = skipEmptyLines(fileScanner);
-        if(!lineOpt.isPresent()) {
+    private void readEquations(MatrixTokenizer tokenizer) throws IOException {
+        if (!tokenizer.skipBlankLines()) {
             throw new RuntimeException("Parse error - no equation provided");
         }
 
-        String line = lineOpt.get();
-        int row = 0, col;
+        int row = 0;
 
-        while(fileScanner.hasNextLine() && !line.isEmpty()) {
-            String[] blockElems = line.split("\\s+");
-            if(blockElems.length != 4) {
-                throw new RuntimeException(String.format("Invalid equation at row#%d: '%s'", row, line));
-            }
+        do {
+            int col = 0;
+            while (tokenizer.skipSpaces()) {
+                tokenizer.nextToken();
+                if (col >= 4) {
+                    throw new RuntimeException(String.format("Invalid equation at row#%d", row));
+                }
 
-            col = 0;
-            for(String blockElem : blockElems) {
-                if(blockElem.matches("[-+]?[0-9]*\\.?[0-9]+")) {
-                    repeatedElementsPositions.put(new ElemPos(row, col), Double.parseDouble(blockElem));
-                } else if(blockElem.matches("[a-zA-Z0-9_^$]+")) {
-                    blockPosMap.put(blockElem, new ElemPos(row, col));
+                if (tokenizer.tokenIsNumber()) {
+                    repeatedElementsPositions.put(new ElemPos(row, col), tokenizer.tokenAsDouble());
+                } else if (tokenizer.tokenIsWord(tokenizer.tokenLength())) {
+                    blockPosMap.put(tokenizer.tokenAsString(), new ElemPos(row, col));
                 }
                 col++;
             }
+
+            if (col != 4) {
+                throw new RuntimeException(String.format("Invalid equation at row#%d", row));
+            }
             row++;
-            line = fileScanner.nextLine().trim();
-        }
+        } while (tokenizer.nextLine() && tokenizer.skipSpaces());
+
         this.noOfEquations = row;
     }
 
-    private Optional<String> skipEmptyLines(Scanner fileScanner) {
-        String line = "";
+    private static boolean isMatrixLabel(String mark) {
+        if (!Character.isUpperCase(mark.charAt(0)))
+            return false;
 
-        while(fileScanner.hasNextLine() && line.isEmpty()) {
-            line = fileScanner.nextLine().trim();
+        for (int i = 1; i < mark.length(); i++) {
+            if (Character.isUpperCase(mark.charAt(i)))
+                return false;
         }
-
-        return Optional.ofNullable(line.isEmpty() ? null : line);
+        return true;
     }
 
     private static class ElemPos {
@@ -223,7 +227,6 @@ public class MatrixParser {
             this.col = col;
         }
 
-        int id;
         int row;
         int col;
 
@@ -239,17 +242,13 @@ public class MatrixParser {
 
             ElemPos elemPos = (ElemPos) o;
 
-            if (id != elemPos.id) return false;
             if (row != elemPos.row) return false;
             return col == elemPos.col;
         }
 
         @Override
         public int hashCode() {
-            int result = id;
-            result = 31 * result + row;
-            result = 31 * result + col;
-            return result;
+            return 31 * row + col;
         }
     }
 
@@ -0,0 +1,250 @@
+package ru.bmstu.iu9.numan;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Line-aware whitespace tokenizer over a byte stream, used by {@link MatrixParser}.
+ * <p>
+ * Input is read in large chunks into one reusable buffer. Tokens are exposed as positions in that buffer, and
+ * numbers are parsed straight from the bytes, so reading matrix elements allocates nothing. Only labels are
+ * turned into strings.
+ */
+final class MatrixTokenizer implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_TOKEN_LENGTH = 512;
+    private static final long FAST_PATH_MAX_MANTISSA = 1L << 53;
+    private static final long MANTISSA_LIMIT = 100_000_000_000_000_000L;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final InputStream in;
+    private final byte[] buf = new byte[BUFFER_SIZE];
+    private int pos;
+    private int limit;
+    private boolean eof;
+    private int line = 1;
+
+    private int tokenStart;
+    private int tokenEnd;
+
+    MatrixTokenizer(InputStream in) {
+        this.in = in;
+    }
+
+    int getLine() {
+        return line;
+    }
+
+    /**
+     * Skips whitespace including line breaks.
+     *
+     * @return {@code false} if the end of input was reached
+     */
+    boolean skipBlankLines() throws IOException {
+        int c;
+        while ((c = peek()) != -1 && isWhitespace(c)) {
+            if (c == '\n')
+                line++;
+            pos++;
+        }
+        return c != -1;
+    }
+
+    /**
+     * Skips whitespace up to the end of the current line.
+     *
+     * @return {@code true} if there is another token on the current line
+     */
+    boolean skipSpaces() throws IOException {
+        int c;
+        while ((c = peek()) != -1 && c != '\n' && isWhitespace(c)) {
+            pos++;
+        }
+        return c != -1 && c != '\n';
+    }
+
+    /**
+     * Moves to the beginning of the next line, skipping the rest of the current one.
+     *
+     * @return {@code false} if the end of input was reached
+     */
+    boolean nextLine() throws IOException {
+        int c;
+        while ((c = peek()) != -1) {
+            pos++;
+            if (c == '\n') {
+                line++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the next whitespace-delimited token of the current line. Call only after {@link #skipSpaces()}
+     * returned {@code true}.
+     */
+    void nextToken() throws IOException {
+        ensure(MAX_TOKEN_LENGTH);
+        tokenStart = pos;
+        while (pos < limit && !isWhitespace(buf[pos])) {
+            pos++;
+        }
+        tokenEnd = pos;
+
+        if (pos == limit && !eof) {
+            throw new IOException(String.format("Token is longer than %d characters at line %d", MAX_TOKEN_LENGTH, line));
+        }
+    }
+
+    int tokenLength() {
+        return tokenEnd - tokenStart;
+    }
+
+    byte tokenByte(int index) {
+        return buf[tokenStart + index];
+    }
+
+    boolean tokenIsNumber() {
+        int c = buf[tokenStart];
+        return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.';
+    }
+
+    boolean tokenIsWord(int length) {
+        for (int i = tokenStart; i < tokenStart + length; i++) {
+            int c = buf[i];
+            boolean isWordChar = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '_' || c == '^' || c == '$';
+            if (!isWordChar)
+                return false;
+        }
+        return length > 0;
+    }
+
+    String tokenAsString(int length) {
+        return new String(buf, tokenStart, length, StandardCharsets.US_ASCII);
+    }
+
+    String tokenAsString() {
+        return tokenAsString(tokenLength());
+    }
+
+    /**
+     * Parses the current token as a decimal number with optional sign, fraction and exponent.
+     *
+     * @throws NumberFormatException if the token is not a number
+     */
+    double tokenAsDouble() {
+        int i = tokenStart, end = tokenEnd;
+        boolean negative = false;
+        if (buf[i] == '-' || buf[i] == '+') {
+            negative = buf[i] == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int exp10 = 0;
+        boolean anyDigit = false, exact = true;
+
+        for (; i < end && isDigit(buf[i]); i++) {
+            anyDigit = true;
+            if (mantissa < MANTISSA_LIMIT) {
+                mantissa = mantissa * 10 + (buf[i] - '0');
+            } else {
+                exp10++;
+                exact &= buf[i] == '0';
+            }
+        }
+
+        if (i < end && buf[i] == '.') {
+            for (i++; i < end && isDigit(buf[i]); i++) {
+                anyDigit = true;
+                if (mantissa < MANTISSA_LIMIT) {
+                    mantissa = mantissa * 10 + (buf[i] - '0');
+                    exp10--;
+                } else {
+                    exact &= buf[i] == '0';
+                }
+            }
+        }
+
+        if (anyDigit && i < end && (buf[i] == 'e' || buf[i] == 'E')) {
+            i++;
+            boolean negativeExp = false;
+            if (i < end && (buf[i] == '-' || buf[i] == '+')) {
+                negativeExp = buf[i] == '-';
+                i++;
+            }
+            int exp = 0, expDigits = 0;
+            for (; i < end && isDigit(buf[i]); i++, expDigits++) {
+                if (exp < 100_000)
+                    exp = exp * 10 + (buf[i] - '0');
+            }
+            if (expDigits == 0)
+                anyDigit = false;
+            exp10 += negativeExp ? -exp : exp;
+        }
+
+        if (!anyDigit || i != end) {
+            throw new NumberFormatException(String.format("Invalid number '%s' at line %d", tokenAsString(), line));
+        }
+
+        double value;
+        if (mantissa == 0) {
+            value = 0.0;
+        } else if (exact && mantissa <= FAST_PATH_MAX_MANTISSA && exp10 >= -22 && exp10 <= 22) {
+            // оба операнда представимы точно, поэтому результат округляется один раз (быстрый путь Клингера)
+            value = exp10 < 0 ? mantissa / POWERS_OF_TEN[-exp10] : mantissa * POWERS_OF_TEN[exp10];
+        } else {
+            return Double.parseDouble(tokenAsString());
+        }
+
+        return negative ? -value : value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private int peek() throws IOException {
+        if (pos == limit && !fill())
+            return -1;
+        return buf[pos];
+    }
+
+    private void ensure(int n) throws IOException {
+        if (limit - pos < n && !eof) {
+            System.arraycopy(buf, pos, buf, 0, limit - pos);
+            limit -= pos;
+            pos = 0;
+            while (limit < buf.length && !eof) {
+                int read = in.read(buf, limit, buf.length - limit);
+                if (read < 0)
+                    eof = true;
+                else
+                    limit += read;
+            }
+        }
+    }
+
+    private boolean fill() throws IOException {
+        ensure(1);
+        return pos < limit;
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+}
@@ -0,0 +1,11 @@
+package ru.bmstu.iu9.numan;
+
+/**
+ * Kinds of random left-hand sides, see {@link RandomEquations} and {@link VirtualEquation}.
+ */
+public enum MatrixType {
+    DIAGONAL_DOMINANT,
+    TRIDAGONAL_DIAGONAL_BLOCKS,
+    SELF_ADJOINT_MATRIX,
+    DEFAULT
+}
@@ -0,0 +1,204 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.RealVector;
+
+import java.util.Arrays;
+
+import static ru.bmstu.iu9.numan.BlockKernels.*;
+
+/**
+ * Seidel method with single precision storage and iterative refinement in double precision.
+ * <p>
+ * The {@code A(k)}, {@code C(k)}, {@code G[k]} and {@code D[k] * C(k)} blocks of {@link SeidelFactorization.Mode#DENSE}
+ * are kept as {@code float}, {@code 4 l m^2} floats, half the memory of the double factorization, and the sweeps
+ * read half as many bytes. Every refinement step computes the residual {@code r = f - M x} in double against the
+ * original system, runs single precision sweeps for the correction {@code M d = r} until its relative update is
+ * below {@link #INNER_TOLERANCE}, and adds {@code d} to {@code x}. The sweeps are those of
+ * {@link SeidelFactorization.Mode#DENSE} without relaxation, including the product {@code C(k) * x[max(k, 1)]} of
+ * the forward sweep, and accumulate the products of float blocks in double.
+ * <p>
+ * Unlike {@link SeidelFactorization}, whose fixed point differs from the solution of the system by the tridiagonal
+ * approximation of the Schur blocks, refinement against the true residual converges to the solution itself
+ * whenever the approximate solve reduces the residual.
+ * <p>
+ * The system is kept by reference for the residuals and must not change while the solver is in use. Instances are
+ * immutable and can be shared between threads.
+ */
+public final class MixedPrecisionSeidel {
+
+    static final double INNER_TOLERANCE = 1e-3;
+    static final int MAX_INNER_SWEEPS = 1000;
+    static final int MAX_REFINEMENTS = 200;
+
+    private final BlockTridiagonalSystem system;
+    private final int noOfEquations;
+    private final int blockDim;
+    private final float[] A;
+    private final float[] C;
+    private final float[] G;
+    private final float[] DC;
+
+    /**
+     * @throws org.apache.commons.math3.linear.SingularMatrixException if a Schur block is singular
+     */
+    public MixedPrecisionSeidel(BlockTridiagonalSystem system) {
+        this.system = system;
+        this.noOfEquations = system.getEquationsCount();
+        this.blockDim = system.getBlockDim();
+
+        int blockSize = blockDim * blockDim, size = noOfEquations * blockSize;
+        double[] block = new double[blockSize];
+        this.A = new float[size];
+        this.C = new float[size];
+        for (int k = 0; k < noOfEquations; k++) {
+            system.copyBlock(k, 0, block, 0);
+            toFloat(block, A, k * blockSize);
+            system.copyBlock(k, 2, block, 0);
+            toFloat(block, C, k * blockSize);
+        }
+
+        // множители считаются в двойной точности и только хранятся в одинарной
+        SeidelFactorization factorization = new SeidelFactorization(system, SeidelFactorization.Mode.DENSE);
+        this.G = new float[size];
+        this.DC = new float[size];
+        toFloat(factorization.denseG(), G, 0);
+        toFloat(factorization.denseDC(), DC, 0);
+    }
+
+    public int getEquationsCount() {
+        return noOfEquations;
+    }
+
+    public int getBlockDim() {
+        return blockDim;
+    }
+
+    /**
+     * Refines until the update is at most {@code precision}, at most {@link #MAX_REFINEMENTS} steps.
+     */
+    public SolverResult solve(RealVector rhs, RealVector startSol, double precision) {
+        return solve(rhs, startSol, ConvergencePolicy.boundedUpdateNorm(precision, MAX_REFINEMENTS));
+    }
+
+    /**
+     * Refines until {@code policy} stops. Iterations of the policy and of the result count refinement steps. The
+     * update norms measure the correction {@code d}; {@link ConvergencePolicy.Norm#RESIDUAL} measures the residual of
+     * this solver's system, the system of the policy is not used.
+     */
+    public SolverResult solve(RealVector rhs, RealVector startSol, ConvergencePolicy policy) {
+        int n = noOfEquations * blockDim;
+        if (rhs.getDimension() != n) {
+            throw new DimensionMismatchException(rhs.getDimension(), n);
+        }
+        if (startSol.getDimension() != n) {
+            throw new DimensionMismatchException(startSol.getDimension(), n);
+        }
+
+        double[] f = rhs.toArray(), x = startSol.toArray();
+        double[] r = new double[n], d = new double[n], dPrev = new double[n], t = new double[blockDim];
+        double[] block = new double[blockDim * blockDim];
+        boolean residualNorm = policy.getNorm() == ConvergencePolicy.Norm.RESIDUAL;
+        ConvergencePolicy.Monitor monitor = policy.start();
+
+        int refinements = 0;
+        double error;
+        SolverResult.Status status;
+        while (true) {
+            double residual = residual(f, x, r, block);
+            if (residualNorm) {
+                error = residual;
+                status = monitor.check(refinements, error);
+                if (status != null)
+                    break;
+            }
+
+            correction(r, d, dPrev, t);
+            for (int i = 0; i < n; i++) {
+                x[i] += d[i];
+            }
+            refinements++;
+
+            if (!residualNorm) {
+                double update = maxAbs(d, 0, n);
+                error = policy.getNorm() == ConvergencePolicy.Norm.UPDATE || update == 0.0 ? update : update / maxAbs(x, 0, n);
+                status = monitor.check(refinements, error);
+                if (status != null)
+                    break;
+            }
+        }
+
+        return new SolverResult(new ArrayRealVector(x, false), status, refinements, error);
+    }
+
+    /**
+     * {@code r = f - M x}, returns its inf-norm.
+     */
+    private double residual(double[] f, double[] x, double[] r, double[] block) {
+        int l = noOfEquations, m = blockDim;
+        System.arraycopy(f, 0, r, 0, r.length);
+        for (int k = 0; k < l; k++) {
+            system.copyBlock(k, 1, block, 0);
+            matVecSub(block, 0, m, x, k * m, r, k * m);
+            if (k > 0) {
+                system.copyBlock(k, 0, block, 0);
+                matVecAdd(block, 0, m, x, (k - 1) * m, r, k * m);
+            }
+            if (k < l - 1) {
+                system.copyBlock(k, 2, block, 0);
+                matVecAdd(block, 0, m, x, (k + 1) * m, r, k * m);
+            }
+        }
+        return maxAbs(r, 0, r.length);
+    }
+
+    /**
+     * Single precision Seidel sweeps for {@code M d = r} from {@code d = 0}, the sweeps of
+     * {@link SeidelFactorization#iterate} in {@link SeidelFactorization.Mode#DENSE}.
+     *
+     * @return number of sweeps made
+     */
+    int correction(double[] r, double[] d, double[] dPrev, double[] t) {
+        int l = noOfEquations, m = blockDim, blockSize = m * m;
+        double[] result = d, tmp;
+        Arrays.fill(d, 0.0);
+
+        int n = 0;
+        double diff, norm;
+        do {
+            tmp = dPrev;
+            dPrev = d;
+            d = tmp;
+
+            for (int k = 0; k < l - 1; k++) {
+                System.arraycopy(r, k * m, t, 0, m);
+                if (k > 0)
+                    matVecAdd(A, k * blockSize, m, d, (k - 1) * m, t, 0);
+                matVecAdd(C, k * blockSize, m, dPrev, Math.max(k, 1) * m, t, 0);
+                matVec(G, k * blockSize, m, t, 0, d, k * m);
+                matVecSub(DC, k * blockSize, m, dPrev, (k + 1) * m, d, k * m);
+            }
+
+            System.arraycopy(r, (l - 1) * m, t, 0, m);
+            if (l > 1)
+                matVecAdd(A, (l - 1) * blockSize, m, d, (l - 2) * m, t, 0);
+            matVec(G, (l - 1) * blockSize, m, t, 0, d, (l - 1) * m);
+            diff = maxAbsDiff(d, dPrev, (l - 1) * m, l * m);
+            norm = maxAbs(d, (l - 1) * m, l * m);
+
+            for (int k = l - 2; k >= 0; k--) {
+                matVecAdd(DC, k * blockSize, m, d, (k + 1) * m, d, k * m);
+                diff = Math.max(diff, maxAbsDiff(d, dPrev, k * m, (k + 1) * m));
+                norm = Math.max(norm, maxAbs(d, k * m, (k + 1) * m));
+            }
+            n++;
+        } while (diff > INNER_TOLERANCE * norm && n < MAX_INNER_SWEEPS);
+
+        if (d != result) {
+            System.arraycopy(d, 0, result, 0, d.length);
+        }
+        return n;
+    }
+
+}
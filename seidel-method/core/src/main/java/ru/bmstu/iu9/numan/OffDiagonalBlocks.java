@@ -0,0 +1,64 @@
+package ru.bmstu.iu9.numan;
+
+/**
+ * The {@code A(k)} and {@code C(k)} blocks of a system as the iterative solvers read them. A
+ * {@link LinearBlockTridiagonalEquation} is copied, so later changes to it do not reach the solver; any other
+ * {@link BlockTridiagonalSystem}, e.g. a {@link VirtualEquation} or an {@link OffHeapEquation}, is read by reference
+ * into a caller's buffer whenever a block is needed and must allow concurrent reads if the solver reads it from
+ * several threads.
+ * <p>
+ * A block is returned as an array and the offset it starts at: {@code block(k, l, buf)} at {@code offset(k)}.
+ */
+final class OffDiagonalBlocks {
+
+    private final int blockSize;
+    // null, если блоки читаются из source по мере надобности
+    private final double[] A;
+    private final double[] C;
+    private final BlockTridiagonalSystem source;
+
+    OffDiagonalBlocks(BlockTridiagonalSystem eq) {
+        int l = eq.getEquationsCount(), m = eq.getBlockDim();
+        this.blockSize = m * m;
+        if (eq instanceof LinearBlockTridiagonalEquation) {
+            this.A = new double[l * blockSize];
+            this.C = new double[l * blockSize];
+            this.source = null;
+            for (int k = 0; k < l; k++) {
+                eq.copyBlock(k, 0, A, k * blockSize);
+                eq.copyBlock(k, 2, C, k * blockSize);
+            }
+        } else {
+            this.A = null;
+            this.C = null;
+            this.source = eq;
+        }
+    }
+
+    /**
+     * @return a buffer for {@link #block}, or {@code null} if the blocks are copied and need none
+     */
+    double[] newBuffer() {
+        return source != null ? new double[blockSize] : null;
+    }
+
+    /**
+     * Block {@code (k, l)}, {@code l} is {@code 0} for {@code A(k)} or {@code 2} for {@code C(k)}: the private copy if
+     * there is one, otherwise {@code buf} filled from the source.
+     */
+    double[] block(int k, int l, double[] buf) {
+        if (source == null) {
+            return l == 0 ? A : C;
+        }
+        source.copyBlock(k, l, buf, 0);
+        return buf;
+    }
+
+    /**
+     * @return where block {@code k} starts in the array returned by {@link #block}
+     */
+    int offset(int k) {
+        return source == null ? k * blockSize : 0;
+    }
+
+}
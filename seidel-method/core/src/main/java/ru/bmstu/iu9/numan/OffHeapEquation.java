@@ -0,0 +1,139 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.exception.NotStrictlyPositiveException;
+import org.apache.commons.math3.exception.NumberIsTooLargeException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Block tridiagonal system stored outside the Java heap in direct buffers, for systems whose blocks do not fit in
+ * the heap or should not be scanned and copied by the garbage collector.
+ * <p>
+ * Block row {@code k} is stored contiguously as {@code A(k), B(k), C(k), f(k)}, {@code 3 m^2 + m} doubles in native
+ * byte order. Rows are grouped into buffers of at most 1 GB, so the total size is not limited by the 2 GB of a
+ * single buffer. A new system is zero. Direct memory is limited by {@code -XX:MaxDirectMemorySize}, which defaults
+ * to the maximum heap size, so it has to be raised for systems larger than the heap.
+ * <p>
+ * {@link SeidelFactorization} and the other solvers read it through {@link BlockTridiagonalSystem} by reference. With
+ * {@link SeidelFactorization.Mode#IMPLICIT} the heap holds only {@code O(l m)} doubles of the factorization and the
+ * iterates; {@link SeidelFactorization.Mode#DENSE} still keeps its {@code 2 l m^2} factors on the heap.
+ * <p>
+ * The memory is released by {@link #close}, after which every access throws {@link IllegalStateException}. It waits
+ * for the accesses in flight, so closing under a running solve fails the solve instead of touching freed memory.
+ * Reads may run concurrently with each other; writes must not run concurrently with reads of the same block.
+ */
+public final class OffHeapEquation implements BlockTridiagonalSystem, AutoCloseable {
+
+    static final long MAX_CHUNK_BYTES = 1L << 30;
+
+    private final int noOfEquations;
+    private final int blockDim;
+    private final int rowLength;
+    private final RowChunks rows;
+
+    public OffHeapEquation(int noOfEquations, int blockDim) {
+        this(noOfEquations, blockDim, MAX_CHUNK_BYTES);
+    }
+
+    OffHeapEquation(int noOfEquations, int blockDim, long maxChunkBytes) {
+        if (noOfEquations <= 0) {
+            throw new NotStrictlyPositiveException(noOfEquations);
+        }
+        if (blockDim <= 0) {
+            throw new NotStrictlyPositiveException(blockDim);
+        }
+
+        long rowLength = (long) LinearBlockTridiagonalEquation.LINE_BLOCKS_COUNT * blockDim * blockDim + blockDim;
+        if (8 * rowLength > Integer.MAX_VALUE) {
+            throw new NumberIsTooLargeException(8 * rowLength, Integer.MAX_VALUE, true);
+        }
+
+        this.noOfEquations = noOfEquations;
+        this.blockDim = blockDim;
+        this.rowLength = (int) rowLength;
+        this.rows = new RowChunks("Off-heap equation", noOfEquations, this.rowLength, maxChunkBytes,
+                (position, size) -> ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder()));
+    }
+
+    /**
+     * Copies {@code system} off the heap one block at a time.
+     */
+    public static OffHeapEquation copyOf(BlockTridiagonalSystem system) {
+        int l = system.getEquationsCount(), m = system.getBlockDim();
+        OffHeapEquation eq = new OffHeapEquation(l, m);
+        double[] buf = new double[m * m];
+        for (int k = 0; k < l; k++) {
+            for (int j = 0; j < LinearBlockTridiagonalEquation.LINE_BLOCKS_COUNT; j++) {
+                system.copyBlock(k, j, buf, 0);
+                eq.setBlock(k, j, buf, 0);
+            }
+            system.copyRhs(k, buf, 0);
+            eq.setRhs(k, buf, 0);
+        }
+        return eq;
+    }
+
+    @Override
+    public int getEquationsCount() {
+        return noOfEquations;
+    }
+
+    @Override
+    public int getBlockDim() {
+        return blockDim;
+    }
+
+    /**
+     * @return off-heap memory held by the system
+     */
+    public long sizeInBytes() {
+        return 8L * rowLength * noOfEquations;
+    }
+
+    @Override
+    public void copyBlock(int k, int l, double[] dest, int off) {
+        checkBlock(k, l);
+        rows.get(k, l * blockDim * blockDim, dest, off, blockDim * blockDim);
+    }
+
+    @Override
+    public void copyRhs(int k, double[] dest, int off) {
+        checkBlock(k, 0);
+        rows.get(k, rhsPosition(), dest, off, blockDim);
+    }
+
+    /**
+     * Sets block {@code (k, l)} from {@code m^2} row-major values of {@code src} starting at {@code off}.
+     */
+    public void setBlock(int k, int l, double[] src, int off) {
+        checkBlock(k, l);
+        rows.put(k, l * blockDim * blockDim, src, off, blockDim * blockDim);
+    }
+
+    public void setRhs(int k, double[] src, int off) {
+        checkBlock(k, 0);
+        rows.put(k, rhsPosition(), src, off, blockDim);
+    }
+
+    public boolean isClosed() {
+        return rows.isClosed();
+    }
+
+    /**
+     * Releases the off-heap memory once the accesses in flight have finished. Closing a closed system does nothing.
+     */
+    @Override
+    public void close() {
+        rows.close();
+    }
+
+    private int rhsPosition() {
+        return LinearBlockTridiagonalEquation.LINE_BLOCKS_COUNT * blockDim * blockDim;
+    }
+
+    private void checkBlock(int k, int l) {
+        LinearBlockTridiagonalEquation.checkBlockIndex(noOfEquations, k, l);
+    }
+
+}
@@ -0,0 +1,202 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.RealVector;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.DoubleAccumulator;
+
+import static ru.bmstu.iu9.numan.BlockKernels.*;
+
+/**
+ * Block iterations without the row-to-row dependence of the Seidel sweeps, so a sweep runs in parallel on a
+ * {@link ForkJoinPool}. Every block row is updated by solving {@code B(k) x(k) = f(k) + A(k) x(k-1) + C(k) x(k+1)}
+ * with the LU decomposition of {@code B(k)} computed once in the constructor; the order is chosen by {@link Scheme}.
+ * <p>
+ * Both schemes are stationary iterations on the system itself, so unlike {@link SeidelFactorization} they converge
+ * to its exact solution, e.g. for block diagonally dominant systems. A sweep costs about as much as a Seidel sweep
+ * but more sweeps are needed. Results do not depend on the pool's parallelism.
+ * <p>
+ * A {@link LinearBlockTridiagonalEquation} is copied, any other {@link BlockTridiagonalSystem} is read by reference
+ * and must allow concurrent reads. Instances are immutable and can be shared between threads.
+ */
+public final class ParallelBlockIteration {
+
+    public enum Scheme {
+        /**
+         * Every block row from the previous approximation, all rows at once.
+         */
+        JACOBI,
+        /**
+         * Block Gauss-Seidel in red-black order: the even block rows from the odd ones, then the odd rows from the
+         * new even ones, each color at once. Takes about half the sweeps of {@link #JACOBI}.
+         */
+        RED_BLACK
+    }
+
+    static final int MAX_ITERATIONS = 10000;
+
+    private final Scheme scheme;
+    private final ForkJoinPool pool;
+    private final int noOfEquations;
+    private final int blockDim;
+    private final OffDiagonalBlocks blocks;
+    // LU-разложения B(k)
+    private final double[] LU;
+    private final int[] pivot;
+
+    public ParallelBlockIteration(BlockTridiagonalSystem eq, Scheme scheme) {
+        this(eq, scheme, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @throws org.apache.commons.math3.linear.SingularMatrixException if some {@code B(k)} is singular
+     */
+    public ParallelBlockIteration(BlockTridiagonalSystem eq, Scheme scheme, ForkJoinPool pool) {
+        this.scheme = scheme;
+        this.pool = pool;
+        this.noOfEquations = eq.getEquationsCount();
+        this.blockDim = eq.getBlockDim();
+
+        final int l = noOfEquations, m = blockDim, blockSize = m * m;
+        final double[] lu = new double[l * blockSize];
+        final int[] piv = new int[l * m];
+        ParallelRange.run(pool, 0, l, ParallelRange.grain(pool, l), (from, to) -> {
+            for (int k = from; k < to; k++) {
+                eq.copyBlock(k, 1, lu, k * blockSize);
+                luDecompose(lu, k * blockSize, m, piv, k * m);
+            }
+        });
+
+        this.blocks = new OffDiagonalBlocks(eq);
+        this.LU = lu;
+        this.pivot = piv;
+    }
+
+    public Scheme getScheme() {
+        return scheme;
+    }
+
+    public int getEquationsCount() {
+        return noOfEquations;
+    }
+
+    public int getBlockDim() {
+        return blockDim;
+    }
+
+    /**
+     * Iterates until the update is at most {@code precision}, at most {@link #MAX_ITERATIONS} sweeps.
+     */
+    public SolverResult solve(RealVector rhs, RealVector startSol, double precision) {
+        return solve(rhs, startSol, ConvergencePolicy.boundedUpdateNorm(precision, MAX_ITERATIONS));
+    }
+
+    public SolverResult solve(RealVector rhs, RealVector startSol, ConvergencePolicy policy) {
+        int l = noOfEquations, m = blockDim, n = l * m;
+        if (rhs.getDimension() != n) {
+            throw new DimensionMismatchException(rhs.getDimension(), n);
+        }
+        if (startSol.getDimension() != n) {
+            throw new DimensionMismatchException(startSol.getDimension(), n);
+        }
+        BlockTridiagonalSystem system = policy.getSystem();
+        if (system != null && (system.getEquationsCount() != l || system.getBlockDim() != m)) {
+            throw new DimensionMismatchException(system.getEquationsCount() * system.getBlockDim(), n);
+        }
+
+        double[] f = rhs.toArray(), x = startSol.toArray(), xPrev = scheme == Scheme.JACOBI ? new double[n] : null, tmp;
+        DoubleAccumulator diff = new DoubleAccumulator(Math::max, 0.0), xNorm = new DoubleAccumulator(Math::max, 0.0);
+        ConvergencePolicy.Monitor monitor = policy.start();
+
+        int iterations = 0;
+        double error = Double.NaN;
+        SolverResult.Status status = null;
+        if (policy.getNorm() == ConvergencePolicy.Norm.RESIDUAL) {
+            error = residualNorm(system, f, x);
+            status = monitor.check(0, error);
+        }
+
+        while (status == null) {
+            diff.reset();
+            xNorm.reset();
+            if (scheme == Scheme.JACOBI) {
+                tmp = xPrev;
+                xPrev = x;
+                x = tmp;
+                sweep(0, 1, l, f, xPrev, x, diff, xNorm);
+            } else {
+                sweep(0, 2, (l + 1) / 2, f, x, x, diff, xNorm);
+                sweep(1, 2, l / 2, f, x, x, diff, xNorm);
+            }
+            iterations++;
+
+            switch (policy.getNorm()) {
+                case RELATIVE_UPDATE:
+                    error = diff.get() == 0.0 ? 0.0 : diff.get() / xNorm.get();
+                    break;
+                case RESIDUAL:
+                    error = residualNorm(system, f, x);
+                    break;
+                default:
+                    error = diff.get();
+            }
+            status = monitor.check(iterations, error);
+        }
+
+        return new SolverResult(new ArrayRealVector(x, false), status, iterations, error);
+    }
+
+    /**
+     * Updates block rows {@code first, first + step, ...}, {@code count} of them, from the neighbours in {@code in}
+     * into {@code out}. The rows written must not be read by other rows of the same sweep.
+     */
+    private void sweep(int first, int step, int count, double[] f, double[] in, double[] out,
+                       DoubleAccumulator diff, DoubleAccumulator xNorm) {
+        final int l = noOfEquations, m = blockDim, blockSize = m * m;
+        ParallelRange.run(pool, 0, count, ParallelRange.grain(pool, count), (from, to) -> {
+            double[] t = new double[m], y = new double[m];
+            double[] aBuf = blocks.newBuffer(), cBuf = blocks.newBuffer();
+            double localDiff = 0.0, localNorm = 0.0;
+
+            for (int j = from; j < to; j++) {
+                int k = first + j * step;
+                System.arraycopy(f, k * m, t, 0, m);
+                if (k > 0) {
+                    double[] a = blocks.block(k, 0, aBuf);
+                    matVecAdd(a, blocks.offset(k), m, in, (k - 1) * m, t, 0);
+                }
+                if (k < l - 1) {
+                    double[] c = blocks.block(k, 2, cBuf);
+                    matVecAdd(c, blocks.offset(k), m, in, (k + 1) * m, t, 0);
+                }
+                luSolve(LU, k * blockSize, pivot, k * m, m, t, 0, 1, 1, y, 0);
+
+                for (int i = 0; i < m; i++) {
+                    localDiff = Math.max(localDiff, Math.abs(y[i] - in[k * m + i]));
+                    localNorm = Math.max(localNorm, Math.abs(y[i]));
+                }
+                System.arraycopy(y, 0, out, k * m, m);
+            }
+
+            diff.accumulate(localDiff);
+            xNorm.accumulate(localNorm);
+        });
+    }
+
+    private double residualNorm(final BlockTridiagonalSystem system, final double[] f, final double[] x) {
+        final int l = noOfEquations, m = blockDim;
+        DoubleAccumulator residual = new DoubleAccumulator(Math::max, 0.0);
+        ParallelRange.run(pool, 0, l, ParallelRange.grain(pool, l), (from, to) -> {
+            double[] buf = new double[m * m], r = new double[m];
+            double local = 0.0;
+            for (int k = from; k < to; k++) {
+                local = Math.max(local, SeidelFactorization.residualNorm(system, k, f, x, buf, r));
+            }
+            residual.accumulate(local);
+        });
+        return residual.get();
+    }
+
+}
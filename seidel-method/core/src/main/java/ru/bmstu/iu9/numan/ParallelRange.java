@@ -0,0 +1,71 @@
+package ru.bmstu.iu9.numan;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Splits an index range into chunks and runs them on a fork-join pool.
+ */
+final class ParallelRange {
+
+    interface Body {
+        void run(int from, int to);
+    }
+
+    private ParallelRange() {
+    }
+
+    /**
+     * Runs {@code body} over {@code [from, to)} in chunks of at most {@code grain} indices. Small ranges run in the
+     * calling thread.
+     */
+    static void run(ForkJoinPool pool, int from, int to, int grain, Body body) {
+        if (to - from <= grain) {
+            if (to > from)
+                body.run(from, to);
+            return;
+        }
+
+        RangeTask task = new RangeTask(from, to, Math.max(grain, 1), body);
+        if (ForkJoinTask.inForkJoinPool() && ForkJoinTask.getPool() == pool) {
+            task.invoke();
+        } else {
+            pool.invoke(task);
+        }
+    }
+
+    /**
+     * Chunk size that gives each worker of {@code pool} a few chunks of {@code count} indices.
+     */
+    static int grain(ForkJoinPool pool, int count) {
+        return Math.max(1, count / (pool.getParallelism() * 4));
+    }
+
+    private static final class RangeTask extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final Body body;
+
+        RangeTask(int from, int to, int grain, Body body) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                body.run(from, to);
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, mid, grain, body), new RangeTask(mid, to, grain, body));
+        }
+    }
+
+}
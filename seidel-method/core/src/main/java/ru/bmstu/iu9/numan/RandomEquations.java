@@ -4,7 +4,8 @@ import org.apache.commons.math3.linear.ArrayRealVector;
 import org.apache.commons.math3.linear.RealMatrix;
 import org.apache.commons.math3.linear.RealVector;
 
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
 
 import static java.lang.Math.abs;
 import static org.apache.commons.math3.linear.MatrixUtils.createRealMatrix;
@@ -15,21 +16,30 @@ public class RandomEquations {
     private static final int BAND_WIDTH = 2;
 
     public static RealVector randVector(int dim, double minElemVal, double maxElemVal) {
+        return randVector(dim, minElemVal, maxElemVal, newRandom());
+    }
+
+    public static RealVector randVector(int dim, double minElemVal, double maxElemVal, SplittableRandom rnd) {
         RealVector vector = new ArrayRealVector(dim);
 
         for (int i = 0; i < dim; i++) {
-            vector.setEntry(i, randDoubleBetween(minElemVal, maxElemVal));
+            vector.setEntry(i, randDoubleBetween(minElemVal, maxElemVal, rnd));
         }
 
         return vector;
     }
 
     public static RealMatrix[][] randStrongDiagonalDominatedLhs(int noOfEquations, int blockDim, double minElemVal, double maxElemVal) {
+        return randStrongDiagonalDominatedLhs(noOfEquations, blockDim, minElemVal, maxElemVal, newRandom());
+    }
+
+    public static RealMatrix[][] randStrongDiagonalDominatedLhs(int noOfEquations, int blockDim, double minElemVal, double maxElemVal,
+                                                                SplittableRandom rnd) {
         RealMatrix[][] lhs = new RealMatrix[noOfEquations][LINE_BLOCKS_COUNT];
         double rowSum;
 
         for (int i = 0; i < noOfEquations; i++) {
-            setDefaultRandLhsVec(noOfEquations, blockDim, minElemVal, maxElemVal, lhs, i);
+            setDefaultRandLhsVec(noOfEquations, blockDim, minElemVal, maxElemVal, lhs, i, rnd);
 
             for (int l = 0; l < blockDim; l++) {
                 rowSum = 0;
@@ -45,44 +55,59 @@ public class RandomEquations {
         return lhs;
     }
 
-    private static void setDefaultRandLhsVec(int noOfEquations, int blockDim, double minElemVal, double maxElemVal, RealMatrix[][] lhs, int i) {
-        lhs[i][0] = (i == 0) ? createRealMatrix(blockDim, blockDim) : randAnyMatrix(blockDim, blockDim, minElemVal, maxElemVal);
-        lhs[i][1] = randBandedMatrix(blockDim, minElemVal, maxElemVal);
-        lhs[i][2] = (i == noOfEquations - 1) ? createRealMatrix(blockDim, blockDim) : randAnyMatrix(blockDim, blockDim, minElemVal, maxElemVal);
+    private static void setDefaultRandLhsVec(int noOfEquations, int blockDim, double minElemVal, double maxElemVal, RealMatrix[][] lhs, int i,
+                                             SplittableRandom rnd) {
+        lhs[i][0] = (i == 0) ? createRealMatrix(blockDim, blockDim) : randAnyMatrix(blockDim, blockDim, minElemVal, maxElemVal, rnd);
+        lhs[i][1] = randBandedMatrix(blockDim, minElemVal, maxElemVal, rnd);
+        lhs[i][2] = (i == noOfEquations - 1) ? createRealMatrix(blockDim, blockDim) : randAnyMatrix(blockDim, blockDim, minElemVal, maxElemVal, rnd);
     }
 
     public static RealMatrix[][] randDefaultLhs(int noOfEquations, int blockDim, double maxElemDeviation) {
+        return randDefaultLhs(noOfEquations, blockDim, maxElemDeviation, newRandom());
+    }
+
+    public static RealMatrix[][] randDefaultLhs(int noOfEquations, int blockDim, double maxElemDeviation, SplittableRandom rnd) {
         RealMatrix[][] lhs = new RealMatrix[noOfEquations][LINE_BLOCKS_COUNT];
 
         for (int i = 0; i < noOfEquations; i++) {
-            lhs[i][0] = (i == 0) ? createRealMatrix(blockDim, blockDim) : randAnyMatrix(blockDim, blockDim, 0.0, abs(maxElemDeviation));
-            lhs[i][1] = randBandedMatrix(blockDim, -abs(maxElemDeviation), 0.0);
-            lhs[i][2] = (i == noOfEquations - 1) ? createRealMatrix(blockDim, blockDim) : randAnyMatrix(blockDim, blockDim, 0.0, abs(maxElemDeviation));
+            lhs[i][0] = (i == 0) ? createRealMatrix(blockDim, blockDim) : randAnyMatrix(blockDim, blockDim, 0.0, abs(maxElemDeviation), rnd);
+            lhs[i][1] = randBandedMatrix(blockDim, -abs(maxElemDeviation), 0.0, rnd);
+            lhs[i][2] = (i == noOfEquations - 1) ? createRealMatrix(blockDim, blockDim) : randAnyMatrix(blockDim, blockDim, 0.0, abs(maxElemDeviation), rnd);
         }
 
         return toDiagonalDominant(lhs);
     }
 
     public static RealMatrix[][] randLhsWithTridiagonalDiagonalBlocks(int noOfEquations, int blockDim, double minElemVal, double maxElemVal) {
+        return randLhsWithTridiagonalDiagonalBlocks(noOfEquations, blockDim, minElemVal, maxElemVal, newRandom());
+    }
+
+    public static RealMatrix[][] randLhsWithTridiagonalDiagonalBlocks(int noOfEquations, int blockDim, double minElemVal, double maxElemVal,
+                                                                      SplittableRandom rnd) {
         RealMatrix[][] lhs = new RealMatrix[noOfEquations][LINE_BLOCKS_COUNT];
 
         for (int i = 0; i < noOfEquations; i++) {
-            setDefaultRandLhsVec(noOfEquations, blockDim, minElemVal, maxElemVal, lhs, i);
+            setDefaultRandLhsVec(noOfEquations, blockDim, minElemVal, maxElemVal, lhs, i, rnd);
         }
 
         return toDiagonalDominant(lhs);
     }
 
     public static RealMatrix[][] randSelfAdjointLhs(int noOfEquations, int blockDim, double minElemVal, double maxElemVal) {
+        return randSelfAdjointLhs(noOfEquations, blockDim, minElemVal, maxElemVal, newRandom());
+    }
+
+    public static RealMatrix[][] randSelfAdjointLhs(int noOfEquations, int blockDim, double minElemVal, double maxElemVal,
+                                                    SplittableRandom rnd) {
         RealMatrix[][] lhs = new RealMatrix[noOfEquations][LINE_BLOCKS_COUNT];
         lhs[0][0] = createRealMatrix(blockDim, blockDim);
-        lhs[0][1] = randSelfAdjointTridiaganalMatrix(blockDim, minElemVal, maxElemVal);
-        lhs[0][2] = randAnyMatrix(blockDim, blockDim, minElemVal, maxElemVal);
+        lhs[0][1] = randSelfAdjointTridiaganalMatrix(blockDim, minElemVal, maxElemVal, rnd);
+        lhs[0][2] = randAnyMatrix(blockDim, blockDim, minElemVal, maxElemVal, rnd);
 
         for (int i = 1; i < noOfEquations; i++) {
             lhs[i][0] = lhs[i - 1][2].transpose();
-            lhs[i][1] = randSelfAdjointTridiaganalMatrix(blockDim, minElemVal, maxElemVal);
-            lhs[i][2] = randAnyMatrix(blockDim, blockDim, minElemVal, maxElemVal);
+            lhs[i][1] = randSelfAdjointTridiaganalMatrix(blockDim, minElemVal, maxElemVal, rnd);
+            lhs[i][2] = randAnyMatrix(blockDim, blockDim, minElemVal, maxElemVal, rnd);
         }
 
         lhs[noOfEquations - 1][2] = createRealMatrix(blockDim, blockDim);
@@ -91,15 +116,19 @@ public class RandomEquations {
     }
 
     public static RealMatrix[][] randLhs(int noOfEquations, int blockDim, double minElemVal, double maxElemVal) {
+        return randLhs(noOfEquations, blockDim, minElemVal, maxElemVal, newRandom());
+    }
+
+    public static RealMatrix[][] randLhs(int noOfEquations, int blockDim, double minElemVal, double maxElemVal, SplittableRandom rnd) {
         RealMatrix[][] lhs = new RealMatrix[noOfEquations][LINE_BLOCKS_COUNT];
         lhs[0][0] = createRealMatrix(blockDim, blockDim);
-        lhs[0][1] = randAnyMatrix(blockDim, blockDim, minElemVal, maxElemVal);
-        lhs[0][2] = randAnyMatrix(blockDim, blockDim, minElemVal, maxElemVal);
+        lhs[0][1] = randAnyMatrix(blockDim, blockDim, minElemVal, maxElemVal, rnd);
+        lhs[0][2] = randAnyMatrix(blockDim, blockDim, minElemVal, maxElemVal, rnd);
 
         for (int i = 1; i < noOfEquations; i++) {
             lhs[i][0] = lhs[i - 1][2].transpose();
-            lhs[i][1] = randAnyMatrix(blockDim, blockDim, minElemVal, maxElemVal);
-            lhs[i][2] = randAnyMatrix(blockDim, blockDim, minElemVal, maxElemVal);
+            lhs[i][1] = randAnyMatrix(blockDim, blockDim, minElemVal, maxElemVal, rnd);
+            lhs[i][2] = randAnyMatrix(blockDim, blockDim, minElemVal, maxElemVal, rnd);
         }
 
         lhs[noOfEquations - 1][2] = createRealMatrix(blockDim, blockDim);
@@ -108,12 +137,12 @@ public class RandomEquations {
     }
 
 
-    private static RealMatrix randAnyMatrix(int rows, int cols, double minElemVal, double maxElemVal) {
+    private static RealMatrix randAnyMatrix(int rows, int cols, double minElemVal, double maxElemVal, SplittableRandom rnd) {
         RealMatrix matrix = createRealMatrix(rows, cols);
 
         for (int i = 0; i < rows; i++) {
             for (int j = 0; j < cols; j++) {
-                matrix.setEntry(i, j, randDoubleBetween(minElemVal, maxElemVal));
+                matrix.setEntry(i, j, randDoubleBetween(minElemVal, maxElemVal, rnd));
             }
         }
 
@@ -136,17 +165,25 @@ public class RandomEquations {
         return lhs;
     }
 
-    private static double randDoubleBetween(double a, double b) {
-        return a + (b - a) * (new Random().nextDouble());
+    private static double randDoubleBetween(double a, double b, SplittableRandom rnd) {
+        return a + (b - a) * rnd.nextDouble();
+    }
+
+    /**
+     * Generator for one call of the methods without an explicit {@link SplittableRandom}, seeded from the
+     * current thread's {@link ThreadLocalRandom}, so concurrent callers never share state.
+     */
+    private static SplittableRandom newRandom() {
+        return new SplittableRandom(ThreadLocalRandom.current().nextLong());
     }
 
-    private static RealMatrix randBandedMatrix(int dim, double minElemVal, double maxElemVal) {
+    private static RealMatrix randBandedMatrix(int dim, double minElemVal, double maxElemVal, SplittableRandom rnd) {
         RealMatrix matrix = createRealMatrix(dim, dim);
 
         for (int i = 0; i < dim; i++) {
             for (int j = i - BAND_WIDTH + 1; j <= i + BAND_WIDTH - 1; j++) {
                 if (j >= 0 && j < dim) {
-                    matrix.setEntry(i, j, randDoubleBetween(minElemVal, maxElemVal));
+                    matrix.setEntry(i, j, randDoubleBetween(minElemVal, maxElemVal, rnd));
                 }
             }
         }
@@ -154,20 +191,20 @@ public class RandomEquations {
         return matrix;
     }
 
-    private static RealMatrix randSelfAdjointTridiaganalMatrix(int dim, double minElemVal, double maxElemVal) {
+    private static RealMatrix randSelfAdjointTridiaganalMatrix(int dim, double minElemVal, double maxElemVal, SplittableRandom rnd) {
         RealMatrix matrix = createRealMatrix(dim, dim);
         double randVal;
 
         for (int i = 0; i < dim; i++) {
             for (int j = i + 1; j < i + 2; j++) {
                 if (j < dim) {
-                    randVal = randDoubleBetween(minElemVal, maxElemVal);
+                    randVal = randDoubleBetween(minElemVal, maxElemVal, rnd);
                     matrix.setEntry(i, j, randVal);
                     matrix.setEntry(j, i, randVal);
                 }
             }
 
-            randVal = randDoubleBetween(minElemVal, maxElemVal);
+            randVal = randDoubleBetween(minElemVal, maxElemVal, rnd);
             matrix.setEntry(i, i, randVal);
         }
 
@@ -0,0 +1,108 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.exception.OutOfRangeException;
+
+/**
+ * Relaxation of the Seidel sweeps with factor {@code omega}.
+ * <p>
+ * In the forward sweep every {@code G[k] * (f(k) + A(k) * z[k-1] + C(k) * x_prev[k+1])} is replaced with
+ * {@code x_prev[k] + omega * (... - x_prev[k])} before the {@code D[k] * C(k)} correction (SOR). The symmetric
+ * variant (SSOR) relaxes the backward sweep against {@code x_prev[k]} as well. The solution of the system is a fixed
+ * point for any {@code omega}, {@code omega = 1} is the plain method.
+ * <p>
+ * An adaptive relaxation makes its first {@link #ESTIMATION_SWEEPS} sweeps with {@code omega = 1} and estimates the
+ * dominant eigenvalue {@code lambda} of the plain iteration from successive differences
+ * {@code d[n] = x[n] - x[n-1]} as {@code (d[n], d[n-1]) / (d[n-1], d[n-1])}. The sign matters: the plain iteration
+ * often oscillates ({@code lambda < 0}) and then needs under-relaxation. The rest of the sweeps use
+ * {@code omega = 2 / (2 - lambda)}, which is optimal when the spectrum lies on the real segment between {@code 0}
+ * and {@code lambda}. The symmetric variant relaxes twice per sweep, so it moves only half as far from {@code 1}
+ * and never over-relaxes.
+ */
+public final class Relaxation {
+
+    /**
+     * Plain Seidel method, {@code omega = 1}.
+     */
+    public static final Relaxation NONE = new Relaxation(1.0, false, false);
+
+    static final int ESTIMATION_SWEEPS = 6;
+    static final double MIN_OMEGA = 0.1;
+    static final double MAX_OMEGA = 1.9;
+
+    private final double omega;
+    private final boolean symmetric;
+    private final boolean adaptive;
+
+    private Relaxation(double omega, boolean symmetric, boolean adaptive) {
+        this.omega = omega;
+        this.symmetric = symmetric;
+        this.adaptive = adaptive;
+    }
+
+    /**
+     * @throws OutOfRangeException if {@code omega} is not in {@code (0, 2)}
+     */
+    public static Relaxation sor(double omega) {
+        return new Relaxation(checkOmega(omega), false, false);
+    }
+
+    /**
+     * @throws OutOfRangeException if {@code omega} is not in {@code (0, 2)}
+     */
+    public static Relaxation ssor(double omega) {
+        return new Relaxation(checkOmega(omega), true, false);
+    }
+
+    public static Relaxation adaptiveSor() {
+        return new Relaxation(1.0, false, true);
+    }
+
+    public static Relaxation adaptiveSsor() {
+        return new Relaxation(1.0, true, true);
+    }
+
+    /**
+     * Relaxation factor, or the factor of the estimation sweeps for an adaptive relaxation.
+     */
+    public double getOmega() {
+        return omega;
+    }
+
+    public boolean isSymmetric() {
+        return symmetric;
+    }
+
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    /**
+     * Relaxation factor for the dominant eigenvalue {@code lambda} of the plain iteration.
+     */
+    double chooseOmega(double lambda) {
+        // при lambda >= 1 релаксация не поможет
+        if (!(lambda < 1.0)) {
+            return 1.0;
+        }
+        double omega = 2.0 / (2.0 - lambda);
+        if (symmetric) {
+            // релаксация применяется дважды за итерацию, а верхняя релаксация обоих ходов легко приводит к расходимости
+            omega = Math.min(1.0, 1.0 + (omega - 1.0) / 2);
+        }
+        return Math.max(MIN_OMEGA, Math.min(MAX_OMEGA, omega));
+    }
+
+    private static double checkOmega(double omega) {
+        if (!(omega > 0.0 && omega < 2.0)) {
+            throw new OutOfRangeException(omega, 0.0, 2.0);
+        }
+        return omega;
+    }
+
+    @Override
+    public String toString() {
+        String name = symmetric ? "SSOR" : "SOR";
+        return adaptive ? "adaptive " + name : name + "(" + omega + ")";
+    }
+
+}
@@ -0,0 +1,121 @@
+package ru.bmstu.iu9.numan;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rows of {@code rowLength} doubles in direct or mapped buffers of whole rows, the storage of {@link OffHeapEquation}
+ * and {@link MappedEquation}.
+ * <p>
+ * {@link #close} frees the buffers explicitly, so an access to a freed buffer would read or write released native
+ * memory instead of failing. Every access is therefore counted while it runs. {@code close} marks the rows closed, so
+ * that new accesses throw {@link IllegalStateException}, waits until the count drops to zero and only then frees the
+ * buffers. Accesses do not block each other, and a stream of them cannot delay {@code close} indefinitely.
+ */
+final class RowChunks {
+
+    /**
+     * Creates the buffer of {@code size} bytes starting at byte {@code position} of the rows.
+     */
+    interface Factory<E extends Exception> {
+        ByteBuffer create(long position, int size) throws E;
+    }
+
+    private final String name;
+    private final int rowLength;
+    private final int rowsPerChunk;
+    private final ByteBuffer[] buffers;
+    private final DoubleBuffer[] chunks;
+    private final AtomicInteger accesses = new AtomicInteger();
+    private volatile boolean closed;
+
+    /**
+     * @param name what is closed, for the message of {@link IllegalStateException}
+     * @throws E if {@code factory} fails; the buffers created before are freed
+     */
+    <E extends Exception> RowChunks(String name, int rows, int rowLength, long maxChunkBytes, Factory<E> factory) throws E {
+        this.name = name;
+        this.rowLength = rowLength;
+        this.rowsPerChunk = (int) Math.max(1, Math.min(rows, maxChunkBytes / (8L * rowLength)));
+
+        int count = (rows + rowsPerChunk - 1) / rowsPerChunk;
+        this.buffers = new ByteBuffer[count];
+        this.chunks = new DoubleBuffer[count];
+        try {
+            for (int c = 0; c < count; c++) {
+                int size = 8 * rowLength * Math.min(rowsPerChunk, rows - c * rowsPerChunk);
+                buffers[c] = factory.create(8L * rowLength * c * rowsPerChunk, size);
+                chunks[c] = buffers[c].asDoubleBuffer();
+            }
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Copies {@code length} doubles of row {@code row} starting at {@code pos} into {@code dest}.
+     */
+    void get(int row, int pos, double[] dest, int off, int length) {
+        DoubleBuffer chunk = acquire(row);
+        try {
+            int base = (row % rowsPerChunk) * rowLength + pos;
+            for (int i = 0; i < length; i++) {
+                dest[off + i] = chunk.get(base + i);
+            }
+        } finally {
+            accesses.decrementAndGet();
+        }
+    }
+
+    void put(int row, int pos, double[] src, int off, int length) {
+        DoubleBuffer chunk = acquire(row);
+        try {
+            int base = (row % rowsPerChunk) * rowLength + pos;
+            for (int i = 0; i < length; i++) {
+                chunk.put(base + i, src[off + i]);
+            }
+        } finally {
+            accesses.decrementAndGet();
+        }
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Waits for the accesses in flight and frees the buffers. Closing again does nothing.
+     */
+    synchronized void close() {
+        if (closed)
+            return;
+
+        closed = true;
+        // доступ, начавшийся до записи closed, уже учтён в счётчике; начавшийся после увидит closed
+        while (accesses.get() != 0) {
+            Thread.yield();
+        }
+        for (int c = 0; c < buffers.length; c++) {
+            chunks[c] = null;
+            if (buffers[c] != null) {
+                DirectBuffers.free(buffers[c]);
+                buffers[c] = null;
+            }
+        }
+    }
+
+    /**
+     * Starts an access to {@code row}, which must end with {@code accesses.decrementAndGet()}.
+     */
+    private DoubleBuffer acquire(int row) {
+        accesses.incrementAndGet();
+        if (closed) {
+            accesses.decrementAndGet();
+            throw new IllegalStateException(name + " is closed");
+        }
+        return chunks[row / rowsPerChunk];
+    }
+
+}
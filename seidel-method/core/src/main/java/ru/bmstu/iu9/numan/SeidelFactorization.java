@@ -0,0 +1,702 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.MatrixDimensionMismatchException;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.RealVector;
+
+import java.util.Arrays;
+
+import static ru.bmstu.iu9.numan.BlockKernels.*;
+
+/**
+ * Left-hand side part of the block Seidel method: the factors {@code G[k]} and the products {@code D[k] * C(k)}
+ * together with private copies of the {@code A(k)} and {@code C(k)} blocks. How {@code G[k]} is stored is
+ * chosen by {@link Mode}.
+ * <p>
+ * A {@link LinearBlockTridiagonalEquation} is copied. Any other {@link BlockTridiagonalSystem}, e.g. a
+ * {@link VirtualEquation}, is kept by reference and every sweep reads {@code A(k)} and {@code C(k)} from it one
+ * block at a time, so in {@link Mode#IMPLICIT} mode nothing of size {@code l m^2} is allocated. Such a system must
+ * not change while the factorization is in use and must allow concurrent reads if solves run concurrently.
+ * <p>
+ * Instances are immutable once built, so one factorization can be shared between threads and reused for any
+ * number of right-hand sides. Every {@code solve} call works in its own buffers. {@link #pipelined()} gives a view
+ * whose vector solves use a second thread.
+ */
+public final class SeidelFactorization {
+
+    /**
+     * Storage of the inverses {@code G[k]} of the tridiagonal Schur blocks.
+     */
+    public enum Mode {
+        /**
+         * Dense {@code G[k]} and {@code D[k] * C(k)} blocks: {@code 2 l m^2} doubles, every application is an
+         * {@code O(m^2)} matrix-vector product.
+         */
+        DENSE,
+        /**
+         * Thomas coefficients of every Schur block and the tridiagonal band {@code D[k]} of its inverse:
+         * {@code 6 l m} doubles. {@code G[k] * v} is an {@code O(m)} forward and back substitution and
+         * {@code D[k] * C(k) * v} is applied as {@code D[k] * (C(k) * v)}. Results differ from {@link #DENSE} by
+         * rounding only.
+         */
+        IMPLICIT
+    }
+
+    private final int noOfEquations;
+    private final int blockDim;
+    private final Mode mode;
+    private final OffDiagonalBlocks blocks;
+
+    // Mode.DENSE
+    private final double[] G;
+    private final double[] DC;
+
+    // Mode.IMPLICIT: поддиагональ блока Шура, прогоночные коэффициенты и ленточная часть D[k] его обратной
+    private final double[] lower;
+    private final double[] alpha;
+    private final double[] den;
+    private final double[] DL;
+    private final double[] DD;
+    private final double[] DU;
+
+    private final boolean pipelined;
+
+    public SeidelFactorization(BlockTridiagonalSystem eq) {
+        this(eq, Mode.DENSE, SolverListener.SILENT);
+    }
+
+    public SeidelFactorization(BlockTridiagonalSystem eq, SolverListener listener) {
+        this(eq, Mode.DENSE, listener);
+    }
+
+    public SeidelFactorization(BlockTridiagonalSystem eq, Mode mode) {
+        this(eq, mode, SolverListener.SILENT);
+    }
+
+    public SeidelFactorization(BlockTridiagonalSystem eq, Mode mode, SolverListener listener) {
+        long startTime = System.nanoTime(), startAllocated = AllocationCounter.currentThreadAllocatedBytes();
+        this.noOfEquations = eq.getEquationsCount();
+        this.blockDim = eq.getBlockDim();
+        this.mode = mode;
+
+        int blockSize = blockDim * blockDim, size = noOfEquations * blockSize;
+        this.blocks = new OffDiagonalBlocks(eq);
+
+        boolean dense = mode == Mode.DENSE;
+        int bandSize = noOfEquations * blockDim;
+        this.G = dense ? new double[size] : null;
+        this.DC = dense ? new double[size] : null;
+        this.lower = dense ? null : new double[bandSize];
+        this.alpha = dense ? null : new double[bandSize];
+        this.den = dense ? null : new double[bandSize];
+        this.DL = dense ? null : new double[bandSize];
+        this.DD = dense ? null : new double[bandSize];
+        this.DU = dense ? null : new double[bandSize];
+        this.pipelined = false;
+        factorize(eq);
+
+        listener.factorizationFinished(noOfEquations, blockDim, System.nanoTime() - startTime,
+                AllocationCounter.since(startAllocated));
+    }
+
+    private SeidelFactorization(SeidelFactorization factorization, boolean pipelined) {
+        this.noOfEquations = factorization.noOfEquations;
+        this.blockDim = factorization.blockDim;
+        this.mode = factorization.mode;
+        this.blocks = factorization.blocks;
+        this.G = factorization.G;
+        this.DC = factorization.DC;
+        this.lower = factorization.lower;
+        this.alpha = factorization.alpha;
+        this.den = factorization.den;
+        this.DL = factorization.DL;
+        this.DD = factorization.DD;
+        this.DU = factorization.DU;
+        this.pipelined = pipelined;
+    }
+
+    /**
+     * The same factorization, sharing its blocks, whose single right-hand side solves run a {@link SweepPipeline}:
+     * a second thread computes the {@code C(k) * x} products of the next forward sweep behind the backward sweep.
+     * Results, iterations and errors are bit for bit those of the sequential solve, while the solving thread does one
+     * block product per row less: three instead of four in {@link Mode#DENSE}, two instead of three in
+     * {@link Mode#IMPLICIT}. The second thread is started per solve and waits by spinning, so this pays off with a
+     * spare core and blocks of a few dozen rows and more. A source system is read from both threads.
+     */
+    public SeidelFactorization pipelined() {
+        return pipelined ? this : new SeidelFactorization(this, true);
+    }
+
+    public boolean isPipelined() {
+        return pipelined;
+    }
+
+    public int getEquationsCount() {
+        return noOfEquations;
+    }
+
+    public int getBlockDim() {
+        return blockDim;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * {@code G[k]} blocks of {@link Mode#DENSE}, not a copy.
+     */
+    double[] denseG() {
+        return G;
+    }
+
+    /**
+     * {@code D[k] * C(k)} blocks of {@link Mode#DENSE}, not a copy.
+     */
+    double[] denseDC() {
+        return DC;
+    }
+
+    public RealVector solve(RealVector[] rhs, RealVector[] startSol, double precision) {
+        return solve(rhs, startSol, precision, SolverListener.SILENT);
+    }
+
+    public RealVector solve(RealVector[] rhs, RealVector[] startSol, double precision, SolverListener listener) {
+        return solve(rhs, startSol, precision, Relaxation.NONE, listener);
+    }
+
+    public RealVector solve(RealVector rhs, RealVector startSol, double precision) {
+        return solve(rhs, startSol, precision, SolverListener.SILENT);
+    }
+
+    public RealVector solve(RealVector rhs, RealVector startSol, double precision, SolverListener listener) {
+        return solve(rhs, startSol, precision, Relaxation.NONE, listener);
+    }
+
+    /**
+     * Same as {@link #solve(RealVector, RealVector, double)} with relaxed sweeps, see {@link Relaxation}.
+     */
+    public RealVector solve(RealVector[] rhs, RealVector[] startSol, double precision, Relaxation relaxation,
+                            SolverListener listener) {
+        double[] x = pack(startSol);
+        iterate(pack(rhs), x, ConvergencePolicy.updateNorm(precision), relaxation, listener);
+        return new ArrayRealVector(x, false);
+    }
+
+    public RealVector solve(RealVector rhs, RealVector startSol, double precision, Relaxation relaxation) {
+        return solve(rhs, startSol, precision, relaxation, SolverListener.SILENT);
+    }
+
+    public RealVector solve(RealVector rhs, RealVector startSol, double precision, Relaxation relaxation,
+                            SolverListener listener) {
+        return solve(rhs, startSol, ConvergencePolicy.updateNorm(precision), relaxation, listener).getSolution();
+    }
+
+    /**
+     * Iterates until {@code policy} stops. Unlike the {@code precision} overloads, which loop until the update is
+     * small enough, this reports why the iterations stopped and can bound their number and time.
+     */
+    public SolverResult solve(RealVector rhs, RealVector startSol, ConvergencePolicy policy) {
+        return solve(rhs, startSol, policy, Relaxation.NONE, SolverListener.SILENT);
+    }
+
+    public SolverResult solve(RealVector rhs, RealVector startSol, ConvergencePolicy policy, Relaxation relaxation,
+                              SolverListener listener) {
+        checkDimension(rhs.getDimension());
+        checkDimension(startSol.getDimension());
+
+        return iterate(rhs.toArray(), startSol.toArray(), policy, relaxation, listener);
+    }
+
+    int iterate(double[] f, double[] x, double precision) {
+        return iterate(f, x, ConvergencePolicy.updateNorm(precision), Relaxation.NONE, SolverListener.SILENT)
+                .getIterations();
+    }
+
+    /**
+     * Runs Seidel sweeps for the packed right-hand side {@code f}, starting from and overwriting {@code x}. The
+     * error of {@code policy} is accumulated block by block as soon as a block of {@code x} is final, i.e. during
+     * the backward sweep, so it takes no extra pass over the vectors.
+     *
+     * @return result that wraps {@code x}
+     */
+    SolverResult iterate(double[] f, double[] x, ConvergencePolicy policy, Relaxation relaxation, SolverListener listener) {
+        ConvergencePolicy.Norm norm = policy.getNorm();
+        BlockTridiagonalSystem system = policy.getSystem();
+        if (system != null && (system.getEquationsCount() != noOfEquations || system.getBlockDim() != blockDim)) {
+            throw new DimensionMismatchException(system.getEquationsCount() * system.getBlockDim(), noOfEquations * blockDim);
+        }
+
+        double omega = relaxation.getOmega();
+        boolean symmetric = relaxation.isSymmetric(), relaxed = omega != 1.0;
+        boolean report = listener != SolverListener.SILENT;
+        long startTime = System.nanoTime(), startAllocated = report ? AllocationCounter.currentThreadAllocatedBytes() : -1;
+        if (report) {
+            listener.solveStarted(new ArrayRealVector(x), policy.getTolerance());
+        }
+        ConvergencePolicy.Monitor monitor = policy.start();
+
+        int n = 0;
+        int l = noOfEquations, m = blockDim, blockSize = m * m;
+        double[] xPrev = new double[l * m], t = new double[m], result = x, tmp;
+        double[] aBuf = blocks.newBuffer(), cBuf = blocks.newBuffer();
+        // C(k) * x[k+1] (IMPLICIT) или D[k] * C(k) * x[k+1] (DENSE) из обратного хода, на следующей итерации
+        // это произведение с xPrev[k+1]
+        double[] cx = new double[l * m];
+        boolean cxValid = false;
+        SweepPipeline pipeline = null;
+        // адаптивная релаксация: разность предыдущих приближений для оценки собственного значения
+        double[] delta = relaxation.isAdaptive() ? new double[l * m] : null;
+        double deltaNorm2 = 0.0, lambda = Double.NaN;
+        // невязка считается по блокам системы из policy
+        double[] rBlock = system != null ? new double[blockSize] : null, r = system != null ? new double[m] : null;
+
+        // изначально предыдущее значение = начальному приближению, а текущее = вектора заполненые нулями
+        Arrays.fill(xPrev, 1.0);
+        double diff = maxAbsDiff(x, xPrev, 0, x.length), xNorm = maxAbs(x, 0, x.length), residual = 0.0;
+        if (system != null) {
+            for (int k = 0; k < l; k++) {
+                residual = Math.max(residual, residualNorm(system, k, f, x, rBlock, r));
+            }
+        }
+        // у начального приближения нет предыдущего, относительная поправка для него не определена
+        double error = error(norm, diff, xNorm, residual);
+        SolverResult.Status status = norm == ConvergencePolicy.Norm.RELATIVE_UPDATE ? null : monitor.check(0, error);
+
+        try {
+            // поток запускается внутри try, чтобы исключение в любой точке цикла его останавливало
+            if (pipelined && l > 1 && status == null)
+                pipeline = new SweepPipeline(this);
+            while (status == null) {
+                long sweepStart = System.nanoTime();
+                tmp = xPrev;
+                xPrev = x;
+                x = tmp;
+
+                // прямой ход: z[k] сохраняется на месте x[k]
+                for (int k = 0; k < l - 1; k++) {
+                    double[] c = null;
+                    System.arraycopy(f, k * m, t, 0, m);
+                    if (k > 0)
+                        matVecAdd(blocks.block(k, 0, aBuf), blocks.offset(k), m, x, (k - 1) * m, t, 0);
+                    if (pipeline != null && n > 0) {
+                        panelAdd(pipeline.awaitProduct(n, k), k * m, m, 1, 1, t, 0);
+                    } else {
+                        c = blocks.block(k, 2, cBuf);
+                        matVecAdd(c, blocks.offset(k), m, xPrev, Math.max(k, 1) * m, t, 0);
+                    }
+                    applyG(k, t, 0, 1, 1, x, k * m);
+                    if (relaxed)
+                        relax(x, k * m, xPrev, k * m, m, omega);
+                    if (G != null) {
+                        if (cxValid)
+                            panelSub(cx, k * m, m, 1, 1, x, k * m);
+                        else
+                            matVecSub(DC, k * blockSize, m, xPrev, (k + 1) * m, x, k * m);
+                    } else {
+                        if (!cxValid)
+                            matVec(c, blocks.offset(k), m, xPrev, (k + 1) * m, cx, k * m);
+                        tridiagonalPanelMulAdd(DL, DD, DU, k * m, m, cx, k * m, 1, 1, true, x, k * m);
+                    }
+                }
+
+                System.arraycopy(f, (l - 1) * m, t, 0, m);
+                if (l > 1) {
+                    matVecAdd(blocks.block(l - 1, 0, aBuf), blocks.offset(l - 1), m, x, (l - 2) * m, t, 0);
+                }
+                applyG(l - 1, t, 0, 1, 1, x, (l - 1) * m);
+                if (relaxed)
+                    relax(x, (l - 1) * m, xPrev, (l - 1) * m, m, omega);
+                diff = maxAbsDiff(x, xPrev, (l - 1) * m, l * m);
+                xNorm = maxAbs(x, (l - 1) * m, l * m);
+                residual = 0.0;
+
+                if (pipeline != null)
+                    pipeline.backwardStarted(n + 1, x);
+
+                // обратный ход; x[k] окончателен, а с ним и невязка блока k + 1
+                for (int k = l - 2; k >= 0; k--) {
+                    if (G != null) {
+                        matVec(DC, k * blockSize, m, x, (k + 1) * m, cx, k * m);
+                        panelAdd(cx, k * m, m, 1, 1, x, k * m);
+                    } else {
+                        matVec(blocks.block(k, 2, cBuf), blocks.offset(k), m, x, (k + 1) * m, cx, k * m);
+                        tridiagonalPanelMulAdd(DL, DD, DU, k * m, m, cx, k * m, 1, 1, false, x, k * m);
+                    }
+                    if (symmetric && relaxed)
+                        relax(x, k * m, xPrev, k * m, m, omega);
+                    if (pipeline != null)
+                        pipeline.rowFinal(n + 1, k);
+
+                    diff = Math.max(diff, maxAbsDiff(x, xPrev, k * m, (k + 1) * m));
+                    xNorm = Math.max(xNorm, maxAbs(x, k * m, (k + 1) * m));
+                    if (system != null)
+                        residual = Math.max(residual, residualNorm(system, k + 1, f, x, rBlock, r));
+                }
+                if (system != null)
+                    residual = Math.max(residual, residualNorm(system, 0, f, x, rBlock, r));
+                cxValid = true;
+
+                n++;
+                if (delta != null) {
+                    double dot = 0.0, norm2 = 0.0;
+                    for (int i = 0; i < delta.length; i++) {
+                        double d = x[i] - xPrev[i];
+                        dot += d * delta[i];
+                        norm2 += d * d;
+                        delta[i] = d;
+                    }
+                    if (n > 1)
+                        lambda = dot / deltaNorm2;
+                    deltaNorm2 = norm2;
+                    if (n == Relaxation.ESTIMATION_SWEEPS) {
+                        omega = relaxation.chooseOmega(lambda);
+                        relaxed = omega != 1.0;
+                        delta = null;
+                        listener.relaxationChosen(n, lambda, omega);
+                    }
+                }
+                listener.sweepFinished(n, diff, System.nanoTime() - sweepStart);
+
+                error = error(norm, diff, xNorm, residual);
+                status = monitor.check(n, error);
+            }
+        } finally {
+            if (pipeline != null)
+                pipeline.close();
+        }
+
+        if (x != result) {
+            System.arraycopy(x, 0, result, 0, x.length);
+        }
+
+        RealVector solution = new ArrayRealVector(result, false);
+        if (report) {
+            listener.solveFinished(solution, n, System.nanoTime() - startTime, AllocationCounter.since(startAllocated));
+        }
+        return new SolverResult(solution, status, n, error);
+    }
+
+    private static double error(ConvergencePolicy.Norm norm, double diff, double xNorm, double residual) {
+        switch (norm) {
+            case RELATIVE_UPDATE:
+                return diff == 0.0 ? 0.0 : diff / xNorm;
+            case RESIDUAL:
+                return residual;
+            default:
+                return diff;
+        }
+    }
+
+    /**
+     * Inf-norm of {@code f(k) + A(k) x[k-1] - B(k) x[k] + C(k) x[k+1]}; {@code buf} is an {@code m x m} and
+     * {@code r} an {@code m} scratch array.
+     */
+    static double residualNorm(BlockTridiagonalSystem system, int k, double[] f, double[] x, double[] buf, double[] r) {
+        int l = system.getEquationsCount(), m = system.getBlockDim();
+        System.arraycopy(f, k * m, r, 0, m);
+        system.copyBlock(k, 1, buf, 0);
+        matVecSub(buf, 0, m, x, k * m, r, 0);
+        if (k > 0) {
+            system.copyBlock(k, 0, buf, 0);
+            matVecAdd(buf, 0, m, x, (k - 1) * m, r, 0);
+        }
+        if (k < l - 1) {
+            system.copyBlock(k, 2, buf, 0);
+            matVecAdd(buf, 0, m, x, (k + 1) * m, r, 0);
+        }
+        return maxAbs(r, 0, m);
+    }
+
+    /**
+     * Solves for all columns of {@code rhs} at once. Row {@code k * m + i} of {@code rhs} and {@code startSol}
+     * belongs to block row {@code k}, each column is an independent right-hand side. Every column gives the same
+     * result as a separate {@link #solve(RealVector, RealVector, double)} call.
+     */
+    public RealMatrix solve(RealMatrix rhs, RealMatrix startSol, double precision) {
+        checkDimension(rhs.getRowDimension());
+        if (startSol.getRowDimension() != rhs.getRowDimension() || startSol.getColumnDimension() != rhs.getColumnDimension()) {
+            throw new MatrixDimensionMismatchException(startSol.getRowDimension(), startSol.getColumnDimension(),
+                    rhs.getRowDimension(), rhs.getColumnDimension());
+        }
+
+        int rows = rhs.getRowDimension(), r = rhs.getColumnDimension();
+        double[] F = new double[rows * r], X = new double[rows * r];
+        for (int i = 0; i < rows; i++) {
+            for (int c = 0; c < r; c++) {
+                F[i * r + c] = rhs.getEntry(i, c);
+                X[i * r + c] = startSol.getEntry(i, c);
+            }
+        }
+
+        iterate(F, X, r, precision);
+
+        double[][] solution = new double[rows][];
+        for (int i = 0; i < rows; i++) {
+            solution[i] = Arrays.copyOfRange(X, i * r, (i + 1) * r);
+        }
+        return new Array2DRowRealMatrix(solution, false);
+    }
+
+    /**
+     * Batch version of {@link #iterate(double[], double[], double)} over row-major {@code (l * m) x r} panels.
+     * Each sweep multiplies whole {@code m x r} panels by the blocks. Columns that reach {@code precision} are
+     * moved out of the active range, so later sweeps only touch the columns still iterating.
+     *
+     * @return number of sweeps made for every column
+     */
+    int[] iterate(double[] F, double[] X, int r, double precision) {
+        int l = noOfEquations, m = blockDim, blockSize = m * m, panelSize = m * r;
+        int[] iterations = new int[r], slotColumn = new int[r];
+        double[] result = X, xPrev = new double[l * panelSize], t = new double[panelSize], acc = new double[panelSize];
+        double[] dist = new double[r], tmp;
+        double[] aBuf = blocks.newBuffer(), cBuf = blocks.newBuffer();
+        F = F.clone();
+        X = X.clone();
+
+        for (int c = 0; c < r; c++) {
+            slotColumn[c] = c;
+        }
+        Arrays.fill(xPrev, 1.0);
+
+        int active = r, n = 0;
+        while (true) {
+            // столбцы, для которых достигнута точность, переносятся в конец активного диапазона
+            columnDistances(X, xPrev, r, active, dist);
+            for (int s = active - 1; s >= 0; s--) {
+                if (!(dist[s] > precision)) {
+                    int col = slotColumn[s];
+                    iterations[col] = n;
+                    copyColumn(X, s, result, col, r, l * m);
+                    active--;
+                    if (s != active) {
+                        swapColumns(X, s, active, r, l * m);
+                        swapColumns(F, s, active, r, l * m);
+                        slotColumn[s] = slotColumn[active];
+                    }
+                }
+            }
+            if (active == 0) {
+                break;
+            }
+
+            tmp = xPrev;
+            xPrev = X;
+            X = tmp;
+
+            for (int k = 0; k < l - 1; k++) {
+                double[] c = blocks.block(k, 2, cBuf);
+                int cOff = blocks.offset(k);
+                copyPanel(F, k * panelSize, t, m, r, active);
+                if (k == 0) {
+                    panelMul(c, cOff, m, xPrev, panelSize, r, active, acc, 0);
+                    panelAdd(acc, 0, m, r, active, t, 0);
+                } else {
+                    panelMul(blocks.block(k, 0, aBuf), blocks.offset(k), m, X, (k - 1) * panelSize, r, active, acc, 0);
+                    panelAdd(acc, 0, m, r, active, t, 0);
+                    panelMul(c, cOff, m, xPrev, k * panelSize, r, active, acc, 0);
+                    panelAdd(acc, 0, m, r, active, t, 0);
+                }
+                applyG(k, t, 0, r, active, X, k * panelSize);
+                addDC(k, c, cOff, xPrev, (k + 1) * panelSize, r, active, true, X, k * panelSize, acc);
+            }
+
+            copyPanel(F, (l - 1) * panelSize, t, m, r, active);
+            if (l > 1) {
+                panelMul(blocks.block(l - 1, 0, aBuf), blocks.offset(l - 1), m, X, (l - 2) * panelSize, r, active, acc, 0);
+                panelAdd(acc, 0, m, r, active, t, 0);
+            }
+            applyG(l - 1, t, 0, r, active, X, (l - 1) * panelSize);
+
+            for (int k = l - 2; k >= 0; k--) {
+                double[] c = G == null ? blocks.block(k, 2, cBuf) : null;
+                addDC(k, c, blocks.offset(k), X, (k + 1) * panelSize, r, active, false, X, k * panelSize, acc);
+            }
+
+            n++;
+        }
+
+        return iterations;
+    }
+
+    /**
+     * G[k] = (B(k) - A(k) * D[k-1] * C(k-1))^-1 over the tridiagonal part, D[k] = tridiagonal part of G[k].
+     */
+    private void factorize(BlockTridiagonalSystem eq) {
+        int l = noOfEquations, m = blockDim, blockSize = m * m;
+        double[] b = new double[blockSize], aBuf = blocks.newBuffer();
+        // C(k-1) нужен на следующем шаге, поэтому без копий блоков используются два буфера попеременно
+        double[][] cBufs = {blocks.newBuffer(), blocks.newBuffer()};
+        double[] cPrev = null;
+        int cPrevOff = 0;
+        double[] lower = new double[m], diag = new double[m], upper = new double[m];
+        double[] alpha = new double[m], beta = new double[m];
+        double[] AD = new double[blockSize];
+        // IMPLICIT: D[k-1] в плотном блоке, заполняется только лента
+        double[] band = G == null ? new double[blockSize] : null;
+
+        for (int k = 0; k < l; k++) {
+            eq.copyBlock(k, 1, b, 0);
+            for (int i = 0; i < m; i++) {
+                diag[i] = b[i * m + i];
+                lower[i] = i > 0 ? b[i * m + i - 1] : 0.0;
+                upper[i] = i < m - 1 ? b[i * m + i + 1] : 0.0;
+            }
+
+            if (k > 0) {
+                // нужна только трёхдиагональная часть A(k) * D[k-1] * C(k-1)
+                double[] a = blocks.block(k, 0, aBuf);
+                int aOff = blocks.offset(k);
+                if (G != null) {
+                    denseTimesTridiagonal(a, aOff, G, (k - 1) * blockSize, m, AD, 0);
+                } else {
+                    expandBand(k - 1, band);
+                    denseTimesTridiagonal(a, aOff, band, 0, m, AD, 0);
+                }
+                for (int i = 0; i < m; i++) {
+                    diag[i] -= columnDot(AD, i * m, cPrev, cPrevOff + i, m);
+                    if (i > 0)
+                        lower[i] -= columnDot(AD, i * m, cPrev, cPrevOff + i - 1, m);
+                    if (i < m - 1)
+                        upper[i] -= columnDot(AD, i * m, cPrev, cPrevOff + i + 1, m);
+                }
+            }
+
+            double[] c = blocks.block(k, 2, cBufs[k & 1]);
+            int cOff = blocks.offset(k);
+            if (G != null) {
+                inverseOfTridiagonal(lower, diag, upper, m, alpha, beta, G, k * blockSize);
+                tridiagonalTimesDense(G, k * blockSize, c, cOff, m, DC, k * blockSize);
+            } else {
+                thomasCoefficients(lower, diag, upper, m, alpha, beta);
+                inverseBandOfTridiagonal(lower, diag, upper, m, alpha, beta, DL, DD, DU, k * m);
+                for (int i = 0; i < m; i++) {
+                    this.lower[k * m + i] = i > 0 ? lower[i] : 0.0;
+                    this.alpha[k * m + i] = alpha[i];
+                    this.den[k * m + i] = i > 0 ? diag[i] + lower[i] * alpha[i - 1] : diag[i];
+                }
+            }
+            cPrev = c;
+            cPrevOff = cOff;
+        }
+    }
+
+    /**
+     * {@code out = C(k) * x}, for {@link SweepPipeline}; {@code buf} is an {@code m x m} scratch array.
+     */
+    void multiplyC(int k, double[] x, int xOff, double[] out, int outOff, double[] buf) {
+        matVec(blocks.block(k, 2, buf), blocks.offset(k), blockDim, x, xOff, out, outOff);
+    }
+
+    private void expandBand(int k, double[] band) {
+        int m = blockDim;
+        for (int i = 0; i < m; i++) {
+            band[i * m + i] = DD[k * m + i];
+            if (i > 0)
+                band[i * m + i - 1] = DL[k * m + i];
+            if (i < m - 1)
+                band[i * m + i + 1] = DU[k * m + i];
+        }
+    }
+
+    /**
+     * {@code out = G[k] * t} for the {@code m x cols} panel {@code t} with row stride {@code stride}; a vector
+     * is a panel with {@code stride = cols = 1}.
+     */
+    private void applyG(int k, double[] t, int tOff, int stride, int cols, double[] out, int outOff) {
+        int m = blockDim;
+        if (G == null) {
+            thomasSolve(lower, alpha, den, k * m, m, t, tOff, stride, cols, out, outOff);
+        } else if (stride == 1 && cols == 1) {
+            matVec(G, k * m * m, m, t, tOff, out, outOff);
+        } else {
+            panelMul(G, k * m * m, m, t, tOff, stride, cols, out, outOff);
+        }
+    }
+
+    /**
+     * {@code dest += D[k] * C(k) * src} for {@code m x cols} panels, or {@code dest -= ...} if {@code subtract}
+     * is set. {@code C(k)} is read from {@code c} at {@code cOff} and is only used in {@link Mode#IMPLICIT} mode.
+     * {@code acc} is an {@code m x stride} scratch panel.
+     */
+    private void addDC(int k, double[] c, int cOff, double[] src, int srcOff, int stride, int cols, boolean subtract,
+                       double[] dest, int destOff, double[] acc) {
+        int m = blockDim;
+        if (G == null) {
+            panelMul(c, cOff, m, src, srcOff, stride, cols, acc, 0);
+            tridiagonalPanelMulAdd(DL, DD, DU, k * m, m, acc, 0, stride, cols, subtract, dest, destOff);
+        } else {
+            panelMul(DC, k * m * m, m, src, srcOff, stride, cols, acc, 0);
+            if (subtract)
+                panelSub(acc, 0, m, stride, cols, dest, destOff);
+            else
+                panelAdd(acc, 0, m, stride, cols, dest, destOff);
+        }
+    }
+
+    double[] pack(RealVector[] vectors) {
+        if (vectors.length != noOfEquations) {
+            throw new DimensionMismatchException(vectors.length, noOfEquations);
+        }
+
+        double[] data = new double[noOfEquations * blockDim];
+        for (int k = 0; k < noOfEquations; k++) {
+            if (vectors[k].getDimension() != blockDim) {
+                throw new DimensionMismatchException(vectors[k].getDimension(), blockDim);
+            }
+            for (int i = 0; i < blockDim; i++) {
+                data[k * blockDim + i] = vectors[k].getEntry(i);
+            }
+        }
+        return data;
+    }
+
+    private void checkDimension(int dim) {
+        if (dim != noOfEquations * blockDim) {
+            throw new DimensionMismatchException(dim, noOfEquations * blockDim);
+        }
+    }
+
+    private static void columnDistances(double[] X, double[] xPrev, int stride, int cols, double[] dist) {
+        Arrays.fill(dist, 0, cols, 0.0);
+        for (int rowOff = 0; rowOff < X.length; rowOff += stride) {
+            for (int c = 0; c < cols; c++) {
+                double diff = Math.abs(X[rowOff + c] - xPrev[rowOff + c]);
+                if (diff > dist[c])
+                    dist[c] = diff;
+            }
+        }
+    }
+
+    private static void copyPanel(double[] src, int srcOff, double[] dest, int m, int stride, int cols) {
+        for (int i = 0; i < m; i++) {
+            System.arraycopy(src, srcOff + i * stride, dest, i * stride, cols);
+        }
+    }
+
+    private static void copyColumn(double[] src, int srcCol, double[] dest, int destCol, int stride, int rows) {
+        for (int i = 0; i < rows; i++) {
+            dest[i * stride + destCol] = src[i * stride + srcCol];
+        }
+    }
+
+    private static void swapColumns(double[] data, int first, int second, int stride, int rows) {
+        for (int i = 0; i < rows; i++) {
+            double tmp = data[i * stride + first];
+            data[i * stride + first] = data[i * stride + second];
+            data[i * stride + second] = tmp;
+        }
+    }
+
+    private static double columnDot(double[] row, int rowOff, double[] matrix, int colOff, int m) {
+        double sum = 0;
+        for (int p = 0; p < m; p++) {
+            sum += row[rowOff + p] * matrix[colOff + p * m];
+        }
+        return sum;
+    }
+
+}
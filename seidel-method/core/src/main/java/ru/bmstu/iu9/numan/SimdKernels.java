@@ -0,0 +1,42 @@
+package ru.bmstu.iu9.numan;
+
+/**
+ * SIMD implementations of the {@link BlockKernels} hot loops.
+ * <p>
+ * The implementation, {@code VectorApiKernels}, uses {@code jdk.incubator.vector} and is compiled only by the
+ * {@code jdk17} profile into {@code META-INF/versions/17} of the multi-release core jar. It is used when the jar runs
+ * on Java 17+ with {@code --add-modules jdk.incubator.vector}; otherwise {@link #load} returns {@code null} and
+ * {@link BlockKernels} keeps its scalar loops.
+ * <p>
+ * {@link #axpy}, {@link #maxAbsDiff} and {@link #maxAbs} give the same results as the scalar loops bit for bit.
+ * There is no dot product: lane-wise partial sums would differ from the left to right sum in the last bits.
+ */
+interface SimdKernels {
+
+    String IMPLEMENTATION = "ru.bmstu.iu9.numan.VectorApiKernels";
+
+    /**
+     * {@code y += alpha * x} over {@code n} entries. {@code y} must not overlap {@code x}.
+     */
+    void axpy(double alpha, double[] x, int xOff, double[] y, int yOff, int n);
+
+    /**
+     * Like the scalar loop, returns NaN if some difference is NaN.
+     */
+    double maxAbsDiff(double[] x, double[] y, int from, int to);
+
+    double maxAbs(double[] x, int from, int to);
+
+    /**
+     * @return the Vector API kernels, or {@code null} if they are not in the jar, the incubator module is not
+     * resolved or the CPU has no double lanes
+     */
+    static SimdKernels load() {
+        try {
+            return (SimdKernels) Class.forName(IMPLEMENTATION).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            return null;
+        }
+    }
+
+}
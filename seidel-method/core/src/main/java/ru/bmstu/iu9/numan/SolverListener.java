@@ -0,0 +1,45 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.linear.RealVector;
+
+/**
+ * Receives progress and metrics of the Seidel solver. All methods do nothing by default.
+ * <p>
+ * Times are in nanoseconds. Allocated bytes are counted for the calling thread and are {@code -1} when the JVM
+ * can not measure them.
+ */
+public interface SolverListener {
+
+    /**
+     * Listener that ignores everything. Solvers skip collecting optional data when they get it.
+     */
+    SolverListener SILENT = new SolverListener() {
+    };
+
+    default void factorizationFinished(int equationsCount, int blockDim, long nanos, long allocatedBytes) {
+    }
+
+    default void solveStarted(RealVector startSol, double precision) {
+    }
+
+    /**
+     * @param iteration number of the sweep, starting from 1
+     * @param diffNorm  inf-norm of the difference between this and the previous approximation
+     */
+    default void sweepFinished(int iteration, double diffNorm, long nanos) {
+    }
+
+    /**
+     * Called once by an adaptive {@link Relaxation} when the relaxation factor is chosen.
+     *
+     * @param iteration number of sweeps made before the choice
+     * @param lambda    estimate of the dominant eigenvalue of the plain iteration
+     * @param omega     relaxation factor of the remaining sweeps
+     */
+    default void relaxationChosen(int iteration, double lambda, double omega) {
+    }
+
+    default void solveFinished(RealVector solution, int iterations, long nanos, long allocatedBytes) {
+    }
+
+}
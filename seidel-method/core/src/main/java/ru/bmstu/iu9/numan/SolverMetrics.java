@@ -0,0 +1,82 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.linear.RealVector;
+
+import java.util.Arrays;
+
+/**
+ * Listener that keeps the metrics of the last solve for programmatic access.
+ */
+public class SolverMetrics implements SolverListener {
+
+    private long factorizationNanos = -1;
+    private long factorizationAllocatedBytes = -1;
+    private int iterations;
+    private double[] diffNorms = new double[16];
+    private long[] sweepNanos = new long[16];
+    private long solveNanos = -1;
+    private long solveAllocatedBytes = -1;
+
+    @Override
+    public void factorizationFinished(int equationsCount, int blockDim, long nanos, long allocatedBytes) {
+        factorizationNanos = nanos;
+        factorizationAllocatedBytes = allocatedBytes;
+    }
+
+    @Override
+    public void solveStarted(RealVector startSol, double precision) {
+        iterations = 0;
+        solveNanos = -1;
+        solveAllocatedBytes = -1;
+    }
+
+    @Override
+    public void sweepFinished(int iteration, double diffNorm, long nanos) {
+        if (iterations == diffNorms.length) {
+            diffNorms = Arrays.copyOf(diffNorms, 2 * iterations);
+            sweepNanos = Arrays.copyOf(sweepNanos, 2 * iterations);
+        }
+        diffNorms[iterations] = diffNorm;
+        sweepNanos[iterations] = nanos;
+        iterations++;
+    }
+
+    @Override
+    public void solveFinished(RealVector solution, int iterations, long nanos, long allocatedBytes) {
+        this.iterations = iterations;
+        solveNanos = nanos;
+        solveAllocatedBytes = allocatedBytes;
+    }
+
+    public long getFactorizationNanos() {
+        return factorizationNanos;
+    }
+
+    public long getFactorizationAllocatedBytes() {
+        return factorizationAllocatedBytes;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Inf-norm of the difference between successive approximations, one entry per sweep.
+     */
+    public double[] getDiffNorms() {
+        return Arrays.copyOf(diffNorms, iterations);
+    }
+
+    public long[] getSweepNanos() {
+        return Arrays.copyOf(sweepNanos, iterations);
+    }
+
+    public long getSolveNanos() {
+        return solveNanos;
+    }
+
+    public long getSolveAllocatedBytes() {
+        return solveAllocatedBytes;
+    }
+
+}
@@ -0,0 +1,65 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.linear.RealVector;
+
+/**
+ * Outcome of an iterative solve: the last approximation, why the iterations stopped, how many sweeps were made and
+ * the error measured by the {@link ConvergencePolicy} after the last sweep.
+ */
+public final class SolverResult {
+
+    public enum Status {
+        /**
+         * The error is within the tolerance.
+         */
+        CONVERGED,
+        MAX_ITERATIONS,
+        TIME_LIMIT,
+        /**
+         * The error has not decreased for the stagnation window of the policy.
+         */
+        STAGNATED,
+        /**
+         * The error is not finite or has grown above the divergence threshold of the policy.
+         */
+        DIVERGED
+    }
+
+    private final RealVector solution;
+    private final Status status;
+    private final int iterations;
+    private final double error;
+
+    SolverResult(RealVector solution, Status status, int iterations, double error) {
+        this.solution = solution;
+        this.status = status;
+        this.iterations = iterations;
+        this.error = error;
+    }
+
+    public RealVector getSolution() {
+        return solution;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isConverged() {
+        return status == Status.CONVERGED;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public double getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s after %d iterations, error %e", status, iterations, error);
+    }
+
+}
@@ -0,0 +1,145 @@
+package ru.bmstu.iu9.numan;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Second thread of a pipelined Seidel solve. Row {@code k} of the forward sweep needs {@code C(k) * xPrev[k']},
+ * {@code k' = max(k, 1)}, a product of the previous approximation only. The thread computes these products of the
+ * next forward sweep right behind the backward sweep, as soon as {@code x[k']} is final, so the solving thread does
+ * not. The products are the same numbers the solving thread would compute, so results stay bit for bit the same.
+ * <p>
+ * The threads hand rows over through two progress stamps, {@code iteration * (l + 1) + rows}: {@link #rowFinal}
+ * publishes how many rows of {@code x} the backward sweep has finished, the thread publishes how many products are
+ * ready. A waiting thread spins for a while and then parks for short periods, no locks are taken.
+ */
+final class SweepPipeline implements Runnable, AutoCloseable {
+
+    private static final int SPINS = 1 << 10;
+    private static final long PARK_NANOS = 20000;
+
+    private final SeidelFactorization factorization;
+    private final int noOfEquations;
+    private final int blockDim;
+    // C(k) * x[max(k, 1)] для прямого хода следующей итерации
+    private final double[] products;
+    private final Thread thread;
+
+    private volatile double[] x;
+    private volatile long finalized;
+    private volatile long computed;
+    private volatile boolean closed;
+    private volatile Throwable failure;
+
+    SweepPipeline(SeidelFactorization factorization) {
+        this.factorization = factorization;
+        this.noOfEquations = factorization.getEquationsCount();
+        this.blockDim = factorization.getBlockDim();
+        this.products = new double[noOfEquations * blockDim];
+        this.thread = new Thread(this, "seidel-pipeline");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * The backward sweep of iteration {@code n} (counted from 1) starts on {@code x}; its last row is final.
+     */
+    void backwardStarted(int n, double[] x) {
+        this.x = x;
+        finalized = stamp(n, 1);
+    }
+
+    /**
+     * Row {@code k} of {@code x} is final in iteration {@code n}.
+     */
+    void rowFinal(int n, int k) {
+        finalized = stamp(n, noOfEquations - k);
+    }
+
+    /**
+     * Waits for the product of row {@code k} computed from the approximation of iteration {@code n}. A failure of
+     * the thread is rethrown here, unchecked exceptions and errors as they are.
+     *
+     * @return the products, row {@code k} starts at {@code k * m}
+     */
+    double[] awaitProduct(int n, int k) {
+        long target = stamp(n, noOfEquations - k);
+        for (int spins = 0; computed < target; spins++) {
+            Throwable e = failure;
+            if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            }
+            if (e instanceof Error) {
+                throw (Error) e;
+            }
+            if (e != null) {
+                throw new IllegalStateException(e);
+            }
+            idle(spins);
+        }
+        return products;
+    }
+
+    @Override
+    public void run() {
+        int l = noOfEquations, m = blockDim;
+        double[] buf = new double[m * m];
+        try {
+            for (int n = 1; ; n++) {
+                if (!awaitFinalized(stamp(n, 1)))
+                    return;
+                double[] src = x;
+
+                // строки прямого хода 0..l-2 в порядке готовности x[k']
+                for (int k = l - 2; k >= 0; k--) {
+                    int source = Math.max(k, 1);
+                    if (!awaitFinalized(stamp(n, l - source)))
+                        return;
+                    factorization.multiplyC(k, src, source * m, products, k * m, buf);
+                    computed = stamp(n, l - k);
+                }
+            }
+        } catch (Throwable e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Stops the thread and waits for it, so it no longer reads the system.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(thread);
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean awaitFinalized(long target) {
+        for (int spins = 0; finalized < target; spins++) {
+            if (closed)
+                return false;
+            idle(spins);
+        }
+        return !closed;
+    }
+
+    private long stamp(int n, int rows) {
+        return (long) n * (noOfEquations + 1) + rows;
+    }
+
+    private static void idle(int spins) {
+        if (spins >= SPINS) {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+}
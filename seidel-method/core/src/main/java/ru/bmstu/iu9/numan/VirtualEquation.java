@@ -0,0 +1,196 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.exception.NotStrictlyPositiveException;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.MatrixUtils;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.RealVector;
+
+import static java.lang.Math.abs;
+
+/**
+ * Random block tridiagonal system that is never stored. Every element is a hash of the seed and its position
+ * {@code (k, l, i, j)}, so any block can be regenerated in {@code O(m^2)} time, in any order and from any thread,
+ * and the same seed always gives the same system.
+ * <p>
+ * Blocks follow the rules of the {@link RandomEquations} generator of the same {@link MatrixType}: zero
+ * {@code A(0)} and {@code C(l-1)}, banded {@code B(k)} whose diagonal is the sum of absolute values of its block
+ * row, {@code A(k) = C(k-1)^T} for {@link MatrixType#SELF_ADJOINT_MATRIX}. {@link MatrixType#DEFAULT} uses
+ * {@code maxElemVal} only, as {@link RandomEquations#randDefaultLhs(int, int, double)} does.
+ * <p>
+ * {@link SeidelFactorization} in {@link SeidelFactorization.Mode#IMPLICIT} mode solves it in {@code O(l m)} memory.
+ */
+public final class VirtualEquation implements BlockTridiagonalSystem {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final int RHS = 3;
+
+    private final long seed;
+    private final MatrixType type;
+    private final int noOfEquations;
+    private final int blockDim;
+    private final double minElemVal;
+    private final double maxElemVal;
+
+    public VirtualEquation(long seed, MatrixType type, int noOfEquations, int blockDim, double minElemVal, double maxElemVal) {
+        if (noOfEquations <= 0) {
+            throw new NotStrictlyPositiveException(noOfEquations);
+        }
+        if (blockDim <= 0) {
+            throw new NotStrictlyPositiveException(blockDim);
+        }
+
+        this.seed = mix(seed);
+        this.type = type;
+        this.noOfEquations = noOfEquations;
+        this.blockDim = blockDim;
+        this.minElemVal = minElemVal;
+        this.maxElemVal = maxElemVal;
+    }
+
+    @Override
+    public int getEquationsCount() {
+        return noOfEquations;
+    }
+
+    @Override
+    public int getBlockDim() {
+        return blockDim;
+    }
+
+    public MatrixType getType() {
+        return type;
+    }
+
+    @Override
+    public void copyBlock(int k, int l, double[] dest, int off) {
+        checkBlock(k, l);
+        int m = blockDim;
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < m; j++) {
+                dest[off + i * m + j] = element(k, l, i, j);
+            }
+        }
+    }
+
+    @Override
+    public void copyRhs(int k, double[] dest, int off) {
+        checkBlock(k, 0);
+        for (int i = 0; i < blockDim; i++) {
+            dest[off + i] = uniform(k, RHS, i, 0, minElemVal, maxElemVal);
+        }
+    }
+
+    public RealMatrix A(int k) {
+        return block(k, 0);
+    }
+
+    public RealMatrix B(int k) {
+        return block(k, 1);
+    }
+
+    public RealMatrix C(int k) {
+        return block(k, 2);
+    }
+
+    public RealVector f(int k) {
+        double[] f = new double[blockDim];
+        copyRhs(k, f, 0);
+        return new ArrayRealVector(f, false);
+    }
+
+    /**
+     * Materializes the whole system, e.g. to save it or to solve it with the dense solvers.
+     */
+    public LinearBlockTridiagonalEquation toEquation() {
+        LinearBlockTridiagonalEquation eq = new LinearBlockTridiagonalEquation(noOfEquations, blockDim);
+        double[] lhs = eq.lhsData(), rhs = eq.rhsData();
+        for (int k = 0; k < noOfEquations; k++) {
+            for (int l = 0; l < LinearBlockTridiagonalEquation.LINE_BLOCKS_COUNT; l++) {
+                copyBlock(k, l, lhs, eq.blockOffset(k, l));
+            }
+            copyRhs(k, rhs, eq.rhsOffset(k));
+        }
+        return eq;
+    }
+
+    private RealMatrix block(int k, int l) {
+        int m = blockDim;
+        double[] data = new double[m * m];
+        copyBlock(k, l, data, 0);
+
+        RealMatrix matrix = MatrixUtils.createRealMatrix(m, m);
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < m; j++) {
+                matrix.setEntry(i, j, data[i * m + j]);
+            }
+        }
+        return matrix;
+    }
+
+    private double element(int k, int l, int i, int j) {
+        switch (l) {
+            case 0:
+                if (k == 0)
+                    return 0.0;
+                return type == MatrixType.SELF_ADJOINT_MATRIX ? element(k - 1, 2, j, i) : offDiagonal(k, 0, i, j);
+            case 1:
+                return i == j ? rowSum(k, i) : banded(k, i, j);
+            default:
+                return k == noOfEquations - 1 ? 0.0 : offDiagonal(k, 2, i, j);
+        }
+    }
+
+    /**
+     * Сумма модулей элементов строки {@code i} блочной строки {@code k}, с исходным (случайным) диагональным элементом.
+     */
+    private double rowSum(int k, int i) {
+        double rowSum = 0;
+        for (int j = 0; j < blockDim; j++) {
+            rowSum += abs(element(k, 0, i, j)) + abs(banded(k, i, j)) + abs(element(k, 2, i, j));
+        }
+        return rowSum;
+    }
+
+    private double banded(int k, int i, int j) {
+        if (abs(i - j) > 1) {
+            return 0.0;
+        }
+        if (type == MatrixType.DEFAULT) {
+            return uniform(k, 1, i, j, -abs(maxElemVal), 0.0);
+        }
+        // симметричная трёхдиагональная: B(j, i) берётся по счётчику B(i, j)
+        if (type == MatrixType.SELF_ADJOINT_MATRIX && j < i) {
+            return uniform(k, 1, j, i, minElemVal, maxElemVal);
+        }
+        return uniform(k, 1, i, j, minElemVal, maxElemVal);
+    }
+
+    private double offDiagonal(int k, int l, int i, int j) {
+        if (type == MatrixType.DEFAULT) {
+            return uniform(k, l, i, j, 0.0, abs(maxElemVal));
+        }
+        return uniform(k, l, i, j, minElemVal, maxElemVal);
+    }
+
+    /**
+     * Uniform value in {@code [a, b)} for element {@code (i, j)} of block {@code (k, l)}: SplitMix64 finalizer
+     * applied to the seed plus the element counter times the golden gamma.
+     */
+    private double uniform(int k, int l, int i, int j, double a, double b) {
+        long counter = (((long) k * (RHS + 1) + l) * blockDim + i) * blockDim + j;
+        long bits = mix(seed + counter * GOLDEN_GAMMA);
+        return a + (b - a) * ((bits >>> 11) * 0x1.0p-53);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private void checkBlock(int k, int l) {
+        LinearBlockTridiagonalEquation.checkBlockIndex(noOfEquations, k, l);
+    }
+
+}
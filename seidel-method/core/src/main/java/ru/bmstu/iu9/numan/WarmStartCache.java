@@ -0,0 +1,160 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.NotStrictlyPositiveException;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.RealVector;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Recent solutions to start the next solve from, for runs of nearby systems such as perturbation studies or time
+ * steps. Holds at most {@code capacity} solutions and evicts the least recently used one.
+ * <p>
+ * A system is described by its shape and a fingerprint of {@code 2 l} numbers: the sum of {@code f(k)} and the sum of
+ * the {@code A(k)}, {@code B(k)}, {@code C(k)} entries of every block row. {@link #lookup} returns the solution of the
+ * stored system of the same shape with the closest fingerprint in the inf-norm. Storing a system with the same
+ * fingerprint replaces the old solution.
+ * <p>
+ * All methods are thread-safe.
+ */
+public final class WarmStartCache {
+
+    private static final class Entry {
+        final int equationsCount;
+        final int blockDim;
+        final double[] fingerprint;
+        final double[] solution;
+
+        Entry(int equationsCount, int blockDim, double[] fingerprint, double[] solution) {
+            this.equationsCount = equationsCount;
+            this.blockDim = blockDim;
+            this.fingerprint = fingerprint;
+            this.solution = solution;
+        }
+    }
+
+    private final int capacity;
+    private final LinkedHashMap<Long, Entry> entries;
+    private long nextId;
+    private long hits;
+    private long misses;
+
+    public WarmStartCache(int capacity) {
+        if (capacity <= 0) {
+            throw new NotStrictlyPositiveException(capacity);
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<Long, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > WarmStartCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * @return copy of the closest stored solution, or {@code null} if there is none of the same shape
+     */
+    public RealVector lookup(BlockTridiagonalSystem system) {
+        double[] fingerprint = fingerprint(system);
+        synchronized (this) {
+            Long best = closest(system.getEquationsCount(), system.getBlockDim(), fingerprint, Double.POSITIVE_INFINITY);
+            if (best == null) {
+                misses++;
+                return null;
+            }
+            hits++;
+            // get() обновляет порядок LRU
+            return new ArrayRealVector(entries.get(best).solution);
+        }
+    }
+
+    /**
+     * Same as {@link #lookup}, but returns the zero vector if nothing is stored for the shape of {@code system}.
+     */
+    public RealVector startFor(BlockTridiagonalSystem system) {
+        RealVector start = lookup(system);
+        return start != null ? start : new ArrayRealVector(system.getEquationsCount() * system.getBlockDim());
+    }
+
+    public void store(BlockTridiagonalSystem system, RealVector solution) {
+        int l = system.getEquationsCount(), m = system.getBlockDim();
+        if (solution.getDimension() != l * m) {
+            throw new DimensionMismatchException(solution.getDimension(), l * m);
+        }
+
+        double[] fingerprint = fingerprint(system);
+        Entry entry = new Entry(l, m, fingerprint, solution.toArray());
+        synchronized (this) {
+            Long same = closest(l, m, fingerprint, 0.0);
+            if (same != null) {
+                entries.remove(same);
+            }
+            entries.put(nextId++, entry);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Id of the entry of the given shape with the smallest fingerprint distance not above {@code maxDistance}.
+     * Iterates without touching the LRU order.
+     */
+    private Long closest(int equationsCount, int blockDim, double[] fingerprint, double maxDistance) {
+        Long best = null;
+        double bestDistance = maxDistance;
+        for (Map.Entry<Long, Entry> e : entries.entrySet()) {
+            Entry entry = e.getValue();
+            if (entry.equationsCount != equationsCount || entry.blockDim != blockDim)
+                continue;
+
+            double distance = BlockKernels.maxAbsDiff(entry.fingerprint, fingerprint, 0, fingerprint.length);
+            if (distance <= bestDistance) {
+                best = e.getKey();
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    static double[] fingerprint(BlockTridiagonalSystem system) {
+        int l = system.getEquationsCount(), m = system.getBlockDim();
+        double[] fingerprint = new double[2 * l], block = new double[m * m];
+        for (int k = 0; k < l; k++) {
+            system.copyRhs(k, block, 0);
+            fingerprint[2 * k] = sum(block, m);
+            double lhsSum = 0;
+            for (int j = 0; j < LinearBlockTridiagonalEquation.LINE_BLOCKS_COUNT; j++) {
+                system.copyBlock(k, j, block, 0);
+                lhsSum += sum(block, m * m);
+            }
+            fingerprint[2 * k + 1] = lhsSum;
+        }
+        return fingerprint;
+    }
+
+    private static double sum(double[] values, int length) {
+        double sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+}
@@ -0,0 +1,67 @@
+package ru.bmstu.iu9.numan;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link SimdKernels} over {@link DoubleVector#SPECIES_PREFERRED}: 4 lanes with AVX2, 8 with AVX-512. Tails shorter
+ * than a vector run in scalar loops. Products and sums are separate operations, not fused, so {@link #axpy} rounds
+ * exactly like the scalar loop.
+ */
+final class VectorApiKernels implements SimdKernels {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    VectorApiKernels() {
+        if (SPECIES.length() < 2) {
+            throw new UnsupportedOperationException("No SIMD lanes for double: " + SPECIES);
+        }
+    }
+
+    @Override
+    public void axpy(double alpha, double[] x, int xOff, double[] y, int yOff, int n) {
+        int upper = SPECIES.loopBound(n), j = 0;
+        DoubleVector va = DoubleVector.broadcast(SPECIES, alpha);
+        for (; j < upper; j += SPECIES.length()) {
+            DoubleVector vy = DoubleVector.fromArray(SPECIES, y, yOff + j);
+            vy.add(DoubleVector.fromArray(SPECIES, x, xOff + j).mul(va)).intoArray(y, yOff + j);
+        }
+        for (; j < n; j++) {
+            y[yOff + j] += alpha * x[xOff + j];
+        }
+    }
+
+    @Override
+    public double maxAbsDiff(double[] x, double[] y, int from, int to) {
+        int upper = from + SPECIES.loopBound(to - from), i = from;
+        DoubleVector max = DoubleVector.zero(SPECIES);
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector diff = DoubleVector.fromArray(SPECIES, x, i).sub(DoubleVector.fromArray(SPECIES, y, i)).abs();
+            // MAX, как и Math.max, возвращает NaN, если хотя бы один аргумент NaN
+            max = max.lanewise(VectorOperators.MAX, diff);
+        }
+
+        double normInf = max.reduceLanes(VectorOperators.MAX);
+        for (; i < to; i++) {
+            normInf = Math.max(normInf, Math.abs(x[i] - y[i]));
+        }
+        return normInf;
+    }
+
+    @Override
+    public double maxAbs(double[] x, int from, int to) {
+        int upper = from + SPECIES.loopBound(to - from), i = from;
+        DoubleVector max = DoubleVector.zero(SPECIES);
+        for (; i < upper; i += SPECIES.length()) {
+            max = max.lanewise(VectorOperators.MAX, DoubleVector.fromArray(SPECIES, x, i).abs());
+        }
+
+        double normInf = max.reduceLanes(VectorOperators.MAX);
+        for (; i < to; i++) {
+            normInf = Math.max(normInf, Math.abs(x[i]));
+        }
+        return normInf;
+    }
+
+}
@@ -0,0 +1,30 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.linear.LUDecomposition;
+import org.apache.commons.math3.linear.RealVector;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.testng.Assert.assertEquals;
+import static ru.bmstu.iu9.numan.TestEquations.randomEquation;
+
+public class BlockCyclicReductionSolverTest {
+
+    @Test
+    public void testMatchesDenseLu() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int l : new int[]{1, 2, 7, 16, 33}) {
+                LinearBlockTridiagonalEquation equation = randomEquation(l, 3);
+                RealVector expected = new LUDecomposition(equation.lhsAsRealMatrix()).getSolver().solve(equation.rhsAsVector());
+                RealVector actual = new BlockCyclicReductionSolver(pool).solve(equation);
+
+                assertEquals(actual.subtract(expected).getLInfNorm(), 0.0, 1e-10);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,32 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.linear.LUDecomposition;
+import org.apache.commons.math3.linear.RealVector;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static ru.bmstu.iu9.numan.TestEquations.randomEquation;
+
+public class BlockThomasSolverTest {
+
+    @Test
+    public void testMatchesDenseLu() {
+        for (int l : new int[]{1, 2, 7, 16, 33}) {
+            LinearBlockTridiagonalEquation equation = randomEquation(l, 3);
+            RealVector expected = new LUDecomposition(equation.lhsAsRealMatrix()).getSolver().solve(equation.rhsAsVector());
+            RealVector actual = new BlockThomasSolver().solve(equation);
+
+            assertEquals(actual.subtract(expected).getLInfNorm(), 0.0, 1e-10);
+        }
+    }
+
+    @Test
+    public void testSolvesVirtualEquation() {
+        VirtualEquation virtual = new VirtualEquation(5, MatrixType.SELF_ADJOINT_MATRIX, 50, 6, -4, 4);
+        LinearBlockTridiagonalEquation equation = virtual.toEquation();
+
+        RealVector expected = new BlockThomasSolver().solve(equation);
+        assertEquals(new BlockThomasSolver().solve(virtual), expected);
+    }
+
+}
@@ -0,0 +1,72 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.exception.MathUnsupportedOperationException;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.ConjugateGradient;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.RealVector;
+import org.apache.commons.math3.linear.SymmLQ;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static ru.bmstu.iu9.numan.TestEquations.randomEquation;
+
+public class BlockTridiagonalMatrixTest {
+
+    @Test
+    public void testMatchesSparseMatrix() {
+        for (int l : new int[]{1, 2, 9}) {
+            LinearBlockTridiagonalEquation equation = randomEquation(l, 3);
+            RealMatrix expected = equation.lhsAsRealMatrix();
+            BlockTridiagonalMatrix view = equation.lhsAsMatrixView();
+
+            for (int i = 0; i < expected.getRowDimension(); i++) {
+                for (int j = 0; j < expected.getColumnDimension(); j++) {
+                    assertEquals(view.getEntry(i, j), expected.getEntry(i, j));
+                }
+            }
+
+            RealVector v = new ArrayRealVector(RandomEquations.randVector(3 * l, -2, 2));
+            assertEquals(view.operate(v).subtract(expected.operate(v)).getLInfNorm(), 0.0, 1e-12);
+            assertEquals(view.operateTranspose(v).subtract(expected.preMultiply(v)).getLInfNorm(), 0.0, 1e-12);
+            assertEquals(view.getNorm(), expected.getNorm());
+            assertEquals(view.getFrobeniusNorm(), expected.getFrobeniusNorm(), 1e-12);
+        }
+    }
+
+    @Test
+    public void testWritesThroughToEquation() {
+        LinearBlockTridiagonalEquation equation = randomEquation(4, 2);
+        BlockTridiagonalMatrix view = equation.lhsAsMatrixView();
+
+        view.setEntry(2, 1, 5.0);
+        assertEquals(equation.A(1).getEntry(0, 1), -5.0);
+        view.addToEntry(3, 3, 1.0);
+        assertEquals(view.getEntry(3, 3), equation.B(1).getEntry(1, 1));
+        view.setEntry(0, 7, 0.0);
+
+        RealMatrix copy = view.copy();
+        copy.setEntry(2, 1, 1.0);
+        assertEquals(view.getEntry(2, 1), 5.0);
+    }
+
+    @Test(expectedExceptions = MathUnsupportedOperationException.class)
+    public void testSetOutsideBand() {
+        randomEquation(4, 2).lhsAsMatrixView().setEntry(0, 7, 1.0);
+    }
+
+    @Test
+    public void testIterativeSolvers() {
+        LinearBlockTridiagonalEquation equation =
+                new VirtualEquation(3, MatrixType.SELF_ADJOINT_MATRIX, 40, 5, -4, 4).toEquation();
+        RealVector expected = new BlockThomasSolver().solve(equation);
+        BlockTridiagonalMatrix view = equation.lhsAsMatrixView();
+
+        RealVector cg = new ConjugateGradient(1000, 1e-12, true).solve(view, equation.rhsAsVector());
+        RealVector symmLq = new SymmLQ(1000, 1e-12, true).solve(view, equation.rhsAsVector());
+
+        assertEquals(cg.subtract(expected).getLInfNorm(), 0.0, 1e-8);
+        assertEquals(symmLq.subtract(expected).getLInfNorm(), 0.0, 1e-8);
+    }
+
+}
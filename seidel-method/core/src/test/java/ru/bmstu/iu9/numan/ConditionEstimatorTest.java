@@ -0,0 +1,72 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.MatrixUtils;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.RealVector;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static ru.bmstu.iu9.numan.TestEquations.randomEquation;
+
+public class ConditionEstimatorTest {
+
+    @Test
+    public void testBlockLuSolvesBothSystems() {
+        for (int l : new int[]{1, 2, 9}) {
+            LinearBlockTridiagonalEquation equation = randomEquation(l, 4);
+            RealMatrix lhs = equation.lhsAsRealMatrix();
+            BlockLUFactorization factorization = new BlockLUFactorization(equation);
+
+            double[] x = equation.rhsAsVector().toArray();
+            factorization.solve(x);
+            assertEquals(lhs.operate(new ArrayRealVector(x)).subtract(equation.rhsAsVector()).getLInfNorm(), 0.0, 1e-10);
+
+            double[] y = equation.rhsAsVector().toArray();
+            factorization.solveTransposed(y);
+            assertEquals(lhs.preMultiply(new ArrayRealVector(y)).subtract(equation.rhsAsVector()).getLInfNorm(), 0.0, 1e-10);
+        }
+    }
+
+    @Test
+    public void testMatchesDenseCondition() {
+        for (MatrixType type : MatrixType.values()) {
+            for (int m : new int[]{1, 3, 6}) {
+                LinearBlockTridiagonalEquation equation = new VirtualEquation(m, type, 12, m, -5, 5).toEquation();
+                RealMatrix lhs = equation.lhsAsRealMatrix();
+                double exact = MatrixUtils.inverse(lhs).getNorm();
+                double estimate = new ConditionEstimator(equation).inverseNorm1();
+
+                assertEquals(ConditionEstimator.norm1(equation), lhs.getNorm());
+                assertTrue(estimate <= exact * (1 + 1e-10), estimate + " > " + exact);
+                assertTrue(estimate >= exact / 3, estimate + " < " + exact + " / 3");
+            }
+            // порядок до 4: норма обратной считается точно
+            for (int[] size : new int[][]{{2, 1}, {1, 2}, {3, 1}, {1, 3}, {4, 1}, {2, 2}, {1, 4}}) {
+                for (int seed = 0; seed < 5; seed++) {
+                    LinearBlockTridiagonalEquation equation =
+                            new VirtualEquation(seed, type, size[0], size[1], -5, 5).toEquation();
+                    double exact = MatrixUtils.inverse(equation.lhsAsRealMatrix()).getNorm();
+                    assertEquals(new ConditionEstimator(equation).inverseNorm1(), exact, 1e-12 * exact);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testNonSymmetricSystem() {
+        LinearBlockTridiagonalEquation equation = new LinearBlockTridiagonalEquation(8, 3);
+        equation.setLhs(RandomEquations.randLhs(8, 3, -1, 1));
+        for (int k = 0; k < 8; k++) {
+            RealVector diag = new ArrayRealVector(3, 6.0);
+            equation.setLhsMatrix(k, 1, equation.B(k).add(MatrixUtils.createRealDiagonalMatrix(diag.toArray())));
+        }
+        RealMatrix lhs = equation.lhsAsRealMatrix();
+
+        double exact = lhs.getNorm() * MatrixUtils.inverse(lhs).getNorm();
+        double estimate = ConditionEstimator.condition1(equation);
+        assertTrue(estimate <= exact * (1 + 1e-10) && estimate >= exact / 3, estimate + " vs " + exact);
+    }
+
+}
@@ -0,0 +1,96 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.RealVector;
+import org.testng.annotations.Test;
+
+import java.util.SplittableRandom;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static ru.bmstu.iu9.numan.TestEquations.randomEquation;
+
+public class ConvergencePolicyTest {
+
+    @Test
+    public void testUpdateNormMatchesPrecisionSolve() {
+        LinearBlockTridiagonalEquation equation = randomEquation(20, 4);
+        RealVector start = new ArrayRealVector(20 * 4);
+
+        for (SeidelFactorization.Mode mode : SeidelFactorization.Mode.values()) {
+            SeidelFactorization factorization = new SeidelFactorization(equation, mode);
+            SolverMetrics metrics = new SolverMetrics();
+            RealVector expected = factorization.solve(equation.rhsAsVector(), start, 1e-10, metrics);
+            SolverResult result = factorization.solve(equation.rhsAsVector(), start, ConvergencePolicy.updateNorm(1e-10));
+
+            assertEquals(result.getStatus(), SolverResult.Status.CONVERGED);
+            assertEquals(result.getSolution(), expected);
+            assertEquals(result.getIterations(), metrics.getIterations());
+            double[] diffNorms = metrics.getDiffNorms();
+            assertEquals(result.getError(), diffNorms[diffNorms.length - 1]);
+        }
+    }
+
+    @Test
+    public void testRelativeAndResidualNorms() {
+        LinearBlockTridiagonalEquation equation = randomEquation(15, 3);
+        SeidelFactorization factorization = new SeidelFactorization(equation);
+        RealVector start = new ArrayRealVector(15 * 3);
+
+        SolverResult relative = factorization.solve(equation.rhsAsVector(), start,
+                ConvergencePolicy.relativeUpdateNorm(1e-9));
+        assertTrue(relative.isConverged());
+        assertTrue(relative.getError() <= 1e-9);
+
+        SolverResult residual = factorization.solve(equation.rhsAsVector(), start,
+                ConvergencePolicy.residualNorm(equation, 1e-12).withMaxIterations(7));
+        RealVector r = equation.rhsAsVector().subtract(equation.lhsAsRealMatrix().operate(residual.getSolution()));
+        assertEquals(residual.getStatus(), SolverResult.Status.MAX_ITERATIONS);
+        assertEquals(residual.getIterations(), 7);
+        assertEquals(residual.getError(), r.getLInfNorm(), 1e-12);
+    }
+
+    @Test
+    public void testDivergenceIsDetected() {
+        LinearBlockTridiagonalEquation equation = new LinearBlockTridiagonalEquation(10, 3);
+        equation.setLhs(RandomEquations.randLhs(10, 3, -1, 1, new SplittableRandom(2)));
+        for (int k = 0; k < 10; k++) {
+            equation.setRhsVector(k, new ArrayRealVector(3, 1.0));
+        }
+
+        SolverResult result = new SeidelFactorization(equation).solve(equation.rhsAsVector(), new ArrayRealVector(30),
+                ConvergencePolicy.updateNorm(1e-8).withMaxIterations(1000).withDivergenceFactor(1e6));
+        assertEquals(result.getStatus(), SolverResult.Status.DIVERGED);
+        assertTrue(result.getIterations() < 1000);
+    }
+
+    @Test
+    public void testNaNIterateDiverges() {
+        // нулевые диагональные блоки: сингулярные блоки Шура дают NaN уже на первой итерации
+        LinearBlockTridiagonalEquation equation = new LinearBlockTridiagonalEquation(3, 2);
+        for (int k = 0; k < 3; k++) {
+            equation.setLhsMatrix(k, 0, 2, 2, k > 0 ? 1.0 : 0.0);
+            equation.setLhsMatrix(k, 1, 2, 2, 0.0);
+            equation.setLhsMatrix(k, 2, 2, 2, k < 2 ? 1.0 : 0.0);
+            equation.setRhsVector(k, 2, 1.0);
+        }
+
+        SolverResult result = new SeidelFactorization(equation).solve(equation.rhsAsVector(), new ArrayRealVector(6),
+                ConvergencePolicy.updateNorm(1e-8).withMaxIterations(100).withDivergenceFactor(1e6));
+        assertTrue(Double.isNaN(result.getSolution().getEntry(0)));
+        assertEquals(result.getStatus(), SolverResult.Status.DIVERGED);
+        assertTrue(Double.isNaN(result.getError()));
+    }
+
+    @Test
+    public void testStagnationIsDetected() {
+        LinearBlockTridiagonalEquation equation = randomEquation(10, 3);
+        SeidelFactorization factorization = new SeidelFactorization(equation);
+
+        // невязка метода Зейделя не стремится к нулю, поэтому выходит на плато
+        SolverResult result = factorization.solve(equation.rhsAsVector(), new ArrayRealVector(30),
+                ConvergencePolicy.residualNorm(equation, 0.0).withStagnationWindow(20).withMaxIterations(10000));
+        assertEquals(result.getStatus(), SolverResult.Status.STAGNATED);
+    }
+
+}
@@ -0,0 +1,51 @@
+package ru.bmstu.iu9.numan;
+
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.testng.Assert.assertEquals;
+import static ru.bmstu.iu9.numan.TestEquations.randomEquation;
+
+public class EquationFileFormatTest {
+
+    @Test
+    public void testBinaryRoundTripIsLossless() throws IOException {
+        LinearBlockTridiagonalEquation equation = randomEquation(7, 5);
+        File file = File.createTempFile("equation", EquationFileFormat.BINARY.getExtension());
+        file.deleteOnExit();
+
+        EquationFileFormat.forFileName(file.getName()).save(equation, file);
+
+        assertEquals(file.length(), BinaryEquationFormat.HEADER_SIZE + 8L * (7 * 3 * 25 + 7 * 5));
+        assertEquals(EquationFileFormat.detect(file), EquationFileFormat.BINARY);
+        assertEquals(EquationFileFormat.loadEquation(file), equation);
+    }
+
+    @Test
+    public void testTextFileIsDetected() throws IOException {
+        File file = File.createTempFile("equation", EquationFileFormat.TEXT.getExtension());
+        file.deleteOnExit();
+
+        randomEquation(3, 2).save(file);
+
+        assertEquals(EquationFileFormat.detect(file), EquationFileFormat.TEXT);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testUnsupportedVersionIsRejected() throws IOException {
+        File file = File.createTempFile("equation", ".bin");
+        file.deleteOnExit();
+        BinaryEquationFormat.write(randomEquation(2, 2), file);
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(4);
+            raf.writeInt(Integer.reverseBytes(BinaryEquationFormat.VERSION + 1));
+        }
+
+        BinaryEquationFormat.read(file);
+    }
+
+}
@@ -0,0 +1,61 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.RealVector;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.testng.Assert.assertEquals;
+import static ru.bmstu.iu9.numan.TestEquations.randomEquation;
+
+public class LinearBlockTridiagonalEquationTest {
+
+    @Test
+    public void testBlockViewsWriteThrough() {
+        LinearBlockTridiagonalEquation equation = new LinearBlockTridiagonalEquation(3, 2);
+
+        equation.B(1).setEntry(0, 1, 5.0);
+        equation.f(2).setEntry(1, -3.0);
+
+        assertEquals(equation.lhs()[1][1].getEntry(0, 1), 5.0);
+        assertEquals(equation.rhs()[2].getEntry(1), -3.0);
+        assertEquals(equation.rhsAsVector().getEntry(5), -3.0);
+    }
+
+    @Test
+    public void testLhsAsRealMatrix() {
+        LinearBlockTridiagonalEquation equation = randomEquation(4, 3);
+        RealMatrix full = equation.lhsAsRealMatrix();
+        int m = equation.getBlockDim();
+
+        for (int k = 0; k < equation.getEquationsCount(); k++) {
+            for (int i = 0; i < m; i++) {
+                for (int j = 0; j < m; j++) {
+                    assertEquals(full.getEntry(k * m + i, k * m + j), equation.B(k).getEntry(i, j));
+                    if (k > 0)
+                        assertEquals(full.getEntry(k * m + i, (k - 1) * m + j), -equation.A(k).getEntry(i, j));
+                    if (k < equation.getEquationsCount() - 1)
+                        assertEquals(full.getEntry(k * m + i, (k + 1) * m + j), -equation.C(k).getEntry(i, j));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSaveAndParse() throws IOException {
+        LinearBlockTridiagonalEquation equation = randomEquation(5, 4);
+        File file = File.createTempFile("equation", ".txt");
+        file.deleteOnExit();
+
+        equation.save(file);
+        LinearBlockTridiagonalEquation parsed = new MatrixParser().parse(file);
+
+        assertEquals(parsed.getEquationsCount(), equation.getEquationsCount());
+        assertEquals(parsed.getBlockDim(), equation.getBlockDim());
+        assertEquals(parsed.lhsAsRealMatrix().subtract(equation.lhsAsRealMatrix()).getNorm(), 0.0, 0.01);
+        RealVector rhsDiff = parsed.rhsAsVector().subtract(equation.rhsAsVector());
+        assertEquals(rhsDiff.getLInfNorm(), 0.0, 0.001);
+    }
+}
@@ -0,0 +1,81 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.RealVector;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.expectThrows;
+import static ru.bmstu.iu9.numan.TestEquations.randomEquation;
+
+public class MappedEquationTest {
+
+    @Test
+    public void testBlocksSpanSeveralChunks() throws IOException {
+        LinearBlockTridiagonalEquation equation = randomEquation(13, 3);
+        File file = save(equation);
+
+        // по 2 блочные строки в куске левой части и по 10 в куске правой
+        try (MappedEquation mapped = MappedEquation.open(file, 2 * 8 * 27)) {
+            assertEquals(mapped.getEquationsCount(), 13);
+            assertEquals(mapped.getBlockDim(), 3);
+
+            double[] expected = new double[9], actual = new double[9];
+            for (int k = 0; k < 13; k++) {
+                for (int l = 0; l < 3; l++) {
+                    equation.copyBlock(k, l, expected, 0);
+                    mapped.copyBlock(k, l, actual, 0);
+                    assertEquals(actual, expected);
+                }
+            }
+            assertEquals(mapped.rhsAsVector(), equation.rhsAsVector());
+        }
+    }
+
+    @Test
+    public void testOutOfCoreSolveMatchesInMemorySolve() throws IOException {
+        LinearBlockTridiagonalEquation equation = randomEquation(50, 4);
+        File file = save(equation);
+        RealVector start = new ArrayRealVector(50 * 4);
+        RealVector expected = new SeidelFactorization(equation, SeidelFactorization.Mode.IMPLICIT)
+                .solve(equation.rhsAsVector(), start, 1e-10);
+
+        MappedEquation mapped = MappedEquation.open(file);
+        assertEquals(SeidelAlgorithm.solveWithSeidelMethod(mapped, start, 1e-10, SolverListener.SILENT), expected);
+
+        mapped.close();
+        expectThrows(IllegalStateException.class, () -> mapped.copyRhs(0, new double[4], 0));
+    }
+
+    @Test
+    public void testCloseDuringSolveFailsTheSolve() throws Exception {
+        LinearBlockTridiagonalEquation equation = randomEquation(200, 8);
+        MappedEquation mapped = MappedEquation.open(save(equation));
+        SeidelFactorization factorization = new SeidelFactorization(mapped, SeidelFactorization.Mode.IMPLICIT).pipelined();
+
+        Thread closer = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            mapped.close();
+        });
+        closer.start();
+        // оба потока конвейера читают отображение, пока его закрывают
+        expectThrows(IllegalStateException.class, () -> factorization.solve(mapped.rhsAsVector(),
+                new ArrayRealVector(200 * 8), ConvergencePolicy.updateNorm(0.0).withMaxIterations(Integer.MAX_VALUE)));
+        closer.join();
+    }
+
+    private static File save(LinearBlockTridiagonalEquation equation) throws IOException {
+        File file = File.createTempFile("equation", EquationFileFormat.BINARY.getExtension());
+        file.deleteOnExit();
+        EquationFileFormat.BINARY.save(equation, file);
+        return file;
+    }
+
+}
@@ -0,0 +1,64 @@
+package ru.bmstu.iu9.numan;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.apache.commons.math3.linear.MatrixUtils.createRealMatrix;
+import static org.testng.Assert.assertEquals;
+
+public class MatrixParserTest {
+
+    @Test
+    public void testRepeatedElementsAndLabels() throws IOException {
+        String text = "0 B1 C1 f1\r\n" +
+                "1.5 B2 0 2\r\n" +
+                "\r\n" +
+                "B1:\r\n" +
+                "4 -1e-1\r\n" +
+                "+.5   3.25E1\r\n" +
+                "\r\n" +
+                "C1:\n" +
+                "1 2\n" +
+                "3 4\n" +
+                "\n" +
+                "Unused:\n" +
+                "9 9\n" +
+                "9 9\n" +
+                "\n" +
+                "B2:\n" +
+                "\t7 0.0000000000000000000001\n" +
+                "-0 123456789012345678901234\n" +
+                "\n" +
+                "f1:\n" +
+                "-2 0.1";
+
+        LinearBlockTridiagonalEquation eq = new MatrixParser().parse(new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)));
+
+        assertEquals(eq.getEquationsCount(), 2);
+        assertEquals(eq.getBlockDim(), 2);
+        assertEquals(eq.B(0), createRealMatrix(new double[][]{{4, -0.1}, {0.5, 32.5}}));
+        assertEquals(eq.C(0), createRealMatrix(new double[][]{{1, 2}, {3, 4}}));
+        assertEquals(eq.A(1), createRealMatrix(new double[][]{{1.5, 1.5}, {1.5, 1.5}}));
+        assertEquals(eq.B(1), createRealMatrix(new double[][]{{7, 1e-22}, {-0.0, 123456789012345678901234.0}}));
+        assertEquals(eq.C(1), createRealMatrix(new double[][]{{0, 0}, {0, 0}}));
+        assertEquals(eq.f(0).toArray(), new double[]{-2, 0.1});
+        assertEquals(eq.f(1).toArray(), new double[]{2, 2});
+    }
+
+    @Test
+    public void testNumbersAreCorrectlyRounded() throws IOException {
+        String[] numbers = {"18.894050117222363", "-3.6471032426950876", "0.1", "2.2250738585072014E-308",
+                "9007199254740993", "1.7976931348623157e308", "4.9e-324", "0.30000000000000004", "123.456e-7"};
+
+        LinearBlockTridiagonalEquation eq = new MatrixParser().parse(new ByteArrayInputStream(
+                ("0 B1 0 0\n\nB1:\n" + String.join(" ", numbers) + "\n").getBytes(StandardCharsets.US_ASCII)));
+
+        for (int j = 0; j < numbers.length; j++) {
+            assertEquals(eq.B(0).getEntry(0, j), Double.parseDouble(numbers[j]));
+        }
+    }
+
+}
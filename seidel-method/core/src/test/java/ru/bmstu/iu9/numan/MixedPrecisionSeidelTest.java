@@ -0,0 +1,64 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.RealVector;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static ru.bmstu.iu9.numan.TestEquations.randomEquation;
+
+public class MixedPrecisionSeidelTest {
+
+    @Test
+    public void testRefinementReachesExactSolution() {
+        LinearBlockTridiagonalEquation equation = randomEquation(30, 5);
+        RealVector exact = new BlockThomasSolver().solve(equation);
+
+        SolverResult result = new MixedPrecisionSeidel(equation)
+                .solve(equation.rhsAsVector(), new ArrayRealVector(30 * 5), 1e-12);
+
+        assertTrue(result.isConverged(), result.getStatus().toString());
+        // точнее, чем позволяет одинарная точность хранения блоков
+        assertEquals(result.getSolution().getLInfDistance(exact), 0.0, 1e-10 * exact.getLInfNorm());
+    }
+
+    @Test
+    public void testCorrectionIsSeidelSweep() {
+        LinearBlockTridiagonalEquation equation = randomEquation(20, 4);
+        double[] r = equation.rhsAsVector().toArray(), d = new double[80];
+        int sweeps = new MixedPrecisionSeidel(equation).correction(r, d, new double[80], new double[4]);
+
+        // те же итерации обычного метода Зейделя в двойной точности, с точностью до хранения блоков во float
+        SolverResult seidel = new SeidelFactorization(equation, SeidelFactorization.Mode.DENSE)
+                .solve(equation.rhsAsVector(), new ArrayRealVector(80),
+                        ConvergencePolicy.updateNorm(0.0).withMaxIterations(sweeps), Relaxation.NONE, SolverListener.SILENT);
+
+        assertEquals(seidel.getIterations(), sweeps);
+        RealVector expected = seidel.getSolution();
+        assertEquals(new ArrayRealVector(d).getLInfDistance(expected), 0.0, 1e-5 * expected.getLInfNorm());
+    }
+
+    @Test
+    public void testResidualPolicy() {
+        LinearBlockTridiagonalEquation equation = randomEquation(12, 4);
+        SolverResult result = new MixedPrecisionSeidel(equation).solve(equation.rhsAsVector(), new ArrayRealVector(48),
+                ConvergencePolicy.residualNorm(equation, 1e-11).withMaxIterations(100));
+
+        RealVector r = equation.rhsAsVector().subtract(equation.lhsAsRealMatrix().operate(result.getSolution()));
+        assertEquals(result.getStatus(), SolverResult.Status.CONVERGED);
+        assertEquals(result.getError(), r.getLInfNorm(), 1e-13);
+        assertTrue(r.getLInfNorm() <= 1e-11);
+    }
+
+    @Test
+    public void testSingleBlockRow() {
+        LinearBlockTridiagonalEquation equation = randomEquation(1, 3);
+        SolverResult result = new MixedPrecisionSeidel(equation)
+                .solve(equation.rhsAsVector(), new ArrayRealVector(3), 1e-13);
+
+        assertTrue(result.isConverged());
+        assertEquals(result.getSolution().getLInfDistance(new BlockThomasSolver().solve(equation)), 0.0, 1e-12);
+    }
+
+}
@@ -0,0 +1,95 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.RealVector;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+import static ru.bmstu.iu9.numan.TestEquations.randomEquation;
+
+public class OffHeapEquationTest {
+
+    @Test
+    public void testBlocksSpanSeveralChunks() {
+        LinearBlockTridiagonalEquation equation = randomEquation(11, 3);
+        // по 2 блочные строки в буфере
+        try (OffHeapEquation offHeap = new OffHeapEquation(11, 3, 2 * 8 * (3 * 9 + 3))) {
+            double[] buf = new double[9];
+            for (int k = 0; k < 11; k++) {
+                for (int l = 0; l < 3; l++) {
+                    equation.copyBlock(k, l, buf, 0);
+                    offHeap.setBlock(k, l, buf, 0);
+                }
+                equation.copyRhs(k, buf, 0);
+                offHeap.setRhs(k, buf, 0);
+            }
+
+            assertEquals(offHeap.sizeInBytes(), 11 * 8 * (3 * 9 + 3));
+            assertEquals(new BlockThomasSolver().solve(offHeap), new BlockThomasSolver().solve(equation));
+        }
+    }
+
+    @Test
+    public void testSeidelSolveMatchesHeapEquation() {
+        LinearBlockTridiagonalEquation equation = randomEquation(40, 5);
+        RealVector start = new ArrayRealVector(40 * 5);
+        RealVector expected = new SeidelFactorization(equation, SeidelFactorization.Mode.IMPLICIT)
+                .solve(equation.rhsAsVector(), start, 1e-10);
+
+        try (OffHeapEquation offHeap = OffHeapEquation.copyOf(equation)) {
+            SeidelFactorization factorization = new SeidelFactorization(offHeap, SeidelFactorization.Mode.IMPLICIT);
+            assertEquals(factorization.solve(offHeap.rhsAsVector(), start, 1e-10), expected);
+        }
+    }
+
+    @Test
+    public void testClosedEquationRejectsAccess() {
+        OffHeapEquation offHeap = OffHeapEquation.copyOf(randomEquation(4, 2));
+        offHeap.close();
+        offHeap.close();
+
+        assertTrue(offHeap.isClosed());
+        expectThrows(IllegalStateException.class, () -> offHeap.copyBlock(0, 1, new double[4], 0));
+        expectThrows(IllegalStateException.class, offHeap::rhsAsVector);
+    }
+
+    @Test
+    public void testCloseWaitsForConcurrentReads() throws Exception {
+        OffHeapEquation offHeap = OffHeapEquation.copyOf(randomEquation(50, 16));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Throwable>> readers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                readers.add(executor.submit(() -> {
+                    double[] buf = new double[16 * 16];
+                    try {
+                        for (int i = 0; ; i++) {
+                            offHeap.copyBlock(i % 50, i % 3, buf, 0);
+                        }
+                    } catch (Throwable e) {
+                        return e;
+                    }
+                }));
+            }
+            Thread.sleep(20);
+            offHeap.close();
+
+            // читатели завершаются только исключением закрытой системы, освобождённая память не читается
+            for (Future<Throwable> reader : readers) {
+                assertEquals(reader.get(10, TimeUnit.SECONDS).getClass(), IllegalStateException.class);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
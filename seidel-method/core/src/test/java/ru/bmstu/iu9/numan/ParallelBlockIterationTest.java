@@ -0,0 +1,61 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.RealVector;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static ru.bmstu.iu9.numan.TestEquations.randomEquation;
+
+public class ParallelBlockIterationTest {
+
+    @Test
+    public void testSchemesConvergeToExactSolution() {
+        LinearBlockTridiagonalEquation equation = randomEquation(101, 4);
+        RealVector exact = new BlockThomasSolver().solve(equation);
+        RealVector start = new ArrayRealVector(101 * 4);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            SolverResult jacobi = new ParallelBlockIteration(equation, ParallelBlockIteration.Scheme.JACOBI, pool)
+                    .solve(equation.rhsAsVector(), start, 1e-12);
+            SolverResult redBlack = new ParallelBlockIteration(equation, ParallelBlockIteration.Scheme.RED_BLACK, pool)
+                    .solve(equation.rhsAsVector(), start, 1e-12);
+
+            assertTrue(jacobi.isConverged());
+            assertTrue(redBlack.isConverged());
+            assertEquals(jacobi.getSolution().getLInfDistance(exact), 0.0, 1e-10);
+            assertEquals(redBlack.getSolution().getLInfDistance(exact), 0.0, 1e-10);
+            assertTrue(redBlack.getIterations() < jacobi.getIterations(),
+                    redBlack.getIterations() + " vs " + jacobi.getIterations());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testResultDoesNotDependOnParallelism() {
+        VirtualEquation equation = new VirtualEquation(5, MatrixType.DIAGONAL_DOMINANT, 300, 5, -5, 5);
+        RealVector start = new ArrayRealVector(300 * 5);
+        ConvergencePolicy policy = ConvergencePolicy.residualNorm(equation, 1e-9).withMaxIterations(500);
+        ForkJoinPool single = new ForkJoinPool(1), many = new ForkJoinPool(4);
+        try {
+            for (ParallelBlockIteration.Scheme scheme : ParallelBlockIteration.Scheme.values()) {
+                SolverResult expected = new ParallelBlockIteration(equation, scheme, single)
+                        .solve(equation.rhsAsVector(), start, policy);
+                SolverResult actual = new ParallelBlockIteration(equation, scheme, many)
+                        .solve(equation.rhsAsVector(), start, policy);
+
+                assertEquals(actual.getStatus(), SolverResult.Status.CONVERGED);
+                assertEquals(actual.getIterations(), expected.getIterations());
+                assertEquals(actual.getSolution(), expected.getSolution());
+            }
+        } finally {
+            single.shutdown();
+            many.shutdown();
+        }
+    }
+
+}
@@ -4,6 +4,8 @@ import org.apache.commons.math3.linear.MatrixUtils;
 import org.apache.commons.math3.linear.RealMatrix;
 import org.testng.annotations.Test;
 
+import java.util.SplittableRandom;
+
 import static org.testng.Assert.*;
 
 public class RandomEquationsTest {
@@ -52,4 +54,14 @@ public class RandomEquationsTest {
         }
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSameSeedGivesSameEquation() {
+        RealMatrix[][] first = RandomEquations.randStrongDiagonalDominatedLhs(4, 3, -3, 3, new SplittableRandom(42));
+        RealMatrix[][] second = RandomEquations.randStrongDiagonalDominatedLhs(4, 3, -3, 3, new SplittableRandom(42));
+
+        for (int k = 0; k < 4; k++) {
+            assertEquals(first[k], second[k]);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.exception.OutOfRangeException;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.RealVector;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static ru.bmstu.iu9.numan.TestEquations.randomEquation;
+
+public class RelaxationTest {
+
+    @Test
+    public void testRelaxedSweepsConverge() {
+        LinearBlockTridiagonalEquation equation = randomEquation(30, 4);
+        RealVector start = new ArrayRealVector(30 * 4);
+
+        for (SeidelFactorization.Mode mode : SeidelFactorization.Mode.values()) {
+            SeidelFactorization factorization = new SeidelFactorization(equation, mode);
+            // релаксация не меняет неподвижную точку итераций
+            RealVector expected = factorization.solve(equation.rhsAsVector(), start, 1e-12);
+            Relaxation[] relaxations = {Relaxation.sor(0.8), Relaxation.sor(1.1), Relaxation.ssor(0.9),
+                    Relaxation.adaptiveSor(), Relaxation.adaptiveSsor()};
+            for (Relaxation relaxation : relaxations) {
+                RealVector actual = factorization.solve(equation.rhsAsVector(), start, 1e-12, relaxation);
+                assertEquals(actual.subtract(expected).getLInfNorm(), 0.0, 1e-9, relaxation.toString());
+            }
+        }
+    }
+
+    @Test
+    public void testNoRelaxationIsPlainMethod() {
+        LinearBlockTridiagonalEquation equation = randomEquation(12, 3);
+        SeidelFactorization factorization = new SeidelFactorization(equation);
+        RealVector start = new ArrayRealVector(12 * 3);
+
+        assertEquals(factorization.solve(equation.rhsAsVector(), start, 1e-10, Relaxation.NONE),
+                factorization.solve(equation.rhsAsVector(), start, 1e-10));
+    }
+
+    @Test
+    public void testAdaptiveRelaxationSavesSweeps() {
+        LinearBlockTridiagonalEquation equation =
+                new VirtualEquation(1, MatrixType.SELF_ADJOINT_MATRIX, 200, 8, -5, 5).toEquation();
+        SeidelFactorization factorization = new SeidelFactorization(equation);
+        RealVector start = new ArrayRealVector(200 * 8);
+
+        SolverMetrics plain = new SolverMetrics(), relaxed = new SolverMetrics();
+        double[] omega = new double[1];
+        factorization.solve(equation.rhsAsVector(), start, 1e-10, Relaxation.NONE, plain);
+        factorization.solve(equation.rhsAsVector(), start, 1e-10, Relaxation.adaptiveSor(), new SolverListener() {
+            @Override
+            public void relaxationChosen(int iteration, double lambda, double value) {
+                omega[0] = value;
+            }
+
+            @Override
+            public void solveFinished(RealVector solution, int iterations, long nanos, long allocatedBytes) {
+                relaxed.solveFinished(solution, iterations, nanos, allocatedBytes);
+            }
+        });
+
+        assertTrue(omega[0] < 1.0, "omega = " + omega[0]);
+        assertTrue(relaxed.getIterations() < plain.getIterations(),
+                relaxed.getIterations() + " >= " + plain.getIterations());
+    }
+
+    @Test(expectedExceptions = OutOfRangeException.class)
+    public void testOmegaOutOfRange() {
+        Relaxation.sor(2.0);
+    }
+
+}
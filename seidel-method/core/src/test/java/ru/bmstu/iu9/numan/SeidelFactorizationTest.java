@@ -0,0 +1,103 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.linear.MatrixUtils;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.RealVector;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.testng.Assert.assertEquals;
+import static ru.bmstu.iu9.numan.MatrixHelper.createVectorsOfSameSize;
+import static ru.bmstu.iu9.numan.TestEquations.randomEquation;
+
+public class SeidelFactorizationTest {
+
+    private static final double PRECISION = 1e-8;
+
+    @Test
+    public void testReuseForSeveralRhs() {
+        LinearBlockTridiagonalEquation equation = randomEquation(12, 5);
+        SeidelFactorization factorization = new SeidelFactorization(equation);
+        RealVector[] start = createVectorsOfSameSize(equation.rhs(), 0.0);
+
+        for (int i = 0; i < 3; i++) {
+            for (int k = 0; k < equation.getEquationsCount(); k++) {
+                equation.setRhsVector(k, RandomEquations.randVector(equation.getBlockDim(), -3, 3));
+            }
+
+            RealVector expected = SeidelAlgorithm.solveWithSeidelMethod(equation, start, PRECISION);
+            RealVector actual = factorization.solve(equation.rhs(), start, PRECISION);
+
+            assertEquals(actual, expected);
+        }
+    }
+
+    @Test
+    public void testConcurrentSolves() {
+        LinearBlockTridiagonalEquation equation = randomEquation(20, 6);
+        SeidelFactorization factorization = new SeidelFactorization(equation);
+        RealVector start = equation.rhsAsVector().mapMultiply(0.0);
+        List<RealVector> rhs = IntStream.range(0, 16)
+                .mapToObj(i -> RandomEquations.randVector(equation.getEquationsCount() * equation.getBlockDim(), -3, 3))
+                .collect(Collectors.toList());
+
+        List<RealVector> sequential = rhs.stream()
+                .map(f -> factorization.solve(f, start, PRECISION))
+                .collect(Collectors.toList());
+        List<RealVector> parallel = rhs.parallelStream()
+                .map(f -> factorization.solve(f, start, PRECISION))
+                .collect(Collectors.toList());
+
+        assertEquals(parallel, sequential);
+    }
+
+    @Test
+    public void testBatchSolveMatchesSingleSolves() {
+        // m = 16 не короче BlockKernels.SIMD_MIN_LENGTH: при включённых SIMD-ядрах одиночные решения идут через них
+        for (int m : new int[]{4, 16}) {
+            LinearBlockTridiagonalEquation equation = randomEquation(15, m);
+            SeidelFactorization factorization = new SeidelFactorization(equation);
+            int n = equation.getEquationsCount() * equation.getBlockDim(), r = 7;
+
+            RealMatrix rhs = MatrixUtils.createRealMatrix(n, r);
+            RealMatrix start = MatrixUtils.createRealMatrix(n, r);
+            for (int c = 0; c < r; c++) {
+                rhs.setColumnVector(c, RandomEquations.randVector(n, -3 * c, 3 * c));
+                start.setColumnVector(c, RandomEquations.randVector(n, -c, c));
+            }
+
+            RealMatrix batch = factorization.solve(rhs, start, PRECISION);
+
+            for (int c = 0; c < r; c++) {
+                RealVector single = factorization.solve(rhs.getColumnVector(c), start.getColumnVector(c), PRECISION);
+                assertEquals(batch.getColumnVector(c), single);
+            }
+        }
+    }
+
+    @Test
+    public void testImplicitModeMatchesDense() {
+        for (int m : new int[]{2, 5, 9}) {
+            LinearBlockTridiagonalEquation equation = randomEquation(11, m);
+            SeidelFactorization dense = new SeidelFactorization(equation);
+            SeidelFactorization implicit = new SeidelFactorization(equation, SeidelFactorization.Mode.IMPLICIT);
+            RealVector start = equation.rhsAsVector().mapMultiply(0.0);
+
+            RealVector expected = dense.solve(equation.rhsAsVector(), start, PRECISION);
+            RealVector actual = implicit.solve(equation.rhsAsVector(), start, PRECISION);
+            assertEquals(actual.getDistance(expected), 0.0, 1e-9);
+
+            RealMatrix rhs = MatrixUtils.createRealMatrix(expected.getDimension(), 3);
+            for (int c = 0; c < 3; c++) {
+                rhs.setColumnVector(c, equation.rhsAsVector().mapMultiply(c + 1));
+            }
+            RealMatrix batch = implicit.solve(rhs, rhs.scalarMultiply(0.0), PRECISION);
+            for (int c = 0; c < 3; c++) {
+                assertEquals(batch.getColumnVector(c), implicit.solve(rhs.getColumnVector(c), start, PRECISION));
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package ru.bmstu.iu9.numan;
+
+import org.testng.annotations.Test;
+
+import java.util.SplittableRandom;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Runs on {@code VectorApiKernels} when the build is on Java 17+ and on the scalar loops otherwise.
+ */
+public class SimdKernelsTest {
+
+    @Test
+    public void testKernelsMatchScalarLoops() {
+        SplittableRandom rnd = new SplittableRandom(21);
+        for (int n = 0; n <= 41; n++) {
+            double[] x = random(n + 3, rnd), y = random(n + 5, rnd);
+
+            double dot = 0;
+            for (int j = 0; j < n; j++) {
+                dot += x[3 + j] * y[5 + j];
+            }
+            assertEquals(BlockKernels.dot(x, 3, y, 5, n), dot);
+
+            double[] expected = y.clone(), actual = y.clone();
+            for (int j = 0; j < n; j++) {
+                expected[5 + j] -= 0.75 * x[3 + j];
+            }
+            BlockKernels.axpy(-0.75, x, 3, actual, 5, n);
+            assertEquals(actual, expected);
+
+            double maxAbs = 0, maxAbsDiff = 0;
+            for (int j = 1; j < n; j++) {
+                maxAbs = Math.max(maxAbs, Math.abs(x[j]));
+                maxAbsDiff = Math.max(maxAbsDiff, Math.abs(x[j] - y[j]));
+            }
+            assertEquals(BlockKernels.maxAbs(x, 1, n), maxAbs);
+            assertEquals(BlockKernels.maxAbsDiff(x, y, 1, n), maxAbsDiff);
+        }
+    }
+
+    @Test
+    public void testMatMulSubIsExact() {
+        SplittableRandom rnd = new SplittableRandom(22);
+        int m = 13;
+        double[] a = random(m * m, rnd), b = random(m * m, rnd), out = random(m * m, rnd), expected = out.clone();
+        for (int i = 0; i < m; i++) {
+            for (int p = 0; p < m; p++) {
+                for (int j = 0; j < m; j++) {
+                    expected[i * m + j] -= a[i * m + p] * b[p * m + j];
+                }
+            }
+        }
+
+        BlockKernels.matMulSub(a, 0, b, 0, m, out, 0);
+        assertEquals(out, expected);
+    }
+
+    @Test
+    public void testNaNIsPropagated() {
+        double[] x = new double[20], y = new double[20];
+        x[3] = 2.0;
+        y[17] = -5.0;
+        assertEquals(BlockKernels.maxAbsDiff(x, y, 0, 20), 5.0);
+        assertEquals(BlockKernels.maxAbs(x, 0, 20), 2.0);
+
+        // NaN в векторной части, в хвосте и перед большим значением
+        for (int i : new int[]{0, 11, 16, 19}) {
+            double[] z = x.clone();
+            z[i] = Double.NaN;
+            assertTrue(Double.isNaN(BlockKernels.maxAbsDiff(z, y, 0, 20)), "NaN at " + i);
+            assertTrue(Double.isNaN(BlockKernels.maxAbs(z, 0, 20)), "NaN at " + i);
+        }
+    }
+
+    private static double[] random(int n, SplittableRandom rnd) {
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = rnd.nextDouble(-3, 3);
+        }
+        return values;
+    }
+
+}
@@ -0,0 +1,58 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.linear.RealVector;
+import org.testng.annotations.Test;
+
+import java.io.StringWriter;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static ru.bmstu.iu9.numan.MatrixHelper.createVectorsOfSameSize;
+import static ru.bmstu.iu9.numan.TestEquations.randomEquation;
+
+public class SolverListenerTest {
+
+    private static final double PRECISION = 1e-6;
+
+    @Test
+    public void testMetricsDescribeTheSolve() {
+        LinearBlockTridiagonalEquation equation = randomEquation(20, 4);
+        RealVector[] start = createVectorsOfSameSize(equation.rhs(), 0.0);
+        SolverMetrics metrics = new SolverMetrics();
+
+        RealVector silent = SeidelAlgorithm.solveWithSeidelMethod(equation, start, PRECISION);
+        RealVector reported = SeidelAlgorithm.solveWithSeidelMethod(equation, start, PRECISION, metrics);
+
+        assertEquals(reported, silent);
+        assertTrue(metrics.getFactorizationNanos() >= 0);
+        assertTrue(metrics.getIterations() > 0);
+
+        double[] diffs = metrics.getDiffNorms();
+        assertEquals(diffs.length, metrics.getIterations());
+        assertEquals(metrics.getSweepNanos().length, metrics.getIterations());
+        assertTrue(diffs[diffs.length - 1] <= PRECISION);
+        for (int i = 0; i < diffs.length - 1; i++) {
+            assertTrue(diffs[i] > PRECISION);
+        }
+    }
+
+    @Test
+    public void testCsvHasRowPerEvent() {
+        LinearBlockTridiagonalEquation equation = randomEquation(10, 3);
+        StringWriter csv = new StringWriter();
+        SolverMetrics metrics = new SolverMetrics();
+
+        SeidelFactorization factorization = new SeidelFactorization(equation, new CsvSolverListener(csv));
+        factorization.solve(equation.rhsAsVector(), equation.rhsAsVector().mapMultiply(0.0), PRECISION, metrics);
+        factorization.solve(equation.rhsAsVector(), equation.rhsAsVector().mapMultiply(0.0), PRECISION, new CsvSolverListener(csv));
+
+        String[] rows = csv.toString().split("\\R");
+        assertEquals(rows[0], CsvSolverListener.HEADER);
+        assertTrue(rows[1].startsWith("factorization,,,"));
+        assertEquals(rows[2], CsvSolverListener.HEADER);
+        assertEquals(rows.length, 3 + metrics.getIterations() + 1);
+        assertTrue(rows[3].startsWith("sweep,1,"));
+        assertTrue(rows[rows.length - 1].startsWith("solve," + metrics.getIterations() + ",,"));
+    }
+
+}
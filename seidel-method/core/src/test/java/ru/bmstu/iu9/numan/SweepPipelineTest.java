@@ -0,0 +1,138 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.RealVector;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+import static ru.bmstu.iu9.numan.TestEquations.randomEquation;
+
+public class SweepPipelineTest {
+
+    @Test
+    public void testSameResultsAsSequential() {
+        LinearBlockTridiagonalEquation equation = randomEquation(25, 4);
+        VirtualEquation virtual = new VirtualEquation(3, MatrixType.DIAGONAL_DOMINANT, 30, 5, -3, 3);
+        double[] f = new double[30 * 5];
+        for (int k = 0; k < 30; k++) {
+            virtual.copyRhs(k, f, k * 5);
+        }
+
+        for (SeidelFactorization.Mode mode : SeidelFactorization.Mode.values()) {
+            for (Relaxation relaxation : new Relaxation[]{Relaxation.NONE, Relaxation.adaptiveSor(), Relaxation.ssor(1.2)}) {
+                assertSameResults(equation, equation.rhsAsVector(), mode, relaxation,
+                        ConvergencePolicy.updateNorm(1e-13).withMaxIterations(300));
+                assertSameResults(virtual, new ArrayRealVector(f), mode, relaxation,
+                        ConvergencePolicy.residualNorm(virtual, 1e-10).withMaxIterations(300));
+            }
+        }
+    }
+
+    @Test
+    public void testShortSystems() {
+        for (int l = 1; l <= 3; l++) {
+            LinearBlockTridiagonalEquation equation = randomEquation(l, 3);
+            for (SeidelFactorization.Mode mode : SeidelFactorization.Mode.values()) {
+                assertSameResults(equation, equation.rhsAsVector(), mode, Relaxation.NONE,
+                        ConvergencePolicy.relativeUpdateNorm(1e-13).withMaxIterations(100));
+            }
+        }
+    }
+
+    @Test
+    public void testPipelinedView() {
+        SeidelFactorization factorization = new SeidelFactorization(randomEquation(4, 2));
+        SeidelFactorization pipelined = factorization.pipelined();
+
+        assertFalse(factorization.isPipelined());
+        assertTrue(pipelined.isPipelined());
+        assertSame(pipelined.pipelined(), pipelined);
+        assertEquals(pipelined.getMode(), factorization.getMode());
+    }
+
+    @Test
+    public void testFailuresStopTheThread() {
+        VirtualEquation virtual = new VirtualEquation(5, MatrixType.DIAGONAL_DOMINANT, 20, 3, -3, 3);
+        SeidelFactorization factorization = new SeidelFactorization(virtual).pipelined();
+        RealVector rhs = virtual.rhsAsVector(), start = new ArrayRealVector(20 * 3);
+
+        // невязка начального приближения по закрытой системе: исключение до первой итерации
+        OffHeapEquation closed = OffHeapEquation.copyOf(virtual);
+        closed.close();
+        for (int i = 0; i < 5; i++) {
+            expectThrows(IllegalStateException.class, () -> factorization.solve(rhs, start,
+                    ConvergencePolicy.residualNorm(closed, 1e-8), Relaxation.NONE, SolverListener.SILENT));
+        }
+        assertNoPipelineThreads();
+
+        SolverListener failing = new SolverListener() {
+            @Override
+            public void sweepFinished(int iteration, double diffNorm, long nanos) {
+                if (iteration == 3)
+                    throw new IllegalArgumentException("stop");
+            }
+        };
+        expectThrows(IllegalArgumentException.class, () -> factorization.solve(rhs, start,
+                ConvergencePolicy.updateNorm(1e-12), Relaxation.NONE, failing));
+        assertNoPipelineThreads();
+    }
+
+    @Test
+    public void testHelperErrorIsRethrown() {
+        VirtualEquation virtual = new VirtualEquation(6, MatrixType.DIAGONAL_DOMINANT, 20, 3, -3, 3);
+        BlockTridiagonalSystem system = new BlockTridiagonalSystem() {
+            @Override
+            public int getEquationsCount() {
+                return virtual.getEquationsCount();
+            }
+
+            @Override
+            public int getBlockDim() {
+                return virtual.getBlockDim();
+            }
+
+            @Override
+            public void copyBlock(int k, int l, double[] dest, int off) {
+                if (Thread.currentThread().getName().equals("seidel-pipeline"))
+                    throw new AssertionError("helper");
+                virtual.copyBlock(k, l, dest, off);
+            }
+
+            @Override
+            public void copyRhs(int k, double[] dest, int off) {
+                virtual.copyRhs(k, dest, off);
+            }
+        };
+
+        SeidelFactorization factorization = new SeidelFactorization(system, SeidelFactorization.Mode.IMPLICIT).pipelined();
+        AssertionError error = expectThrows(AssertionError.class, () -> factorization.solve(system.rhsAsVector(),
+                new ArrayRealVector(20 * 3), ConvergencePolicy.updateNorm(1e-12)));
+        assertEquals(error.getMessage(), "helper");
+        assertNoPipelineThreads();
+    }
+
+    private static void assertNoPipelineThreads() {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            assertFalse(thread.getName().equals("seidel-pipeline") && thread.isAlive(), thread.toString());
+        }
+    }
+
+    private static void assertSameResults(BlockTridiagonalSystem system, RealVector rhs, SeidelFactorization.Mode mode,
+                                          Relaxation relaxation, ConvergencePolicy policy) {
+        SeidelFactorization factorization = new SeidelFactorization(system, mode);
+        RealVector start = new ArrayRealVector(rhs.getDimension());
+
+        SolverResult expected = factorization.solve(rhs, start, policy, relaxation, SolverListener.SILENT);
+        SolverResult actual = factorization.pipelined().solve(rhs, start, policy, relaxation, SolverListener.SILENT);
+
+        assertEquals(actual.getStatus(), expected.getStatus());
+        assertEquals(actual.getIterations(), expected.getIterations());
+        assertEquals(Double.doubleToLongBits(actual.getError()), Double.doubleToLongBits(expected.getError()));
+        assertEquals(actual.getSolution(), expected.getSolution());
+    }
+
+}
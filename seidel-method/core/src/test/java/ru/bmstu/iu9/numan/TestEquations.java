@@ -0,0 +1,23 @@
+package ru.bmstu.iu9.numan;
+
+/**
+ * Random systems shared by the tests.
+ */
+final class TestEquations {
+
+    private TestEquations() {
+    }
+
+    /**
+     * Strongly diagonally dominant system with entries and right-hand side in {@code [-3, 3]}.
+     */
+    static LinearBlockTridiagonalEquation randomEquation(int noOfEquations, int blockDim) {
+        LinearBlockTridiagonalEquation equation = new LinearBlockTridiagonalEquation(noOfEquations, blockDim);
+        equation.setLhs(RandomEquations.randStrongDiagonalDominatedLhs(noOfEquations, blockDim, -3, 3));
+        for (int k = 0; k < noOfEquations; k++) {
+            equation.setRhsVector(k, RandomEquations.randVector(blockDim, -3, 3));
+        }
+        return equation;
+    }
+
+}
@@ -0,0 +1,75 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.RealVector;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+public class VirtualEquationTest {
+
+    private static final double PRECISION = 1e-8;
+
+    @Test
+    public void testBlocksAreRegeneratedInAnyOrder() {
+        VirtualEquation virtual = new VirtualEquation(7, MatrixType.DIAGONAL_DOMINANT, 6, 4, -3, 3);
+        LinearBlockTridiagonalEquation materialized = virtual.toEquation();
+
+        for (int k = virtual.getEquationsCount() - 1; k >= 0; k--) {
+            assertEquals(virtual.C(k), materialized.C(k));
+            assertEquals(virtual.B(k), materialized.B(k));
+            assertEquals(virtual.A(k), materialized.A(k));
+            assertEquals(virtual.f(k), materialized.f(k));
+        }
+
+        assertEquals(new VirtualEquation(7, MatrixType.DIAGONAL_DOMINANT, 6, 4, -3, 3).toEquation(), materialized);
+        assertNotEquals(new VirtualEquation(8, MatrixType.DIAGONAL_DOMINANT, 6, 4, -3, 3).toEquation(), materialized);
+    }
+
+    @Test
+    public void testBlocksFollowMatrixType() {
+        for (MatrixType type : MatrixType.values()) {
+            VirtualEquation virtual = new VirtualEquation(11, type, 5, 4, -3, 4);
+            LinearBlockTridiagonalEquation eq = virtual.toEquation();
+            int m = eq.getBlockDim();
+
+            assertEquals(eq.A(0).getFrobeniusNorm(), 0.0);
+            assertEquals(eq.C(eq.getEquationsCount() - 1).getFrobeniusNorm(), 0.0);
+            for (int k = 0; k < eq.getEquationsCount(); k++) {
+                for (int i = 0; i < m; i++) {
+                    double offDiagonal = 0;
+                    for (int j = 0; j < m; j++) {
+                        offDiagonal += Math.abs(eq.A(k).getEntry(i, j)) + Math.abs(eq.C(k).getEntry(i, j));
+                        if (j != i)
+                            offDiagonal += Math.abs(eq.B(k).getEntry(i, j));
+                        if (Math.abs(i - j) > 1)
+                            assertEquals(eq.B(k).getEntry(i, j), 0.0);
+                    }
+                    assertTrue(eq.B(k).getEntry(i, i) >= offDiagonal);
+                }
+            }
+
+            if (type == MatrixType.SELF_ADJOINT_MATRIX) {
+                RealMatrix fullMatrix = eq.lhsAsRealMatrix();
+                assertEquals(fullMatrix, fullMatrix.transpose());
+            }
+        }
+    }
+
+    @Test
+    public void testStreamingSolveMatchesMaterialized() {
+        VirtualEquation virtual = new VirtualEquation(3, MatrixType.TRIDAGONAL_DIAGONAL_BLOCKS, 40, 5, -2, 2);
+        LinearBlockTridiagonalEquation eq = virtual.toEquation();
+        RealVector start = eq.rhsAsVector().mapMultiply(0.0);
+
+        RealVector streamed = SeidelAlgorithm.solveWithSeidelMethod(virtual, start, PRECISION, SolverListener.SILENT);
+        RealVector implicit = new SeidelFactorization(eq, SeidelFactorization.Mode.IMPLICIT)
+                .solve(eq.rhsAsVector(), start, PRECISION);
+        RealVector dense = new SeidelFactorization(eq).solve(eq.rhsAsVector(), start, PRECISION);
+
+        assertEquals(streamed, implicit);
+        assertEquals(streamed.getDistance(dense), 0.0, 1e-6);
+        assertEquals(new SeidelFactorization(virtual).solve(eq.rhsAsVector(), start, PRECISION), dense);
+    }
+
+}
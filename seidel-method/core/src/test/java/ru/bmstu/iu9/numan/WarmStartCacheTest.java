@@ -0,0 +1,81 @@
+package ru.bmstu.iu9.numan;
+
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.RealVector;
+import org.testng.annotations.Test;
+
+import java.util.SplittableRandom;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class WarmStartCacheTest {
+
+    @Test
+    public void testClosestSolutionOfSameShape() {
+        WarmStartCache cache = new WarmStartCache(4);
+        LinearBlockTridiagonalEquation first = new VirtualEquation(1, MatrixType.DIAGONAL_DOMINANT, 10, 3, -5, 5).toEquation();
+        LinearBlockTridiagonalEquation second = new VirtualEquation(2, MatrixType.DIAGONAL_DOMINANT, 10, 3, -5, 5).toEquation();
+        cache.store(first, new ArrayRealVector(30, 1.0));
+        cache.store(second, new ArrayRealVector(30, 2.0));
+
+        LinearBlockTridiagonalEquation perturbed = second.add(deviation(10, 3, 1e-3));
+        assertEquals(cache.lookup(perturbed), new ArrayRealVector(30, 2.0));
+        assertEquals(cache.lookup(first), new ArrayRealVector(30, 1.0));
+        assertNull(cache.lookup(new VirtualEquation(1, MatrixType.DIAGONAL_DOMINANT, 10, 4, -5, 5)));
+        assertEquals(cache.startFor(new VirtualEquation(1, MatrixType.DIAGONAL_DOMINANT, 5, 3, -5, 5)),
+                new ArrayRealVector(15));
+
+        cache.store(second, new ArrayRealVector(30, 3.0));
+        assertEquals(cache.size(), 2);
+        assertEquals(cache.lookup(second), new ArrayRealVector(30, 3.0));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        WarmStartCache cache = new WarmStartCache(2);
+        VirtualEquation[] systems = new VirtualEquation[3];
+        for (int i = 0; i < 3; i++) {
+            systems[i] = new VirtualEquation(i, MatrixType.DEFAULT, 4 + i, 2, -5, 5);
+            cache.store(systems[i], new ArrayRealVector(2 * (4 + i), i));
+            if (i == 1) {
+                cache.lookup(systems[0]);
+            }
+        }
+
+        assertEquals(cache.size(), 2);
+        assertTrue(cache.lookup(systems[0]) != null);
+        assertNull(cache.lookup(systems[1]));
+        assertTrue(cache.lookup(systems[2]) != null);
+    }
+
+    @Test
+    public void testWarmStartSavesSweeps() {
+        LinearBlockTridiagonalEquation equation = new VirtualEquation(3, MatrixType.SELF_ADJOINT_MATRIX, 100, 6, -5, 5).toEquation();
+        SeidelFactorization factorization = new SeidelFactorization(equation);
+        WarmStartCache cache = new WarmStartCache(8);
+        cache.store(equation, factorization.solve(equation.rhsAsVector(), cache.startFor(equation), 1e-10));
+
+        LinearBlockTridiagonalEquation perturbed = equation.add(deviation(100, 6, 1e-4));
+        SeidelFactorization perturbedFactorization = new SeidelFactorization(perturbed);
+        ConvergencePolicy policy = ConvergencePolicy.updateNorm(1e-10);
+        SolverResult cold = perturbedFactorization.solve(perturbed.rhsAsVector(), new ArrayRealVector(600), policy);
+        SolverResult warm = perturbedFactorization.solve(perturbed.rhsAsVector(), cache.startFor(perturbed), policy);
+
+        assertTrue(warm.isConverged());
+        assertTrue(warm.getIterations() < cold.getIterations(), warm.getIterations() + " vs " + cold.getIterations());
+        assertEquals(warm.getSolution().getLInfDistance(cold.getSolution()), 0.0, 1e-8);
+    }
+
+    private static LinearBlockTridiagonalEquation deviation(int l, int m, double max) {
+        SplittableRandom rnd = new SplittableRandom(l);
+        LinearBlockTridiagonalEquation deviation = new LinearBlockTridiagonalEquation(l, m);
+        deviation.setLhs(RandomEquations.randLhs(l, m, -max, max, rnd));
+        for (int k = 0; k < l; k++) {
+            deviation.setRhsVector(k, RandomEquations.randVector(m, -max, max, rnd));
+        }
+        return deviation;
+    }
+
+}